@@ -1,5 +1,9 @@
 package io.github.mikewacker.drift.api;
 
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
 /**
  * Response sender that can send an HTTP status code for an error.
  * <p>
@@ -63,6 +67,20 @@ public interface Sender {
             send(HttpOptional.of(value));
         }
 
+        /**
+         * Sends a value that is identified by a version, such as a revision number or a last-modified timestamp.
+         * <p>
+         * The version is sent as a weak {@code ETag}. If the client already has this version of the value,
+         * a 304 status code is sent instead, and the supplier is never called, so the value is neither
+         * loaded nor serialized. A sender that does not support conditional requests sends the supplied value.
+         *
+         * @param version the version of the value, which must not contain a double quote
+         * @param valueSupplier a supplier of the value to send
+         */
+        default void sendVersionedValue(String version, Supplier<? extends V> valueSupplier) {
+            sendValue(valueSupplier.get());
+        }
+
         @Override
         default void sendErrorCode(int errorCode) {
             send(HttpOptional.empty(errorCode));
@@ -75,4 +93,95 @@ public interface Sender {
          */
         void send(HttpOptional<V> maybeValue);
     }
+
+    /**
+     * Response sender that streams a sequence of items for a successful response, serializing each item as it is sent.
+     * <p>
+     * The whole sequence is never held in memory: items are pulled from the producer only when the connection
+     * can accept more bytes, so a slow client slows down the producer instead of buffering the response.
+     * Items must not be null.
+     * <p>
+     * Once streaming has started, the status code can no longer change. If the producer fails mid-stream,
+     * the connection is closed, so the client sees a truncated response rather than a well-formed one.
+     *
+     * @param <I> the type of each item
+     */
+    interface Stream<I> extends Sender {
+
+        /**
+         * Streams the items of an iterator.
+         * <p>
+         * The iterator is advanced on an IO thread, so it should not block for long.
+         * If the iterator is also {@link AutoCloseable}, it is closed once streaming ends, even if streaming fails.
+         *
+         * @param items an iterator over the items to send
+         */
+        void sendItems(Iterator<? extends I> items);
+
+        /**
+         * Streams the items of a publisher.
+         * <p>
+         * Items are requested a few at a time, and more are only requested once earlier items have been sent.
+         * The subscription is cancelled if the connection fails or closes before the publisher completes.
+         *
+         * @param items a publisher of the items to send
+         */
+        void sendItems(Flow.Publisher<? extends I> items);
+    }
+
+    /**
+     * Response sender that keeps the response open and pushes events to the client as server-sent events (SSE).
+     * <p>
+     * Each event is serialized as JSON into the {@code data} field of the event.
+     * Once the event stream has started, the status code can no longer change.
+     *
+     * @param <V> the type of each event
+     */
+    interface Events<V> extends Sender {
+
+        /**
+         * Starts the event stream, sending the response headers.
+         * The response stays open until the returned channel is closed or the client disconnects.
+         *
+         * @return a channel that pushes events to the client
+         */
+        Channel<V> sendEvents();
+
+        /**
+         * Channel that pushes events to the client. Events can be pushed from any thread.
+         *
+         * @param <V> the type of each event
+         */
+        interface Channel<V> extends AutoCloseable {
+
+            /**
+             * Pushes an event.
+             *
+             * @param event the event to push
+             * @return whether the event was accepted; false if the channel is closed
+             */
+            boolean push(V event);
+
+            /**
+             * Pushes an event with an event type, which the client can listen for by name.
+             *
+             * @param eventType the type of the event, which must not contain a line break
+             * @param event the event to push
+             * @return whether the event was accepted; false if the channel is closed
+             */
+            boolean push(String eventType, V event);
+
+            /**
+             * Determines if the channel is open. A channel closes when it is closed explicitly,
+             * when the client disconnects, or when the client falls too far behind.
+             *
+             * @return whether the channel is open
+             */
+            boolean isOpen();
+
+            /** Closes the channel once the events that were already accepted have been sent. */
+            @Override
+            void close();
+        }
+    }
 }
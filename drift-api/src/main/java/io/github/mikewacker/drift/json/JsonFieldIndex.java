@@ -0,0 +1,185 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.mikewacker.drift.api.HttpOptional;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the top-level fields of a JSON object, which deserializes each field separately.
+ * <p>
+ * The object is tokenized once when it is indexed, but the values of its fields are skipped instead of bound;
+ * the index only records where the raw JSON of each value starts and ends.
+ * A field is bound from its raw JSON only when it is deserialized, so fields that are never deserialized
+ * cost little more than tokenizing them. If a field occurs multiple times, its last value is used.
+ * <p>
+ * A nested value can also be deserialized using a {@link JsonPointer}. Only the raw JSON of the top-level field
+ * is parsed again; the parser skips over every value that is not on the path to the nested value,
+ * so only the nested value is bound.
+ * <p>
+ * An index is immutable once it has been created.
+ */
+public final class JsonFieldIndex {
+
+    private final byte[] rawObject;
+    private final Map<String, Slice> fieldSlices;
+
+    /**
+     * Indexes the top-level fields of a JSON object, or returns empty.
+     *
+     * @param rawObject the object as JSON
+     * @param errorCode an HTTP status code for the error, if the JSON is not a well-formed object
+     * @return an {@link HttpOptional} with the index,
+     *     or an empty {@code HttpOptional} with an error status code if the JSON is not a well-formed object
+     */
+    public static HttpOptional<JsonFieldIndex> tryIndex(byte[] rawObject, int errorCode) {
+        try (JsonParser parser = JsonValues.getMapper().getFactory().createParser(rawObject)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return HttpOptional.empty(errorCode);
+            }
+
+            Map<String, Slice> fieldSlices = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                int start = (int) parser.currentTokenLocation().getByteOffset();
+                parser.skipChildren();
+                parser.finishToken();
+                int end = (int) parser.currentLocation().getByteOffset();
+                fieldSlices.put(name, new Slice(start, end - start));
+            }
+
+            if ((parser.currentToken() != JsonToken.END_OBJECT) || (parser.nextToken() != null)) {
+                return HttpOptional.empty(errorCode);
+            }
+
+            return HttpOptional.of(new JsonFieldIndex(rawObject, fieldSlices));
+        } catch (IOException e) {
+            return HttpOptional.empty(errorCode);
+        }
+    }
+
+    /**
+     * Deserializes the value of a top-level field, or returns empty.
+     *
+     * @param name the name of the field
+     * @param valueTypeRef a {@link TypeReference} for the value
+     * @param errorCode an HTTP status code for the error, if the field is missing or deserialization fails
+     * @return an {@link HttpOptional} with the deserialized value,
+     *     or an empty {@code HttpOptional} with an error status code if the field is missing or deserialization fails
+     * @param <V> the type of the value
+     */
+    public <V> HttpOptional<V> tryDeserializeField(String name, TypeReference<V> valueTypeRef, int errorCode) {
+        Slice slice = fieldSlices.get(name);
+        if (slice == null) {
+            return HttpOptional.empty(errorCode);
+        }
+
+        try {
+            V value = JsonValues.readerFor(valueTypeRef, slice.length())
+                    .readValue(rawObject, slice.offset(), slice.length());
+            return HttpOptional.of(value);
+        } catch (IOException e) {
+            return HttpOptional.empty(errorCode);
+        }
+    }
+
+    /**
+     * Deserializes the value at a JSON pointer, or returns empty.
+     * <p>
+     * If a nested field occurs multiple times, its first value is used.
+     *
+     * @param pointer a {@link JsonPointer} to the value
+     * @param valueTypeRef a {@link TypeReference} for the value
+     * @param errorCode an HTTP status code for the error, if the value is missing or deserialization fails
+     * @return an {@link HttpOptional} with the deserialized value,
+     *     or an empty {@code HttpOptional} with an error status code if the value is missing or deserialization fails
+     * @param <V> the type of the value
+     */
+    public <V> HttpOptional<V> tryDeserializeAt(JsonPointer pointer, TypeReference<V> valueTypeRef, int errorCode) {
+        Slice slice =
+                pointer.matches() ? new Slice(0, rawObject.length) : fieldSlices.get(pointer.getMatchingProperty());
+        if (slice == null) {
+            return HttpOptional.empty(errorCode);
+        }
+
+        ObjectMapper mapper = JsonValues.getMapper();
+        try (JsonParser parser = mapper.getFactory().createParser(rawObject, slice.offset(), slice.length())) {
+            parser.nextToken();
+            JsonPointer nestedPointer = pointer.matches() ? pointer : pointer.tail();
+            if (!tryNavigate(parser, nestedPointer)) {
+                return HttpOptional.empty(errorCode);
+            }
+
+            V value = JsonValues.readerFor(valueTypeRef, slice.length()).readValue(parser);
+            return HttpOptional.of(value);
+        } catch (IOException e) {
+            return HttpOptional.empty(errorCode);
+        }
+    }
+
+    /** Advances the parser to the value at the pointer, skipping other values without binding them. */
+    private static boolean tryNavigate(JsonParser parser, JsonPointer pointer) throws IOException {
+        while (!pointer.matches()) {
+            boolean isFound =
+                    switch (parser.currentToken()) {
+                        case START_OBJECT -> tryFindField(parser, pointer.getMatchingProperty());
+                        case START_ARRAY -> tryFindElement(parser, pointer.getMatchingIndex());
+                        default -> false;
+                    };
+            if (!isFound) {
+                return false;
+            }
+
+            pointer = pointer.tail();
+        }
+
+        return true;
+    }
+
+    /** Advances the parser from the start of an object to the value of a field. */
+    private static boolean tryFindField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String currentName = parser.currentName();
+            parser.nextToken();
+            if (currentName.equals(name)) {
+                return true;
+            }
+
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+
+    /** Advances the parser from the start of an array to an element. */
+    private static boolean tryFindElement(JsonParser parser, int index) throws IOException {
+        if (index < 0) {
+            return false;
+        }
+
+        JsonToken token;
+        for (int i = 0; ((token = parser.nextToken()) != JsonToken.END_ARRAY) && (token != null); ++i) {
+            if (i == index) {
+                return true;
+            }
+
+            parser.skipChildren();
+        }
+
+        return false;
+    }
+
+    private JsonFieldIndex(byte[] rawObject, Map<String, Slice> fieldSlices) {
+        this.rawObject = rawObject;
+        this.fieldSlices = fieldSlices;
+    }
+
+    /** Location of the raw JSON for the value of a field. */
+    private record Slice(int offset, int length) {}
+}
@@ -0,0 +1,155 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Deserializes items from newline-delimited JSON that arrives in chunks, without blocking.
+ * <p>
+ * Each item is on its own line, and blank lines are ignored. An item is deserialized as soon as its line is complete,
+ * so only the current partial line is buffered; memory use does not grow with the number of items.
+ * A line that lies entirely within a chunk is deserialized in place, without being copied.
+ * <p>
+ * A deserializer is used for a single body; it is not thread-safe.
+ *
+ * @param <V> the type of each item
+ */
+public final class JsonLinesDeserializer<V> {
+
+    private static final int INITIAL_LINE_CAPACITY = 256;
+
+    private final TypeReference<V> itemTypeRef;
+    private byte[] partialLine = new byte[0];
+    private int partialLineLength = 0;
+    private boolean failed = false;
+
+    /**
+     * Creates a deserializer for newline-delimited items.
+     *
+     * @param itemTypeRef a {@link TypeReference} for each item
+     * @return a deserializer that has not been fed any input
+     * @param <V> the type of each item
+     */
+    public static <V> JsonLinesDeserializer<V> create(TypeReference<V> itemTypeRef) {
+        return new JsonLinesDeserializer<>(itemTypeRef);
+    }
+
+    /**
+     * Feeds the next chunk, passing each item whose line is completed by this chunk to the consumer.
+     * The chunk is fully consumed, so the caller may reuse it afterward.
+     *
+     * @param chunk a buffer that contains the next chunk
+     * @param offset the offset of the chunk in the buffer
+     * @param length the length of the chunk
+     * @param itemConsumer a consumer for each item
+     * @return whether each item so far is well-formed; if false, further input is ignored
+     */
+    public boolean tryFeed(byte[] chunk, int offset, int length, Consumer<? super V> itemConsumer) {
+        if (failed) {
+            return false;
+        }
+
+        int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; ++i) {
+            if (chunk[i] != '\n') {
+                continue;
+            }
+
+            boolean isWellFormed = (partialLineLength == 0)
+                    ? tryDeserializeLine(chunk, lineStart, i - lineStart, itemConsumer)
+                    : tryDeserializePartialLine(chunk, lineStart, i - lineStart, itemConsumer);
+            if (!isWellFormed) {
+                failed = true;
+                return false;
+            }
+
+            lineStart = i + 1;
+        }
+
+        appendToPartialLine(chunk, lineStart, end - lineStart);
+        return true;
+    }
+
+    /**
+     * Ends the input, passing the item on the last line to the consumer if that line does not end with a newline.
+     *
+     * @param itemConsumer a consumer for the last item
+     * @return whether each item is well-formed
+     */
+    public boolean tryFinish(Consumer<? super V> itemConsumer) {
+        if (failed) {
+            return false;
+        }
+
+        boolean isWellFormed = tryDeserializeLine(partialLine, 0, partialLineLength, itemConsumer);
+        partialLineLength = 0;
+        failed = !isWellFormed;
+        return isWellFormed;
+    }
+
+    /** Completes the partial line with the start of a chunk, and then deserializes it. */
+    private boolean tryDeserializePartialLine(byte[] chunk, int offset, int length, Consumer<? super V> itemConsumer) {
+        appendToPartialLine(chunk, offset, length);
+        boolean isWellFormed = tryDeserializeLine(partialLine, 0, partialLineLength, itemConsumer);
+        partialLineLength = 0;
+        return isWellFormed;
+    }
+
+    /** Deserializes the item on a line, unless the line is blank. The item must be the only value on the line. */
+    private boolean tryDeserializeLine(byte[] buffer, int offset, int length, Consumer<? super V> itemConsumer) {
+        if (isBlank(buffer, offset, length)) {
+            return true;
+        }
+
+        ObjectMapper mapper = JsonValues.getMapper();
+        V item;
+        try (JsonParser parser = mapper.getFactory().createParser(buffer, offset, length)) {
+            item = JsonValues.readerFor(itemTypeRef, length).readValue(parser);
+            if ((item == null) || (parser.nextToken() != null)) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        itemConsumer.accept(item);
+        return true;
+    }
+
+    /** Appends bytes to the partial line, growing it as needed. */
+    private void appendToPartialLine(byte[] chunk, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        int minCapacity = partialLineLength + length;
+        if (minCapacity > partialLine.length) {
+            int newCapacity = Math.max(Math.max(minCapacity, 2 * partialLine.length), INITIAL_LINE_CAPACITY);
+            partialLine = Arrays.copyOf(partialLine, newCapacity);
+        }
+
+        System.arraycopy(chunk, offset, partialLine, partialLineLength, length);
+        partialLineLength += length;
+    }
+
+    /** Determines if a line contains only whitespace, including the carriage return of a CRLF line ending. */
+    private static boolean isBlank(byte[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; ++i) {
+            byte b = buffer[i];
+            if ((b != ' ') && (b != '\t') && (b != '\r')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private JsonLinesDeserializer(TypeReference<V> itemTypeRef) {
+        this.itemTypeRef = itemTypeRef;
+    }
+}
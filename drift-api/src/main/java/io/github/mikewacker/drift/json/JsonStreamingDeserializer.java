@@ -0,0 +1,111 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.github.mikewacker.drift.api.HttpOptional;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Deserializes a value from JSON that arrives in chunks, without blocking.
+ * <p>
+ * Each chunk is tokenized by Jackson's non-blocking parser as soon as it is fed, and the tokens are buffered;
+ * the value is bound from the buffered tokens once the input ends. A contiguous copy of the raw JSON is never made,
+ * and a chunk can be discarded once it has been fed.
+ * <p>
+ * A deserializer is used for a single value; it is not thread-safe.
+ *
+ * @param <V> the type of the value
+ */
+public final class JsonStreamingDeserializer<V> {
+
+    private final TypeReference<V> valueTypeRef;
+    private final JsonParser parser;
+    private final TokenBuffer tokens;
+    private long inputLength = 0;
+    private boolean failed = false;
+
+    /**
+     * Creates a deserializer for a value.
+     *
+     * @param valueTypeRef a {@link TypeReference} for the value
+     * @return a deserializer that has not been fed any input
+     * @param <V> the type of the value
+     */
+    public static <V> JsonStreamingDeserializer<V> create(TypeReference<V> valueTypeRef) {
+        try {
+            JsonParser parser = JsonValues.getMapper().getFactory().createNonBlockingByteArrayParser();
+            return new JsonStreamingDeserializer<>(valueTypeRef, parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feeds the next chunk of JSON. The chunk is fully consumed, so the caller may reuse it afterward.
+     *
+     * @param chunk a buffer that contains the next chunk
+     * @param offset the offset of the chunk in the buffer
+     * @param length the length of the chunk
+     * @return whether the JSON is well-formed so far; if false, further input is ignored
+     */
+    public boolean tryFeed(byte[] chunk, int offset, int length) {
+        if (failed) {
+            return false;
+        }
+
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(chunk, offset, offset + length);
+            inputLength += length;
+            bufferAvailableTokens();
+            return true;
+        } catch (IOException e) {
+            failed = true;
+            return false;
+        }
+    }
+
+    /**
+     * Ends the input and deserializes the value, or returns empty.
+     *
+     * @param errorCode an HTTP status code for the error, if deserialization fails
+     * @return an {@link HttpOptional} with the deserialized value,
+     *     or an empty {@code HttpOptional} with an error status code if deserialization fails
+     */
+    public HttpOptional<V> tryFinish(int errorCode) {
+        if (failed) {
+            return HttpOptional.empty(errorCode);
+        }
+
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            bufferAvailableTokens();
+            ObjectMapper mapper = JsonValues.getMapper();
+            try (JsonParser tokenParser = tokens.asParser(mapper)) {
+                V value = JsonValues.readerFor(valueTypeRef, inputLength).readValue(tokenParser);
+                return HttpOptional.of(value);
+            }
+        } catch (IOException e) {
+            failed = true;
+            return HttpOptional.empty(errorCode);
+        }
+    }
+
+    /** Buffers the tokens that are available from the input that has been fed so far. */
+    private void bufferAvailableTokens() throws IOException {
+        JsonToken token;
+        while (((token = parser.nextToken()) != null) && (token != JsonToken.NOT_AVAILABLE)) {
+            tokens.copyCurrentEvent(parser);
+        }
+    }
+
+    private JsonStreamingDeserializer(TypeReference<V> valueTypeRef, JsonParser parser) {
+        this.valueTypeRef = valueTypeRef;
+        this.parser = parser;
+        tokens = new TokenBuffer(parser);
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Serializes a sequence of items one at a time, either as the elements of a JSON array or as newline-delimited JSON.
+ * Like {@link JsonValues#serialize(Object)}, each item is serialized according to its runtime type.
+ * <p>
+ * Items are buffered by the generator until the serializer is flushed, so the caller controls
+ * how much output accumulates before it is sent; only the output since the last flush is held in memory.
+ * <p>
+ * A serializer is used for a single response; it is not thread-safe.
+ *
+ * @param <V> the type of each item
+ */
+public final class JsonStreamingSerializer<V> {
+
+    private final ObjectWriter itemWriter;
+    private final JsonGenerator generator;
+    private final boolean isJsonLines;
+
+    /**
+     * Creates a serializer that writes the items as the elements of a JSON array.
+     * The start of the array is written immediately.
+     *
+     * @param stream the stream that the JSON is written to
+     * @return a serializer that has not written any items
+     * @throws UncheckedIOException if the stream cannot be written
+     * @param <V> the type of each item
+     */
+    public static <V> JsonStreamingSerializer<V> jsonArray(OutputStream stream) {
+        JsonStreamingSerializer<V> serializer = new JsonStreamingSerializer<>(stream, false);
+        try {
+            serializer.generator.writeStartArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return serializer;
+    }
+
+    /**
+     * Creates a serializer that writes each item on its own line, as newline-delimited JSON.
+     * A {@link RawJson} value that contains a line break is re-serialized onto a single line.
+     *
+     * @param stream the stream that the JSON is written to
+     * @return a serializer that has not written any items
+     * @param <V> the type of each item
+     */
+    public static <V> JsonStreamingSerializer<V> jsonLines(OutputStream stream) {
+        return new JsonStreamingSerializer<>(stream, true);
+    }
+
+    /**
+     * Serializes the next item.
+     *
+     * @param item the item to serialize
+     * @throws JsonSerializationException if serialization fails
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    public void write(V item) {
+        try {
+            itemWriter.writeValue(generator, item);
+            if (isJsonLines) {
+                generator.writeRaw('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw JsonSerializationException.serialize(item, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the items that have been serialized so far to the stream.
+     *
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    public void flush() {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ends the sequence, writing the end of the array if needed, and then flushes and closes the stream.
+     *
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    public void finish() {
+        try {
+            if (!isJsonLines) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonStreamingSerializer(OutputStream stream, boolean isJsonLines) {
+        ObjectWriter writer = JsonValues.getMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        itemWriter = isJsonLines ? writer.withAttribute(RawJson.Serializer.SINGLE_LINE, true) : writer;
+        try {
+            generator = JsonValues.getMapper().getFactory().createGenerator(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        generator.setRootValueSeparator(null);
+        this.isJsonLines = isJsonLines;
+    }
+}
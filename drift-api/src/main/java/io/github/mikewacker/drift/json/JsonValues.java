@@ -4,8 +4,13 @@ import com.fasterxml.jackson.core.Base64Variants;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.github.mikewacker.drift.api.HttpOptional;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.Optional;
 import org.immutables.value.Value;
 
@@ -13,13 +18,19 @@ import org.immutables.value.Value;
  * Static methods for serializing and deserializing objects as JSON.
  * Uses a URL-friendly base64 encoding for {@code byte[]} values.
  * <p>
- * Objects should be serializable using the default {@link ObjectMapper}, which has no registered modules.
+ * Large numeric arrays can be serialized without boxing each number: as {@code double[]} or {@code long[]} values,
+ * or as {@link DoubleBuffer} or {@link LongBuffer} values, which are deserialized into buffers that wrap an array.
+ * <p>
+ * Objects should be serializable using the default {@link ObjectMapper},
+ * which has no registered modules other than the codecs for primitive buffers.
  * If needed, more complex serializable types can be created using Java {@code record}'s
  * or <code>@{@link Value.Immutable}</code> types annotated with <code>@{@link JsonStyle}</code>.
  */
 public final class JsonValues {
 
-    private static final ObjectMapper mapper = new ObjectMapper().setBase64Variant(Base64Variants.MODIFIED_FOR_URL);
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .setBase64Variant(Base64Variants.MODIFIED_FOR_URL)
+            .registerModule(PrimitiveBufferModule.create());
 
     /**
      * Serializes a value to JSON.
@@ -36,6 +47,26 @@ public final class JsonValues {
         }
     }
 
+    /**
+     * Serializes a value to JSON, writing it to a stream instead of allocating an array.
+     * <p>
+     * The stream is closed once the value has been written.
+     *
+     * @param value the value to serialize
+     * @param stream the stream that the JSON is written to
+     * @throws JsonSerializationException if serialization fails
+     * @throws UncheckedIOException if the stream cannot be written
+     */
+    public static void serialize(Object value, OutputStream stream) {
+        try {
+            mapper.writeValue(stream, value);
+        } catch (JsonProcessingException e) {
+            throw JsonSerializationException.serialize(value, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Deserializes a value from JSON.
      * <p>
@@ -49,7 +80,7 @@ public final class JsonValues {
      */
     public static <V> V deserialize(byte[] rawValue, TypeReference<V> valueTypeRef) {
         try {
-            return mapper.readValue(rawValue, valueTypeRef);
+            return readerFor(valueTypeRef, rawValue.length).readValue(rawValue);
         } catch (IOException e) {
             throw JsonSerializationException.deserializeJson(rawValue, valueTypeRef, e);
         }
@@ -95,6 +126,42 @@ public final class JsonValues {
         }
     }
 
+    /**
+     * Deserializes JSON into an existing mutable value, updating it in place, or returns empty.
+     * <p>
+     * The properties in the JSON overwrite the properties of the value; other properties are left unchanged.
+     * This allows a value to be reused for many inputs without allocating a new value each time.
+     * If deserialization fails, the value may have been partially updated.
+     *
+     * @param rawValue the value as JSON
+     * @param valueToUpdate the value to update
+     * @param errorCode an HTTP status code for the error, if deserialization fails
+     * @return an {@link HttpOptional} with the updated value,
+     *     or an empty {@code HttpOptional} with an error status code if deserialization fails
+     * @param <V> the type of the value
+     */
+    public static <V> HttpOptional<V> tryDeserializeInto(byte[] rawValue, V valueToUpdate, int errorCode) {
+        try {
+            V value = mapper.readerForUpdating(valueToUpdate)
+                    .withAttribute(PrimitiveBufferModule.MAX_INPUT_LENGTH, rawValue.length)
+                    .readValue(rawValue);
+            return (value == valueToUpdate) ? HttpOptional.of(value) : HttpOptional.empty(errorCode);
+        } catch (IOException e) {
+            return HttpOptional.empty(errorCode);
+        }
+    }
+
+    /** Gets the shared {@link ObjectMapper}, so that other JSON utilities in this package use the same settings. */
+    static ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /** Gets a reader for a value whose JSON input has a known length, which caps the size of primitive buffers. */
+    static ObjectReader readerFor(TypeReference<?> valueTypeRef, long inputLength) {
+        int maxInputLength = (int) Math.min(inputLength, Integer.MAX_VALUE);
+        return mapper.readerFor(valueTypeRef).withAttribute(PrimitiveBufferModule.MAX_INPUT_LENGTH, maxInputLength);
+    }
+
     // static class
     private JsonValues() {}
 }
@@ -0,0 +1,178 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Module with codecs for {@link DoubleBuffer} and {@link LongBuffer} values, which are JSON arrays of numbers.
+ * <p>
+ * The numbers are read and written one at a time as primitives, so they are never boxed.
+ * A buffer is serialized from its position to its limit, without changing its position.
+ * A deserialized buffer wraps the heap array that the numbers were read into, without copying them again;
+ * it is read-write, and its position is zero.
+ * <p>
+ * Each number takes at least two bytes of JSON, including its separator, so the number of elements is capped
+ * by the length of the JSON when it is known: {@link #MAX_INPUT_LENGTH}. The array grows up to that cap,
+ * so the size limit of a request body also bounds the memory that a buffer in that body can take.
+ * The readers in this package pass the length of the input they bind from: a whole value, a field's slice,
+ * a line of newline-delimited JSON, or the bytes fed to a streaming deserializer.
+ * <p>
+ * Primitive arrays such as {@code double[]} and {@code long[]} need no module,
+ * since Jackson already reads and writes them without boxing.
+ */
+final class PrimitiveBufferModule extends SimpleModule {
+
+    /** Attribute for the length of the JSON input, if it is known; the value is an {@link Integer}. */
+    static final Object MAX_INPUT_LENGTH = new Object();
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /** Creates the module. */
+    public static PrimitiveBufferModule create() {
+        return new PrimitiveBufferModule();
+    }
+
+    /** Throws an exception if the parser is not at the start of an array. */
+    private static void checkStartArray(JsonParser parser, DeserializationContext context, Class<?> bufferClass)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            context.handleUnexpectedToken(bufferClass, parser);
+        }
+    }
+
+    /** Gets the maximum number of elements in an array, which is capped by the length of the JSON if it is known. */
+    private static int getMaxElements(DeserializationContext context) {
+        Object maxInputLength = context.getAttribute(MAX_INPUT_LENGTH);
+        return (maxInputLength != null) ? ((Integer) maxInputLength / 2 + 1) : MAX_ARRAY_LENGTH;
+    }
+
+    /** Gets the capacity of a full array when it grows, or returns -1 if it cannot grow. */
+    private static int getGrownCapacity(int capacity, int maxElements) {
+        return (capacity < maxElements) ? (int) Math.min(2L * capacity, maxElements) : -1;
+    }
+
+    private PrimitiveBufferModule() {
+        super("PrimitiveBufferModule");
+        addSerializer(DoubleBuffer.class, new DoubleBufferSerializer());
+        addSerializer(LongBuffer.class, new LongBufferSerializer());
+        addDeserializer(DoubleBuffer.class, new DoubleBufferDeserializer());
+        addDeserializer(LongBuffer.class, new LongBufferDeserializer());
+    }
+
+    /** Serializer for a {@link DoubleBuffer}. */
+    private static final class DoubleBufferSerializer extends StdSerializer<DoubleBuffer> {
+
+        @Override
+        public void serialize(DoubleBuffer buffer, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartArray(buffer, buffer.remaining());
+            for (int i = buffer.position(); i < buffer.limit(); ++i) {
+                generator.writeNumber(buffer.get(i));
+            }
+            generator.writeEndArray();
+        }
+
+        private DoubleBufferSerializer() {
+            super(DoubleBuffer.class);
+        }
+    }
+
+    /** Serializer for a {@link LongBuffer}. */
+    private static final class LongBufferSerializer extends StdSerializer<LongBuffer> {
+
+        @Override
+        public void serialize(LongBuffer buffer, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartArray(buffer, buffer.remaining());
+            for (int i = buffer.position(); i < buffer.limit(); ++i) {
+                generator.writeNumber(buffer.get(i));
+            }
+            generator.writeEndArray();
+        }
+
+        private LongBufferSerializer() {
+            super(LongBuffer.class);
+        }
+    }
+
+    /** Deserializer for a {@link DoubleBuffer}. */
+    private static final class DoubleBufferDeserializer extends StdDeserializer<DoubleBuffer> {
+
+        @Override
+        public DoubleBuffer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            checkStartArray(parser, context, DoubleBuffer.class);
+            int maxElements = getMaxElements(context);
+            double[] values = new double[Math.min(INITIAL_CAPACITY, maxElements)];
+            int size = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if ((token != JsonToken.VALUE_NUMBER_FLOAT) && (token != JsonToken.VALUE_NUMBER_INT)) {
+                    return (DoubleBuffer) context.handleUnexpectedToken(DoubleBuffer.class, parser);
+                }
+
+                if (size == values.length) {
+                    int capacity = getGrownCapacity(size, maxElements);
+                    if (capacity < 0) {
+                        return (DoubleBuffer) context.handleUnexpectedToken(DoubleBuffer.class, parser);
+                    }
+
+                    values = Arrays.copyOf(values, capacity);
+                }
+
+                values[size++] = parser.getDoubleValue();
+            }
+
+            return DoubleBuffer.wrap(values, 0, size).slice();
+        }
+
+        private DoubleBufferDeserializer() {
+            super(DoubleBuffer.class);
+        }
+    }
+
+    /** Deserializer for a {@link LongBuffer}. */
+    private static final class LongBufferDeserializer extends StdDeserializer<LongBuffer> {
+
+        @Override
+        public LongBuffer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            checkStartArray(parser, context, LongBuffer.class);
+            int maxElements = getMaxElements(context);
+            long[] values = new long[Math.min(INITIAL_CAPACITY, maxElements)];
+            int size = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    return (LongBuffer) context.handleUnexpectedToken(LongBuffer.class, parser);
+                }
+
+                if (size == values.length) {
+                    int capacity = getGrownCapacity(size, maxElements);
+                    if (capacity < 0) {
+                        return (LongBuffer) context.handleUnexpectedToken(LongBuffer.class, parser);
+                    }
+
+                    values = Arrays.copyOf(values, capacity);
+                }
+
+                values[size++] = parser.getLongValue();
+            }
+
+            return LongBuffer.wrap(values, 0, size).slice();
+        }
+
+        private LongBufferDeserializer() {
+            super(LongBuffer.class);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.mikewacker.drift.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Value that is already encoded as JSON, such as a cached response or a response relayed from a backend.
+ * <p>
+ * A response sender sends the encoded bytes as is, without serializing them again.
+ * When a raw value is nested inside another value, its JSON is embedded as is.
+ * When a raw value is deserialized, the JSON is tokenized and copied, but it is not bound to any type.
+ * <p>
+ * The JSON is validated when a raw value is created, unless the caller opts in to trusting the bytes.
+ * A trusted value that is not well-formed JSON will produce a malformed response.
+ * <p>
+ * A value that is sent repeatedly can be precompressed, keeping a gzip copy alongside the JSON;
+ * a response sender then sends the gzip copy as is to clients that accept gzip.
+ */
+@JsonSerialize(using = RawJson.Serializer.class)
+@JsonDeserialize(using = RawJson.Deserializer.class)
+public final class RawJson {
+
+    private final ByteBuffer rawValue;
+    private final ByteBuffer gzipValue; // null if not precompressed
+
+    /**
+     * Creates a raw value from JSON, validating that it is a single, well-formed JSON value.
+     *
+     * @param rawValue the value as JSON
+     * @return a raw value
+     * @throws IllegalArgumentException if the JSON is not a single, well-formed value
+     */
+    public static RawJson of(byte[] rawValue) {
+        return of(ByteBuffer.wrap(rawValue));
+    }
+
+    /**
+     * Creates a raw value from JSON in a buffer, validating that it is a single, well-formed JSON value.
+     * The JSON is read from the position to the limit of the buffer; the buffer must not be modified afterward.
+     *
+     * @param rawValue a buffer that contains the value as JSON
+     * @return a raw value
+     * @throws IllegalArgumentException if the JSON is not a single, well-formed value
+     */
+    public static RawJson of(ByteBuffer rawValue) {
+        RawJson rawJson = trusted(rawValue);
+        if (!rawJson.isWellFormed()) {
+            throw new IllegalArgumentException("raw JSON is not a single, well-formed value");
+        }
+
+        return rawJson;
+    }
+
+    /**
+     * Creates a raw value from JSON that is trusted to be well-formed, without validating it.
+     *
+     * @param rawValue the value as JSON
+     * @return a raw value
+     */
+    public static RawJson trusted(byte[] rawValue) {
+        return trusted(ByteBuffer.wrap(rawValue));
+    }
+
+    /**
+     * Creates a raw value from JSON in a buffer that is trusted to be well-formed, without validating it.
+     * The JSON is read from the position to the limit of the buffer; the buffer must not be modified afterward.
+     *
+     * @param rawValue a buffer that contains the value as JSON
+     * @return a raw value
+     */
+    public static RawJson trusted(ByteBuffer rawValue) {
+        return new RawJson(rawValue.slice().asReadOnlyBuffer(), null);
+    }
+
+    /**
+     * Gets a raw value that also keeps a gzip copy of the JSON, compressing the JSON once at the best level.
+     * The precompressed value is equal to this value.
+     *
+     * @return a precompressed raw value, or this value if it is already precompressed
+     */
+    public RawJson precompress() {
+        if (gzipValue != null) {
+            return this;
+        }
+
+        return new RawJson(rawValue, gzip(rawValue));
+    }
+
+    /**
+     * Gets the size of the JSON, in bytes.
+     *
+     * @return the size of the JSON
+     */
+    public int size() {
+        return rawValue.remaining();
+    }
+
+    /**
+     * Gets a read-only buffer that contains the JSON. Each call returns a new buffer, positioned at the start.
+     *
+     * @return a buffer that contains the value as JSON
+     */
+    public ByteBuffer asByteBuffer() {
+        return rawValue.duplicate();
+    }
+
+    /**
+     * Gets a read-only buffer that contains the gzip copy of the JSON, if the value is precompressed.
+     * Each call returns a new buffer, positioned at the start.
+     *
+     * @return a buffer that contains the gzip copy, or an empty value if the value is not precompressed
+     */
+    public Optional<ByteBuffer> asGzipByteBuffer() {
+        return Optional.ofNullable(gzipValue).map(ByteBuffer::duplicate);
+    }
+
+    /**
+     * Copies the JSON to a new array.
+     *
+     * @return the value as JSON
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[rawValue.remaining()];
+        rawValue.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof RawJson other) && rawValue.equals(other.rawValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return rawValue.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return StandardCharsets.UTF_8.decode(rawValue.duplicate()).toString();
+    }
+
+    /** Determines if the JSON is a single, well-formed value. */
+    private boolean isWellFormed() {
+        try (JsonParser parser = createParser()) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Determines if the JSON contains a line break, e.g., if it is pretty-printed. */
+    private boolean containsLineBreak() {
+        for (int i = rawValue.position(); i < rawValue.limit(); ++i) {
+            byte b = rawValue.get(i);
+            if ((b == '\n') || (b == '\r')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Writes the JSON compactly, without any whitespace between its tokens. */
+    private void writeCompact(JsonGenerator generator) throws IOException {
+        try (JsonParser parser = createParser()) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /** Creates a parser for the JSON. */
+    private JsonParser createParser() throws IOException {
+        byte[] bytes = rawValue.hasArray() ? rawValue.array() : toByteArray();
+        int offset = rawValue.hasArray() ? (rawValue.arrayOffset() + rawValue.position()) : 0;
+        return JsonValues.getMapper().getFactory().createParser(bytes, offset, size());
+    }
+
+    /** Compresses the JSON with gzip at the best level. */
+    private static ByteBuffer gzip(ByteBuffer rawValue) {
+        ByteArrayOutputStream gzipValue = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new BestGzipOutputStream(gzipValue)) {
+            Channels.newChannel(gzipStream).write(rawValue.duplicate());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(gzipValue.toByteArray()).asReadOnlyBuffer();
+    }
+
+    private RawJson(ByteBuffer rawValue, ByteBuffer gzipValue) {
+        this.rawValue = rawValue;
+        this.gzipValue = gzipValue;
+    }
+
+    /** Gzip output stream that compresses at the best level. */
+    private static final class BestGzipOutputStream extends GZIPOutputStream {
+
+        private BestGzipOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    /**
+     * Serializer that embeds the JSON as is.
+     * <p>
+     * If the {@link #SINGLE_LINE} attribute is set, e.g., for newline-delimited JSON,
+     * JSON that contains a line break is instead copied token by token onto a single line.
+     */
+    static final class Serializer extends StdSerializer<RawJson> {
+
+        static final Object SINGLE_LINE = new Object();
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            if ((provider.getAttribute(SINGLE_LINE) != null) && value.containsLineBreak()) {
+                value.writeCompact(generator);
+                return;
+            }
+
+            generator.writeRawValue(value.toString());
+        }
+
+        private Serializer() {
+            super(RawJson.class);
+        }
+    }
+
+    /** Deserializer that copies the JSON of a value, without binding it. */
+    static final class Deserializer extends StdDeserializer<RawJson> {
+
+        @Override
+        public RawJson deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            ByteArrayOutputStream rawValue = new ByteArrayOutputStream();
+            try (JsonGenerator generator = JsonValues.getMapper().getFactory().createGenerator(rawValue)) {
+                generator.copyCurrentStructure(parser);
+            }
+            return RawJson.trusted(rawValue.toByteArray());
+        }
+
+        private Deserializer() {
+            super(RawJson.class);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.mikewacker.drift.json;
+
+import static io.github.mikewacker.drift.testing.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.mikewacker.drift.api.HttpOptional;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public final class JsonFieldIndexTest {
+
+    @Test
+    public void deserializeField() {
+        JsonFieldIndex index = index("{\"a\":1,\"b\":\"text\",\"c\":[1,{\"d\":2}],\"e\":{\"f\":[]},\"g\":null}");
+        assertThat(index.tryDeserializeField("a", new TypeReference<Integer>() {}, 400))
+                .hasValue(1);
+        assertThat(index.tryDeserializeField("b", new TypeReference<String>() {}, 400))
+                .hasValue("text");
+        assertThat(index.tryDeserializeField("c", new TypeReference<List<Object>>() {}, 400))
+                .hasValue(List.of(1, Map.of("d", 2)));
+        assertThat(index.tryDeserializeField("e", new TypeReference<Map<String, List<Integer>>>() {}, 400))
+                .hasValue(Map.of("f", List.of()));
+    }
+
+    @Test
+    public void deserializeField_Whitespace() {
+        JsonFieldIndex index = index(" { \"a\" : \"x y\" , \"b\" : [ 1 , 2 ] } ");
+        assertThat(index.tryDeserializeField("a", new TypeReference<String>() {}, 400))
+                .hasValue("x y");
+        assertThat(index.tryDeserializeField("b", new TypeReference<List<Integer>>() {}, 400))
+                .hasValue(List.of(1, 2));
+    }
+
+    @Test
+    public void deserializeField_Duplicate() {
+        JsonFieldIndex index = index("{\"a\":1,\"a\":2}");
+        assertThat(index.tryDeserializeField("a", new TypeReference<Integer>() {}, 400))
+                .hasValue(2);
+    }
+
+    @Test
+    public void deserializeField_PrimitiveBufferCappedBySlice() {
+        JsonFieldIndex index = index("{\"a\":[1,2],\"b\":\"padding\"}");
+        LongBuffer buffer = index.tryDeserializeField("a", new TypeReference<LongBuffer>() {}, 400)
+                .get();
+        assertThat(buffer.array()).hasSize(3);
+    }
+
+    @Test
+    public void deserializeFieldFailed_Missing() {
+        JsonFieldIndex index = index("{\"a\":1}");
+        assertThat(index.tryDeserializeField("b", new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFieldFailed_WrongType() {
+        JsonFieldIndex index = index("{\"a\":\"text\"}");
+        assertThat(index.tryDeserializeField("a", new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeAt() {
+        JsonFieldIndex index = index("{\"a\":{\"b\":[{\"c\":1},{\"c\":2,\"d\":[3]}],\"e\":4},\"f\":5}");
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/b/1/c"), new TypeReference<Integer>() {}, 400))
+                .hasValue(2);
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/b/1/d"), new TypeReference<List<Integer>>() {}, 400))
+                .hasValue(List.of(3));
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/e"), new TypeReference<Integer>() {}, 400))
+                .hasValue(4);
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/f"), new TypeReference<Integer>() {}, 400))
+                .hasValue(5);
+    }
+
+    @Test
+    public void deserializeAt_Root() {
+        JsonFieldIndex index = index("{\"a\":1}");
+        assertThat(index.tryDeserializeAt(JsonPointer.empty(), new TypeReference<Map<String, Integer>>() {}, 400))
+                .hasValue(Map.of("a", 1));
+    }
+
+    @Test
+    public void deserializeAt_PrimitiveBufferCappedBySlice() {
+        JsonFieldIndex index = index("{\"a\":{\"b\":[1,2]},\"c\":\"padding\"}");
+        LongBuffer buffer = index.tryDeserializeAt(JsonPointer.compile("/a/b"), new TypeReference<LongBuffer>() {}, 400)
+                .get();
+        assertThat(buffer.array()).hasSize(6);
+    }
+
+    @Test
+    public void deserializeAtFailed_Missing() {
+        JsonFieldIndex index = index("{\"a\":{\"b\":[1,2]}}");
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/c"), new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/b/2"), new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/b/x"), new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+        assertThat(index.tryDeserializeAt(JsonPointer.compile("/a/b/0/c"), new TypeReference<Integer>() {}, 400))
+                .isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void indexFailed_NotObject() {
+        HttpOptional<JsonFieldIndex> maybeIndex = JsonFieldIndex.tryIndex(toBytes("[1]"), 400);
+        assertThat(maybeIndex).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void indexFailed_Malformed() {
+        HttpOptional<JsonFieldIndex> maybeIndex = JsonFieldIndex.tryIndex(toBytes("{\"a\":[1,}"), 400);
+        assertThat(maybeIndex).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void indexFailed_TrailingContent() {
+        HttpOptional<JsonFieldIndex> maybeIndex = JsonFieldIndex.tryIndex(toBytes("{\"a\":1} 2"), 400);
+        assertThat(maybeIndex).isEmptyWithErrorCode(400);
+    }
+
+    private static JsonFieldIndex index(String rawObject) {
+        return JsonFieldIndex.tryIndex(toBytes(rawObject), 400).get();
+    }
+
+    private static byte[] toBytes(String rawJson) {
+        return rawJson.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.mikewacker.drift.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public final class JsonLinesDeserializerTest {
+
+    @Test
+    public void deserialize_OneChunk() {
+        JsonLinesDeserializer<Map<String, Integer>> deserializer =
+                JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<Map<String, Integer>> items = new ArrayList<>();
+        assertThat(tryFeed(deserializer, "{\"a\":1}\n{\"a\":2}\n", items)).isTrue();
+        assertThat(items).containsExactly(Map.of("a", 1), Map.of("a", 2));
+        assertThat(deserializer.tryFinish(items::add)).isTrue();
+        assertThat(items).hasSize(2);
+    }
+
+    @Test
+    public void deserialize_ManyChunks() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<Integer> items = new ArrayList<>();
+        for (String chunk : List.of("1", "0\n2", "0\n", "30\n4", "0")) {
+            assertThat(tryFeed(deserializer, chunk, items)).isTrue();
+        }
+        assertThat(items).containsExactly(10, 20, 30);
+        assertThat(deserializer.tryFinish(items::add)).isTrue();
+        assertThat(items).containsExactly(10, 20, 30, 40);
+    }
+
+    @Test
+    public void deserialize_BlankLinesAndCrlf() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<Integer> items = new ArrayList<>();
+        assertThat(tryFeed(deserializer, "1\r\n\n  \r\n2\r\n", items)).isTrue();
+        assertThat(deserializer.tryFinish(items::add)).isTrue();
+        assertThat(items).containsExactly(1, 2);
+    }
+
+    @Test
+    public void deserialize_PrimitiveBufferCappedByLine() {
+        JsonLinesDeserializer<LongBuffer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<LongBuffer> items = new ArrayList<>();
+        assertThat(tryFeed(deserializer, "[1,2]\n[3]\n", items)).isTrue();
+        assertThat(items).extracting(item -> item.array().length).containsExactly(3, 2);
+    }
+
+    @Test
+    public void deserializeFailed_Malformed() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<Integer> items = new ArrayList<>();
+        assertThat(tryFeed(deserializer, "1\na\n2\n", items)).isFalse();
+        assertThat(items).containsExactly(1);
+        assertThat(tryFeed(deserializer, "3\n", items)).isFalse();
+        assertThat(deserializer.tryFinish(items::add)).isFalse();
+    }
+
+    @Test
+    public void deserializeFailed_MultipleValuesOnLine() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "1 2\n", new ArrayList<>())).isFalse();
+    }
+
+    @Test
+    public void deserializeFailed_Null() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "null\n", new ArrayList<>())).isFalse();
+    }
+
+    @Test
+    public void deserializeFailed_MalformedLastLine() {
+        JsonLinesDeserializer<Integer> deserializer = JsonLinesDeserializer.create(new TypeReference<>() {});
+        List<Integer> items = new ArrayList<>();
+        assertThat(tryFeed(deserializer, "1\n[", items)).isTrue();
+        assertThat(deserializer.tryFinish(items::add)).isFalse();
+    }
+
+    private static <V> boolean tryFeed(JsonLinesDeserializer<V> deserializer, String chunk, List<V> items) {
+        byte[] rawChunk = chunk.getBytes(StandardCharsets.UTF_8);
+        return deserializer.tryFeed(rawChunk, 0, rawChunk.length, items::add);
+    }
+}
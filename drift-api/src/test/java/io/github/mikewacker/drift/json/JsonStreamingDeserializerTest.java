@@ -0,0 +1,101 @@
+package io.github.mikewacker.drift.json;
+
+import static io.github.mikewacker.drift.testing.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.mikewacker.drift.api.HttpOptional;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public final class JsonStreamingDeserializerTest {
+
+    @Test
+    public void deserialize_OneChunk() {
+        JsonStreamingDeserializer<Map<String, List<Integer>>> deserializer =
+                JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "{\"a\":[1,2,3]}")).isTrue();
+        HttpOptional<Map<String, List<Integer>>> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).hasValue(Map.of("a", List.of(1, 2, 3)));
+    }
+
+    @Test
+    public void deserialize_ManyChunks() {
+        JsonStreamingDeserializer<Map<String, List<Integer>>> deserializer =
+                JsonStreamingDeserializer.create(new TypeReference<>() {});
+        for (String chunk : List.of("{\"a", "\":[1", "0,2", "0,3", "0]}")) {
+            assertThat(tryFeed(deserializer, chunk)).isTrue();
+        }
+        HttpOptional<Map<String, List<Integer>>> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).hasValue(Map.of("a", List.of(10, 20, 30)));
+    }
+
+    @Test
+    public void deserialize_Scalar() {
+        JsonStreamingDeserializer<Integer> deserializer = JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "12")).isTrue();
+        assertThat(tryFeed(deserializer, "34")).isTrue();
+        HttpOptional<Integer> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).hasValue(1234);
+    }
+
+    @Test
+    public void deserialize_Base64Bytes() {
+        JsonStreamingDeserializer<byte[]> deserializer = JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "\"-_AAAA\"")).isTrue();
+        HttpOptional<byte[]> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue.get()).containsExactly(-5, -16, 0, 0);
+    }
+
+    @Test
+    public void deserialize_PrimitiveBufferCappedByInput() {
+        JsonStreamingDeserializer<LongBuffer> deserializer = JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "[1,")).isTrue();
+        assertThat(tryFeed(deserializer, "2]")).isTrue();
+        HttpOptional<LongBuffer> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue.get().array()).hasSize(3);
+    }
+
+    @Test
+    public void deserializeFailed_Malformed() {
+        JsonStreamingDeserializer<List<Integer>> deserializer =
+                JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "[1,")).isTrue();
+        assertThat(tryFeed(deserializer, "}")).isFalse();
+        assertThat(tryFeed(deserializer, "2]")).isFalse();
+        HttpOptional<List<Integer>> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFailed_Truncated() {
+        JsonStreamingDeserializer<List<Integer>> deserializer =
+                JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "[1,2")).isTrue();
+        HttpOptional<List<Integer>> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFailed_WrongType() {
+        JsonStreamingDeserializer<Integer> deserializer = JsonStreamingDeserializer.create(new TypeReference<>() {});
+        assertThat(tryFeed(deserializer, "\"a\"")).isTrue();
+        HttpOptional<Integer> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFailed_Empty() {
+        JsonStreamingDeserializer<Integer> deserializer = JsonStreamingDeserializer.create(new TypeReference<>() {});
+        HttpOptional<Integer> maybeValue = deserializer.tryFinish(400);
+        assertThat(maybeValue).isEmptyWithErrorCode(400);
+    }
+
+    private static boolean tryFeed(JsonStreamingDeserializer<?> deserializer, String chunk) {
+        byte[] rawChunk = chunk.getBytes(StandardCharsets.UTF_8);
+        return deserializer.tryFeed(rawChunk, 0, rawChunk.length);
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.mikewacker.drift.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public final class JsonStreamingSerializerTest {
+
+    @Test
+    public void jsonArray() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Object> serializer = JsonStreamingSerializer.jsonArray(stream);
+        serializer.write(1);
+        serializer.write(Map.of("a", "b"));
+        serializer.finish();
+        assertThat(toString(stream)).isEqualTo("[1,{\"a\":\"b\"}]");
+    }
+
+    @Test
+    public void jsonArray_Empty() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Integer> serializer = JsonStreamingSerializer.jsonArray(stream);
+        serializer.finish();
+        assertThat(toString(stream)).isEqualTo("[]");
+    }
+
+    @Test
+    public void jsonLines() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Object> serializer = JsonStreamingSerializer.jsonLines(stream);
+        serializer.write(1);
+        serializer.write(Map.of("a", "b"));
+        serializer.finish();
+        assertThat(toString(stream)).isEqualTo("1\n{\"a\":\"b\"}\n");
+    }
+
+    @Test
+    public void jsonLines_RawJson_MultipleLines() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Object> serializer = JsonStreamingSerializer.jsonLines(stream);
+        RawJson rawValue = RawJson.of("{\n  \"a\": [1, 2]\r\n}".getBytes(StandardCharsets.UTF_8));
+        serializer.write(rawValue);
+        serializer.write(Map.of("raw", rawValue));
+        serializer.finish();
+        assertThat(toString(stream)).isEqualTo("{\"a\":[1,2]}\n{\"raw\":{\"a\":[1,2]}}\n");
+    }
+
+    @Test
+    public void jsonArray_RawJson_MultipleLines() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Object> serializer = JsonStreamingSerializer.jsonArray(stream);
+        serializer.write(RawJson.of("{\n  \"a\": 1\n}".getBytes(StandardCharsets.UTF_8)));
+        serializer.finish();
+        assertThat(toString(stream)).isEqualTo("[{\n  \"a\": 1\n}]");
+    }
+
+    @Test
+    public void flush() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonStreamingSerializer<Integer> serializer = JsonStreamingSerializer.jsonArray(stream);
+        serializer.write(1);
+        assertThat(stream.size()).isZero();
+        serializer.flush();
+        assertThat(toString(stream)).isEqualTo("[1");
+    }
+
+    @Test
+    public void error_SerializeFailed() {
+        JsonStreamingSerializer<Object> serializer = JsonStreamingSerializer.jsonLines(new ByteArrayOutputStream());
+        assertThatThrownBy(() -> serializer.write(new Object())).isInstanceOf(JsonSerializationException.class);
+    }
+
+    private static String toString(ByteArrayOutputStream stream) {
+        return stream.toString(StandardCharsets.UTF_8);
+    }
+}
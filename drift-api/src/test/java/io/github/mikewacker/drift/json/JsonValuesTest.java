@@ -6,7 +6,10 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.HttpOptional;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
@@ -36,6 +39,24 @@ public final class JsonValuesTest {
         assertThat(maybeRtValue).hasValue(value);
     }
 
+    @Test
+    public void tryDeserializeInto() {
+        Map<String, Integer> value = new HashMap<>(Map.of("a", 1, "b", 2));
+        byte[] rawValue = "{\"b\":3,\"c\":4}".getBytes(StandardCharsets.UTF_8);
+        HttpOptional<Map<String, Integer>> maybeValue = JsonValues.tryDeserializeInto(rawValue, value, 400);
+        assertThat(maybeValue).hasValue(Map.of("a", 1, "b", 3, "c", 4));
+        assertThat(maybeValue.get()).isSameAs(value);
+    }
+
+    @Test
+    public void serializeToStreamThenDeserialize() {
+        String value = "test";
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonValues.serialize(value, stream);
+        String rtValue = JsonValues.deserialize(stream.toByteArray(), new TypeReference<>() {});
+        assertThat(rtValue).isEqualTo(value);
+    }
+
     @Test
     public void serializeBytesUsingUrlFriendlyBase64Encoding() {
         byte[] value = new byte[] {-5, -16, 0, 0};
@@ -72,4 +93,12 @@ public final class JsonValuesTest {
         Optional<String> maybeValue = JsonValues.tryDeserialize(malformedRawValue, new TypeReference<>() {});
         assertThat(maybeValue).isEmpty();
     }
+
+    @Test
+    public void tryDeserializeIntoFailed() {
+        byte[] malformedRawValue = new byte[4];
+        HttpOptional<Map<String, Integer>> maybeValue =
+                JsonValues.tryDeserializeInto(malformedRawValue, new HashMap<>(), 400);
+        assertThat(maybeValue).isEmptyWithErrorCode(400);
+    }
 }
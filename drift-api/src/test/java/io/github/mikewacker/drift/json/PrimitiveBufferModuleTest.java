@@ -0,0 +1,89 @@
+package io.github.mikewacker.drift.json;
+
+import static io.github.mikewacker.drift.testing.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import io.github.mikewacker.drift.api.HttpOptional;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+public final class PrimitiveBufferModuleTest {
+
+    @Test
+    public void serializeThenDeserialize_DoubleBuffer() {
+        DoubleBuffer buffer = DoubleBuffer.wrap(new double[] {1.5, -2.0, 3.25});
+        byte[] rawBuffer = JsonValues.serialize(buffer);
+        assertThat(new String(rawBuffer, StandardCharsets.UTF_8)).isEqualTo("[1.5,-2.0,3.25]");
+        DoubleBuffer rtBuffer = JsonValues.deserialize(rawBuffer, new TypeReference<>() {});
+        assertThat(rtBuffer.hasArray()).isTrue();
+        assertThat(rtBuffer).isEqualTo(buffer);
+    }
+
+    @Test
+    public void serializeThenDeserialize_LongBuffer() {
+        LongBuffer buffer = LongBuffer.wrap(LongStream.range(0, 1000).toArray());
+        byte[] rawBuffer = JsonValues.serialize(buffer);
+        LongBuffer rtBuffer = JsonValues.deserialize(rawBuffer, new TypeReference<>() {});
+        assertThat(rtBuffer.capacity()).isEqualTo(1000);
+        assertThat(rtBuffer).isEqualTo(buffer);
+    }
+
+    @Test
+    public void serialize_PositionToLimit() {
+        LongBuffer buffer = LongBuffer.wrap(new long[] {1, 2, 3, 4}).position(1).limit(3);
+        byte[] rawBuffer = JsonValues.serialize(buffer);
+        assertThat(new String(rawBuffer, StandardCharsets.UTF_8)).isEqualTo("[2,3]");
+        assertThat(buffer.position()).isEqualTo(1);
+    }
+
+    @Test
+    public void deserialize_DoubleBuffer_IntegerElements() {
+        byte[] rawBuffer = "[1,2]".getBytes(StandardCharsets.UTF_8);
+        DoubleBuffer buffer = JsonValues.deserialize(rawBuffer, new TypeReference<>() {});
+        assertThat(buffer).isEqualTo(DoubleBuffer.wrap(new double[] {1, 2}));
+    }
+
+    @Test
+    public void deserialize_Empty() {
+        byte[] rawBuffer = "[]".getBytes(StandardCharsets.UTF_8);
+        LongBuffer buffer = JsonValues.deserialize(rawBuffer, new TypeReference<>() {});
+        assertThat(buffer.remaining()).isZero();
+    }
+
+    @Test
+    public void deserializeFailed_MaxElementsExceeded() {
+        byte[] rawBuffer = "[1,2,3]".getBytes(StandardCharsets.UTF_8);
+        ObjectReader reader = JsonValues.getMapper()
+                .readerFor(LongBuffer.class)
+                .withAttribute(PrimitiveBufferModule.MAX_INPUT_LENGTH, 3);
+        assertThatThrownBy(() -> reader.readValue(rawBuffer)).isInstanceOf(MismatchedInputException.class);
+    }
+
+    @Test
+    public void deserializeFailed_NotNumber() {
+        byte[] rawBuffer = "[1,\"a\"]".getBytes(StandardCharsets.UTF_8);
+        HttpOptional<LongBuffer> maybeBuffer = JsonValues.tryDeserialize(rawBuffer, new TypeReference<>() {}, 400);
+        assertThat(maybeBuffer).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFailed_LongBuffer_FloatElement() {
+        byte[] rawBuffer = "[1.5]".getBytes(StandardCharsets.UTF_8);
+        HttpOptional<LongBuffer> maybeBuffer = JsonValues.tryDeserialize(rawBuffer, new TypeReference<>() {}, 400);
+        assertThat(maybeBuffer).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void deserializeFailed_NotArray() {
+        byte[] rawBuffer = "1".getBytes(StandardCharsets.UTF_8);
+        HttpOptional<DoubleBuffer> maybeBuffer = JsonValues.tryDeserialize(rawBuffer, new TypeReference<>() {}, 400);
+        assertThat(maybeBuffer).isEmptyWithErrorCode(400);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.mikewacker.drift.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+public final class RawJsonTest {
+
+    @Test
+    public void of() {
+        RawJson rawJson = RawJson.of(toBytes("{\"a\":[1,2]}"));
+        assertThat(rawJson.toString()).isEqualTo("{\"a\":[1,2]}");
+        assertThat(rawJson.size()).isEqualTo(11);
+    }
+
+    @Test
+    public void of_ByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap(toBytes("xx[1]xx")).position(2).limit(5);
+        RawJson rawJson = RawJson.of(buffer);
+        assertThat(rawJson.toByteArray()).isEqualTo(toBytes("[1]"));
+        assertThat(rawJson.asByteBuffer().isReadOnly()).isTrue();
+    }
+
+    @Test
+    public void trusted() {
+        RawJson rawJson = RawJson.trusted(toBytes("{"));
+        assertThat(rawJson.toString()).isEqualTo("{");
+    }
+
+    @Test
+    public void precompress() throws IOException {
+        RawJson rawJson = RawJson.of(toBytes("{\"a\":\"" + "x".repeat(1000) + "\"}"));
+        assertThat(rawJson.asGzipByteBuffer()).isEmpty();
+        RawJson precompressedJson = rawJson.precompress();
+        assertThat(precompressedJson).isEqualTo(rawJson);
+        assertThat(precompressedJson.precompress()).isSameAs(precompressedJson);
+
+        ByteBuffer gzipBuffer = precompressedJson.asGzipByteBuffer().get();
+        byte[] gzipValue = new byte[gzipBuffer.remaining()];
+        gzipBuffer.get(gzipValue);
+        assertThat(gzipValue.length).isLessThan(rawJson.size());
+        try (InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(gzipValue))) {
+            assertThat(gzipStream.readAllBytes()).isEqualTo(rawJson.toByteArray());
+        }
+    }
+
+    @Test
+    public void serialize() {
+        RawJson rawJson = RawJson.of(toBytes("{\"b\": [1, 2]}"));
+        byte[] rawValue = JsonValues.serialize(Map.of("a", rawJson));
+        assertThat(new String(rawValue, StandardCharsets.UTF_8)).isEqualTo("{\"a\":{\"b\": [1, 2]}}");
+    }
+
+    @Test
+    public void deserialize() {
+        byte[] rawValue = toBytes("[{\"a\": 1}, 2]");
+        List<RawJson> rawJsons = JsonValues.deserialize(rawValue, new TypeReference<>() {});
+        assertThat(rawJsons).containsExactly(RawJson.of(toBytes("{\"a\":1}")), RawJson.of(toBytes("2")));
+    }
+
+    @Test
+    public void error_Malformed() {
+        assertThatThrownBy(() -> RawJson.of(toBytes("{\"a\":")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("raw JSON is not a single, well-formed value");
+    }
+
+    @Test
+    public void error_MultipleValues() {
+        assertThatThrownBy(() -> RawJson.of(toBytes("1 2"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void error_Empty() {
+        assertThatThrownBy(() -> RawJson.of(toBytes(" "))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] toBytes(String rawJson) {
+        return rawJson.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,3 +1,5 @@
+import net.ltgt.gradle.errorprone.errorprone
+
 plugins {
     `java-library`
     `java-test-fixtures`
@@ -5,6 +7,14 @@ plugins {
     id("io.github.mikewacker.drift.publish-conventions")
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     // main
     api(project(":drift-api"))
@@ -29,6 +39,27 @@ dependencies {
     testImplementation(libs.okhttp3.mockwebserver)
     testImplementation(libs.okio.jvm)
     testImplementation(libs.undertow.core)
+
+    // benchmarks
+    "jmhImplementation"(project(":drift-api"))
+    "jmhImplementation"(project(":drift-testlib"))
+    "jmhImplementation"(libs.jackson.core)
+    "jmhImplementation"(libs.jmh.core)
+    "jmhImplementation"(libs.undertow.core)
+
+    "jmhAnnotationProcessor"(libs.jmh.generatorAnnprocess)
+}
+
+tasks.named<JavaCompile>(jmh.compileJavaTaskName) {
+    options.errorprone.excludedPaths = ".*/build/generated/.*" // JMH-generated code
+}
+
+// Runs the benchmarks, e.g., ./gradlew :drift:jmh --args="GenericJsonApiHandlerBenchmark -prof gc"
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
 }
 
 publishing {
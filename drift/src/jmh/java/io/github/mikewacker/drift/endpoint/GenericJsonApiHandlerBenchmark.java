@@ -0,0 +1,227 @@
+package io.github.mikewacker.drift.endpoint;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.mikewacker.drift.api.Dispatcher;
+import io.github.mikewacker.drift.api.HttpOptional;
+import io.github.mikewacker.drift.api.Sender;
+import io.github.mikewacker.drift.testing.api.StubDispatcher;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the overhead of the {@code GenericJsonApiHandler} pipeline.
+ * <p>
+ * The sender, the dispatcher, and the argument extractors do not allocate,
+ * so {@code -prof gc} reports the allocations of the pipeline itself.
+ * Like a real extractor that reads the request body, the asynchronous extractor lets its callback escape.
+ * <p>
+ * In this benchmark, each route is monomorphic, so escape analysis may hide allocations that a real server incurs;
+ * run with {@code -jvmArgsAppend -XX:-DoEscapeAnalysis} to see every allocation that the pipeline makes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenericJsonApiHandlerBenchmark {
+
+    private static final HttpOptional<Integer> ONE = HttpOptional.of(1);
+
+    private static ArgExtractor.Callback<Integer> escapedCallback = null;
+
+    private final BenchmarkSender sender = new BenchmarkSender();
+    private final BenchmarkExchange exchange = new BenchmarkExchange();
+
+    private JsonApiHandler<BenchmarkExchange> zeroArgHandler;
+    private JsonApiHandler<BenchmarkExchange> oneArgSyncHandler;
+    private JsonApiHandler<BenchmarkExchange> twoArgSyncHandler;
+    private JsonApiHandler<BenchmarkExchange> eightArgSyncHandler;
+    private JsonApiHandler<BenchmarkExchange> oneArgAsyncHandler;
+    private JsonApiHandler<BenchmarkExchange> twoArgMixedHandler;
+
+    @Setup
+    public void createHandlers() {
+        zeroArgHandler = builder().apiHandler(Adder::add0).build();
+        oneArgSyncHandler = builder().arg(syncArg()).apiHandler(Adder::add1).build();
+        twoArgSyncHandler =
+                builder().arg(syncArg()).arg(syncArg()).apiHandler(Adder::add2).build();
+        eightArgSyncHandler = builder()
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .arg(syncArg())
+                .apiHandler(Adder::add8)
+                .build();
+        oneArgAsyncHandler = builder().arg(asyncArg()).apiHandler(Adder::add1).build();
+        twoArgMixedHandler =
+                builder().arg(syncArg()).arg(asyncArg()).apiHandler(Adder::add2).build();
+    }
+
+    @Benchmark
+    public int zeroArg() throws Exception {
+        zeroArgHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    @Benchmark
+    public int oneArgSync() throws Exception {
+        oneArgSyncHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    @Benchmark
+    public int twoArgSync() throws Exception {
+        twoArgSyncHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    @Benchmark
+    public int eightArgSync() throws Exception {
+        eightArgSyncHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    @Benchmark
+    public int oneArgAsync() throws Exception {
+        oneArgAsyncHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    @Benchmark
+    public int twoArgMixed() throws Exception {
+        twoArgMixedHandler.handleRequest(exchange);
+        return sender.sum;
+    }
+
+    private JsonApiHandler.ZeroArgStageBuilder<
+                    BenchmarkExchange, JsonApiHandler<BenchmarkExchange>, Sender.Value<Integer>>
+            builder() {
+        return new BenchmarkPreArgStageBuilder(sender)
+                .route(HttpMethod.GET, "/add")
+                .jsonResponse(new TypeReference<Integer>() {});
+    }
+
+    private static ArgExtractor<BenchmarkExchange, Integer> syncArg() {
+        return exchange -> ONE;
+    }
+
+    private static ArgExtractor.Async<BenchmarkExchange, Integer> asyncArg() {
+        return (exchange, callback) -> {
+            escapedCallback = callback;
+            escapedCallback.onArgExtracted(ONE);
+        };
+    }
+
+    /** Benchmark HTTP exchange. */
+    private static final class BenchmarkExchange {}
+
+    /** Benchmark {@code Sender.Value} that stores the sum without allocating. */
+    private static final class BenchmarkSender implements Sender.Value<Integer> {
+
+        private int sum = 0;
+
+        @Override
+        public void sendValue(Integer value) {
+            sum = value;
+        }
+
+        @Override
+        public void send(HttpOptional<Integer> maybeValue) {
+            sum = maybeValue.isPresent() ? maybeValue.get() : -maybeValue.statusCode();
+        }
+    }
+
+    /** Benchmark {@code PreArgStageBuilder} that reuses the sender for each exchange. */
+    private static final class BenchmarkPreArgStageBuilder
+            extends GenericJsonApiHandler.PreArgStageBuilder<BenchmarkExchange, JsonApiHandler<BenchmarkExchange>> {
+
+        private final BenchmarkSender sender;
+
+        @Override
+        protected GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.StatusCode>
+                getStatusCodeSenderFactory() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected <V>
+                GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Value<V>> getJsonValueSenderFactory() {
+            return exchange -> (Sender.Value<V>) sender;
+        }
+
+        @Override
+        protected <I>
+                GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Stream<I>> getJsonStreamSenderFactory(
+                        StreamFormat format) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected <V> GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Events<V>> getEventsSenderFactory(
+                Duration heartbeatInterval, long maxBufferedBytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected GenericJsonApiHandler.DispatcherFactory<BenchmarkExchange> getDispatcherFactory() {
+            Dispatcher dispatcher = StubDispatcher.get();
+            return exchange -> dispatcher;
+        }
+
+        @Override
+        protected GenericJsonApiHandler.HttpHandlerFactory<BenchmarkExchange, JsonApiHandler<BenchmarkExchange>>
+                getHttpHandlerFactory() {
+            return delegate -> delegate;
+        }
+
+        private BenchmarkPreArgStageBuilder(BenchmarkSender sender) {
+            this.sender = sender;
+        }
+    }
+
+    /** Benchmark API that adds numbers without allocating. */
+    private static final class Adder {
+
+        public static void add0(Sender.Value<Integer> sender, Dispatcher dispatcher) {
+            sender.sendValue(0);
+        }
+
+        public static void add1(Sender.Value<Integer> sender, Integer a1, Dispatcher dispatcher) {
+            sender.sendValue(a1);
+        }
+
+        public static void add2(Sender.Value<Integer> sender, Integer a1, Integer a2, Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2);
+        }
+
+        public static void add8(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Integer a8,
+                Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4 + a5 + a6 + a7 + a8);
+        }
+    }
+}
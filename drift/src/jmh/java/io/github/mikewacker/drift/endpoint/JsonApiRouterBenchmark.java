@@ -0,0 +1,549 @@
+package io.github.mikewacker.drift.endpoint;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.mikewacker.drift.api.Dispatcher;
+import io.github.mikewacker.drift.api.HttpOptional;
+import io.github.mikewacker.drift.api.Sender;
+import io.github.mikewacker.drift.testing.api.StubDispatcher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a router with many routes whose pipelines are mixed.
+ * <p>
+ * The routes use zero to eight arguments, several types of argument extractors, and several API handlers;
+ * some routes have an asynchronous argument extractor. Each operation handles a request for a single route,
+ * cycling through all the routes, so a call site that is shared by all the routes becomes megamorphic.
+ * <p>
+ * {@code specializedRoutes} gives each route its own copy of its pipeline class, which is the default.
+ * {@code sharedRoutes} disables that mode, so routes with the same number of arguments share a pipeline class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class JsonApiRouterBenchmark {
+
+    private static final int ROUTE_COUNT = 64;
+    private static final HttpOptional<Integer> ONE = HttpOptional.of(1);
+
+    private static ArgExtractor.Callback<Integer> escapedCallback = null;
+
+    private final BenchmarkSender sender = new BenchmarkSender();
+    private final List<BenchmarkExchange> exchanges = new ArrayList<>();
+    private JsonApiRouter<BenchmarkExchange> router;
+
+    @Setup
+    public void createRouter() {
+        List<JsonApiHandler<BenchmarkExchange>> httpHandlers = new ArrayList<>();
+        for (int i = 0; i < ROUTE_COUNT; ++i) {
+            httpHandlers.add(createHttpHandler(i));
+            exchanges.add(new BenchmarkExchange(getRelativePath(i)));
+        }
+        router = new BenchmarkRouter(httpHandlers);
+    }
+
+    @Benchmark
+    @Fork(1)
+    @OperationsPerInvocation(ROUTE_COUNT)
+    public int specializedRoutes() throws Exception {
+        return handleRequests();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dio.github.mikewacker.drift.specializeRoutes=false")
+    @OperationsPerInvocation(ROUTE_COUNT)
+    public int sharedRoutes() throws Exception {
+        return handleRequests();
+    }
+
+    private int handleRequests() throws Exception {
+        int sum = 0;
+        for (BenchmarkExchange exchange : exchanges) {
+            router.handleRequest(exchange);
+            sum += sender.value;
+        }
+        return sum;
+    }
+
+    private JsonApiHandler<BenchmarkExchange> createHttpHandler(int routeIndex) {
+        JsonApiHandler.FinalStageBuilder<BenchmarkExchange, JsonApiHandler<BenchmarkExchange>> builder =
+                switch (routeIndex % 9) {
+                    case 0 -> builder(routeIndex).apiHandler(pick(routeIndex, Sum::of0, Max::of0, Min::of0));
+                    case 1 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .apiHandler(pick(routeIndex, Sum::of1, Max::of1, Min::of1));
+                    case 2 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .apiHandler(pick(routeIndex, Sum::of2, Max::of2, Min::of2));
+                    case 3 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .apiHandler(pick(routeIndex, Sum::of3, Max::of3, Min::of3));
+                    case 4 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .arg(arg(routeIndex, 4))
+                            .apiHandler(pick(routeIndex, Sum::of4, Max::of4, Min::of4));
+                    case 5 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .arg(arg(routeIndex, 4))
+                            .arg(arg(routeIndex, 5))
+                            .apiHandler(pick(routeIndex, Sum::of5, Max::of5, Min::of5));
+                    case 6 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .arg(arg(routeIndex, 4))
+                            .arg(arg(routeIndex, 5))
+                            .arg(arg(routeIndex, 6))
+                            .apiHandler(pick(routeIndex, Sum::of6, Max::of6, Min::of6));
+                    case 7 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .arg(arg(routeIndex, 4))
+                            .arg(arg(routeIndex, 5))
+                            .arg(arg(routeIndex, 6))
+                            .arg(arg(routeIndex, 7))
+                            .apiHandler(pick(routeIndex, Sum::of7, Max::of7, Min::of7));
+                    case 8 -> builder(routeIndex)
+                            .arg(arg(routeIndex, 1))
+                            .arg(arg(routeIndex, 2))
+                            .arg(arg(routeIndex, 3))
+                            .arg(arg(routeIndex, 4))
+                            .arg(arg(routeIndex, 5))
+                            .arg(arg(routeIndex, 6))
+                            .arg(arg(routeIndex, 7))
+                            .arg(arg(routeIndex, 8))
+                            .apiHandler(pick(routeIndex, Sum::of8, Max::of8, Min::of8));
+                    default -> throw new IllegalStateException();
+                };
+        return builder.build();
+    }
+
+    private JsonApiHandler.ZeroArgStageBuilder<
+                    BenchmarkExchange, JsonApiHandler<BenchmarkExchange>, Sender.Value<Integer>>
+            builder(int routeIndex) {
+        return new BenchmarkPreArgStageBuilder(sender)
+                .route(HttpMethod.GET, getRelativePath(routeIndex))
+                .jsonResponse(new TypeReference<Integer>() {});
+    }
+
+    private static String getRelativePath(int routeIndex) {
+        return String.format("/routes/%d", routeIndex);
+    }
+
+    /** Gets an argument extractor, varying its type by the route and the argument. */
+    private static ArgExtractor.Async<BenchmarkExchange, Integer> arg(int routeIndex, int argIndex) {
+        if ((routeIndex % 4 == 3) && (argIndex == 1)) {
+            return new BodyArg();
+        }
+
+        return switch ((routeIndex + argIndex) % 4) {
+            case 0 -> new QueryArg().async();
+            case 1 -> new HeaderArg().async();
+            case 2 -> new PathArg().async();
+            default -> new CookieArg().async();
+        };
+    }
+
+    /** Picks an API handler, varying it by the route. */
+    private static <H> H pick(int routeIndex, H sumHandler, H maxHandler, H minHandler) {
+        return switch ((routeIndex / 9) % 3) {
+            case 0 -> sumHandler;
+            case 1 -> maxHandler;
+            default -> minHandler;
+        };
+    }
+
+    /** Benchmark HTTP exchange. */
+    private record BenchmarkExchange(String relativePath) {}
+
+    /** Benchmark router. */
+    private static final class BenchmarkRouter extends GenericJsonApiRouter<BenchmarkExchange> {
+
+        @Override
+        protected void sendErrorCode(BenchmarkExchange httpExchange, int errorCode) {
+            throw new IllegalStateException(String.format("unexpected error code: %d", errorCode));
+        }
+
+        @Override
+        protected String getMethod(BenchmarkExchange httpExchange) {
+            return "GET";
+        }
+
+        @Override
+        protected String getRelativePath(BenchmarkExchange httpExchange) {
+            return httpExchange.relativePath();
+        }
+
+        @Override
+        protected void setPathParams(BenchmarkExchange httpExchange, PathParams pathParams) {}
+
+        private BenchmarkRouter(List<JsonApiHandler<BenchmarkExchange>> httpHandlers) {
+            super(httpHandlers);
+        }
+    }
+
+    /** Benchmark extractor for a query parameter. */
+    private record QueryArg() implements ArgExtractor<BenchmarkExchange, Integer> {
+
+        @Override
+        public HttpOptional<Integer> tryExtract(BenchmarkExchange httpExchange) {
+            return ONE;
+        }
+    }
+
+    /** Benchmark extractor for a header. */
+    private record HeaderArg() implements ArgExtractor<BenchmarkExchange, Integer> {
+
+        @Override
+        public HttpOptional<Integer> tryExtract(BenchmarkExchange httpExchange) {
+            return ONE;
+        }
+    }
+
+    /** Benchmark extractor for a path parameter. */
+    private record PathArg() implements ArgExtractor<BenchmarkExchange, Integer> {
+
+        @Override
+        public HttpOptional<Integer> tryExtract(BenchmarkExchange httpExchange) {
+            return ONE;
+        }
+    }
+
+    /** Benchmark extractor for a cookie. */
+    private record CookieArg() implements ArgExtractor<BenchmarkExchange, Integer> {
+
+        @Override
+        public HttpOptional<Integer> tryExtract(BenchmarkExchange httpExchange) {
+            return ONE;
+        }
+    }
+
+    /** Benchmark extractor for the body, which lets its callback escape. */
+    private record BodyArg() implements ArgExtractor.Async<BenchmarkExchange, Integer> {
+
+        @Override
+        public void tryExtract(BenchmarkExchange httpExchange, ArgExtractor.Callback<Integer> callback)
+                throws Exception {
+            escapedCallback = callback;
+            escapedCallback.onArgExtracted(ONE);
+        }
+    }
+
+    /** Benchmark {@code Sender.Value} that stores the value without allocating. */
+    private static final class BenchmarkSender implements Sender.Value<Integer> {
+
+        private int value = 0;
+
+        @Override
+        public void sendValue(Integer value) {
+            this.value = value;
+        }
+
+        @Override
+        public void send(HttpOptional<Integer> maybeValue) {
+            value = maybeValue.isPresent() ? maybeValue.get() : -maybeValue.statusCode();
+        }
+    }
+
+    /** Benchmark {@code PreArgStageBuilder} that reuses the sender for each exchange. */
+    private static final class BenchmarkPreArgStageBuilder
+            extends GenericJsonApiHandler.PreArgStageBuilder<BenchmarkExchange, JsonApiHandler<BenchmarkExchange>> {
+
+        private final BenchmarkSender sender;
+
+        @Override
+        protected GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.StatusCode>
+                getStatusCodeSenderFactory() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected <V>
+                GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Value<V>> getJsonValueSenderFactory() {
+            return exchange -> (Sender.Value<V>) sender;
+        }
+
+        @Override
+        protected <I>
+                GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Stream<I>> getJsonStreamSenderFactory(
+                        StreamFormat format) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected <V> GenericJsonApiHandler.SenderFactory<BenchmarkExchange, Sender.Events<V>> getEventsSenderFactory(
+                Duration heartbeatInterval, long maxBufferedBytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected GenericJsonApiHandler.DispatcherFactory<BenchmarkExchange> getDispatcherFactory() {
+            Dispatcher dispatcher = StubDispatcher.get();
+            return exchange -> dispatcher;
+        }
+
+        @Override
+        protected GenericJsonApiHandler.HttpHandlerFactory<BenchmarkExchange, JsonApiHandler<BenchmarkExchange>>
+                getHttpHandlerFactory() {
+            return delegate -> delegate;
+        }
+
+        private BenchmarkPreArgStageBuilder(BenchmarkSender sender) {
+            this.sender = sender;
+        }
+    }
+
+    /** Benchmark API that sums numbers without allocating. */
+    private static final class Sum {
+
+        public static void of0(Sender.Value<Integer> sender, Dispatcher dispatcher) {
+            sender.sendValue(0);
+        }
+
+        public static void of1(Sender.Value<Integer> sender, Integer a1, Dispatcher dispatcher) {
+            sender.sendValue(a1);
+        }
+
+        public static void of2(Sender.Value<Integer> sender, Integer a1, Integer a2, Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2);
+        }
+
+        public static void of3(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3);
+        }
+
+        public static void of4(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Integer a4, Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4);
+        }
+
+        public static void of5(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4 + a5);
+        }
+
+        public static void of6(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4 + a5 + a6);
+        }
+
+        public static void of7(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4 + a5 + a6 + a7);
+        }
+
+        public static void of8(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Integer a8,
+                Dispatcher dispatcher) {
+            sender.sendValue(a1 + a2 + a3 + a4 + a5 + a6 + a7 + a8);
+        }
+    }
+
+    /** Benchmark API that finds the maximum without allocating. */
+    private static final class Max {
+
+        public static void of0(Sender.Value<Integer> sender, Dispatcher dispatcher) {
+            sender.sendValue(0);
+        }
+
+        public static void of1(Sender.Value<Integer> sender, Integer a1, Dispatcher dispatcher) {
+            sender.sendValue(a1);
+        }
+
+        public static void of2(Sender.Value<Integer> sender, Integer a1, Integer a2, Dispatcher dispatcher) {
+            sender.sendValue(Math.max(a1, a2));
+        }
+
+        public static void of3(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Dispatcher dispatcher) {
+            sender.sendValue(Math.max(Math.max(a1, a2), a3));
+        }
+
+        public static void of4(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Integer a4, Dispatcher dispatcher) {
+            sender.sendValue(Math.max(Math.max(Math.max(a1, a2), a3), a4));
+        }
+
+        public static void of5(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.max(Math.max(Math.max(Math.max(a1, a2), a3), a4), a5));
+        }
+
+        public static void of6(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.max(Math.max(Math.max(Math.max(Math.max(a1, a2), a3), a4), a5), a6));
+        }
+
+        public static void of7(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.max(Math.max(Math.max(Math.max(Math.max(Math.max(a1, a2), a3), a4), a5), a6), a7));
+        }
+
+        public static void of8(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Integer a8,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.max(
+                    Math.max(Math.max(Math.max(Math.max(Math.max(Math.max(a1, a2), a3), a4), a5), a6), a7), a8));
+        }
+    }
+
+    /** Benchmark API that finds the minimum without allocating. */
+    private static final class Min {
+
+        public static void of0(Sender.Value<Integer> sender, Dispatcher dispatcher) {
+            sender.sendValue(0);
+        }
+
+        public static void of1(Sender.Value<Integer> sender, Integer a1, Dispatcher dispatcher) {
+            sender.sendValue(a1);
+        }
+
+        public static void of2(Sender.Value<Integer> sender, Integer a1, Integer a2, Dispatcher dispatcher) {
+            sender.sendValue(Math.min(a1, a2));
+        }
+
+        public static void of3(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Dispatcher dispatcher) {
+            sender.sendValue(Math.min(Math.min(a1, a2), a3));
+        }
+
+        public static void of4(
+                Sender.Value<Integer> sender, Integer a1, Integer a2, Integer a3, Integer a4, Dispatcher dispatcher) {
+            sender.sendValue(Math.min(Math.min(Math.min(a1, a2), a3), a4));
+        }
+
+        public static void of5(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.min(Math.min(Math.min(Math.min(a1, a2), a3), a4), a5));
+        }
+
+        public static void of6(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.min(Math.min(Math.min(Math.min(Math.min(a1, a2), a3), a4), a5), a6));
+        }
+
+        public static void of7(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.min(Math.min(Math.min(Math.min(Math.min(Math.min(a1, a2), a3), a4), a5), a6), a7));
+        }
+
+        public static void of8(
+                Sender.Value<Integer> sender,
+                Integer a1,
+                Integer a2,
+                Integer a3,
+                Integer a4,
+                Integer a5,
+                Integer a6,
+                Integer a7,
+                Integer a8,
+                Dispatcher dispatcher) {
+            sender.sendValue(Math.min(
+                    Math.min(Math.min(Math.min(Math.min(Math.min(Math.min(a1, a2), a3), a4), a5), a6), a7), a8));
+        }
+    }
+}
@@ -4,287 +4,1178 @@ import io.github.mikewacker.drift.api.ApiHandler;
 import io.github.mikewacker.drift.api.Dispatcher;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
- * Internal data structure for an API request that has an API handler attached to it.
- * Some type parameters may be {@code Void}, depending on how many arguments the API request has.
+ * Internal state machine for an API request that has an asynchronous argument extractor.
+ * <p>
+ * The state machine is the only object that is allocated to extract the arguments;
+ * it is also the callback for each asynchronous argument extractor.
+ * All the synchronous argument extractors are run inline first, before any asynchronous argument extractor starts;
+ * the positions of the arguments do not change.
+ * An API request whose argument extractors are all synchronous does not use this state machine;
+ * its {@link Handler} extracts the arguments inline instead.
+ * <p>
+ * Independent asynchronous argument extractors (see {@link ArgExtractor.Async#independent()}) are started
+ * before the other asynchronous extractors, each with its own callback, and they may finish on other threads.
+ * The state machine counts the pending groups of extractors: the ordered chain of asynchronous extractors,
+ * and each independent extractor. Whichever group finishes last handles the API request,
+ * and the first extractor that fails sends its error status code.
+ * <p>
+ * While the ordered chain is in progress, e.g., while the request body is read on the I/O thread,
+ * it owns the exchange. If an independent extractor fails during that time, its error is deferred,
+ * and the ordered chain sends it once its current extractor returns, so that two threads never use the exchange
+ * at the same time.
  */
-final class ApiRequest<S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> {
+final class ApiRequest<E, S extends Sender> implements ArgExtractor.Callback<Object> {
 
-    private final Handler<S, A1, A2, A3, A4, A5, A6, A7, A8> handler;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final VarHandle PENDING_COUNT = findVarHandle("pendingCount");
+    private static final VarHandle CHAIN_STATE = findVarHandle("chainState");
+
+    private static final int CHAIN_IN_PROGRESS = 0;
+    private static final int CHAIN_FINISHED = 1;
+    private static final int CHAIN_ERROR_DEFERRED = 2;
+
+    private final Handler<E, S> handler;
+    private final E exchange;
     private final S sender;
     private final Dispatcher dispatcher;
-    private A1 arg1 = null;
-    private A2 arg2 = null;
-    private A3 arg3 = null;
-    private A4 arg4 = null;
-    private A5 arg5 = null;
-    private A6 arg6 = null;
-    private A7 arg7 = null;
-    private A8 arg8 = null;
-
-    /** Sets the first argument. */
-    public void setArg1(A1 arg1) {
-        this.arg1 = arg1;
+    private int argIndex = 0;
+    private volatile int pendingCount = 1; // -1 if an extractor failed
+
+    @SuppressWarnings("UnusedVariable") // only accessed via CHAIN_STATE
+    private volatile int chainState = CHAIN_IN_PROGRESS;
+
+    private volatile HttpOptional<Object> deferredError = null;
+    private Object arg1 = null;
+    private Object arg2 = null;
+    private Object arg3 = null;
+    private Object arg4 = null;
+    private Object arg5 = null;
+    private Object arg6 = null;
+    private Object arg7 = null;
+    private Object arg8 = null;
+
+    /** Extracts the arguments and then handles the API request. */
+    public static <E, S extends Sender> void extractArgsAndHandle(
+            Handler<E, S> handler, E exchange, S sender, Dispatcher dispatcher) throws Exception {
+        ApiRequest<E, S> request = new ApiRequest<>(handler, exchange, sender, dispatcher);
+        if (!request.trySetSyncArgs()) {
+            return;
+        }
+
+        request.startIndependentArgs();
+        request.extractNextAsyncArgOrHandle();
+    }
+
+    @Override
+    public void onArgExtracted(HttpOptional<Object> maybeArg) throws Exception {
+        if (!trySetArg(argIndex, maybeArg)) {
+            sendDeferredError();
+            return;
+        }
+
+        ++argIndex;
+        extractNextAsyncArgOrHandle();
     }
 
-    /** Sets the second argument. */
-    public void setArg2(A2 arg2) {
-        this.arg2 = arg2;
+    /**
+     * Extracts all the synchronous arguments, which are cheap to extract,
+     * so that an invalid request is rejected before any asynchronous extractor starts (e.g., reading the body).
+     */
+    private boolean trySetSyncArgs() {
+        for (int index = 0; ; ++index) {
+            @SuppressWarnings("unchecked")
+            ArgExtractor.Async<E, Object> argExtractor = (ArgExtractor.Async<E, Object>) handler.getArgExtractor(index);
+            if (argExtractor == null) {
+                return true;
+            }
+
+            if (!(argExtractor instanceof SyncArgExtractorAdapter<E, Object> syncArgExtractor)) {
+                continue;
+            }
+
+            HttpOptional<Object> maybeArg = syncArgExtractor.delegate().tryExtract(exchange);
+            if (!trySetArg(index, maybeArg)) {
+                return false;
+            }
+        }
+    }
+
+    /** Starts all the independent asynchronous arguments, without waiting for them. */
+    private void startIndependentArgs() throws Exception {
+        int independentCount = 0;
+        for (int index = 0; ; ++index) {
+            ArgExtractor.Async<E, ?> argExtractor = handler.getArgExtractor(index);
+            if (argExtractor == null) {
+                break;
+            }
+
+            if (argExtractor instanceof IndependentArgExtractorAdapter) {
+                ++independentCount;
+            }
+        }
+
+        if (independentCount == 0) {
+            return;
+        }
+
+        // Every extractor must be counted before any extractor starts.
+        pendingCount = independentCount + 1;
+        for (int index = 0; pendingCount > 0; ++index) {
+            @SuppressWarnings("unchecked")
+            ArgExtractor.Async<E, Object> argExtractor = (ArgExtractor.Async<E, Object>) handler.getArgExtractor(index);
+            if (argExtractor == null) {
+                return;
+            }
+
+            if (argExtractor instanceof IndependentArgExtractorAdapter<E, Object> independentArgExtractor) {
+                independentArgExtractor.delegate().tryExtract(exchange, new IndependentArgCallback<>(this, index));
+            }
+        }
     }
 
-    /** Sets the third argument. */
-    public void setArg3(A3 arg3) {
-        this.arg3 = arg3;
+    /** Extracts the remaining asynchronous arguments in order, and then handles the API request. */
+    private void extractNextAsyncArgOrHandle() throws Exception {
+        while (true) {
+            if (pendingCount < 0) {
+                // An independent extractor has failed.
+                sendDeferredError();
+                return;
+            }
+
+            @SuppressWarnings("unchecked")
+            ArgExtractor.Async<E, Object> argExtractor =
+                    (ArgExtractor.Async<E, Object>) handler.getArgExtractor(argIndex);
+            if (argExtractor == null) {
+                if (!sendDeferredError()) {
+                    handleIfDone();
+                }
+                return;
+            }
+
+            if (!(argExtractor instanceof SyncArgExtractorAdapter)
+                    && !(argExtractor instanceof IndependentArgExtractorAdapter)) {
+                argExtractor.tryExtract(exchange, this);
+                return;
+            }
+
+            ++argIndex;
+        }
     }
 
-    /** Sets the fourth argument. */
-    public void setArg4(A4 arg4) {
-        this.arg4 = arg4;
+    /** Sets an independent argument, and then handles the API request if every argument has been extracted. */
+    private void onIndependentArgExtracted(int index, HttpOptional<Object> maybeArg) throws Exception {
+        if (maybeArg.isEmpty()) {
+            failIndependentArg(maybeArg);
+            return;
+        }
+
+        trySetArg(index, maybeArg);
+        handleIfDone();
     }
 
-    /** Sets the fifth argument. */
-    public void setArg5(A5 arg5) {
-        this.arg5 = arg5;
+    /**
+     * Sends the error status code of a failed independent argument if it is the first failure,
+     * deferring it to the ordered chain if the chain is still in progress.
+     */
+    private void failIndependentArg(HttpOptional<Object> maybeArg) {
+        if ((int) PENDING_COUNT.getAndSet(this, -1) <= 0) {
+            return;
+        }
+
+        deferredError = maybeArg;
+        if (!CHAIN_STATE.compareAndSet(this, CHAIN_IN_PROGRESS, CHAIN_ERROR_DEFERRED)) {
+            sender.sendErrorCode(maybeArg);
+        }
     }
 
-    /** Sets the sixth argument. */
-    public void setArg6(A6 arg6) {
-        this.arg6 = arg6;
+    /** Finishes the ordered chain, and then sends a deferred error status code, returning whether one was sent. */
+    private boolean sendDeferredError() {
+        if ((int) CHAIN_STATE.getAndSet(this, CHAIN_FINISHED) != CHAIN_ERROR_DEFERRED) {
+            return false;
+        }
+
+        sender.sendErrorCode(deferredError);
+        return true;
     }
 
-    /** Sets the seventh argument. */
-    public void setArg7(A7 arg7) {
-        this.arg7 = arg7;
+    /** Marks a pending group of extractors as finished, and then handles the API request if it was the last group. */
+    private void handleIfDone() throws Exception {
+        while (true) {
+            int count = pendingCount;
+            if (count <= 0) {
+                return;
+            }
+
+            if (PENDING_COUNT.compareAndSet(this, count, count - 1)) {
+                if (count == 1) {
+                    handler.handleRequest(this);
+                }
+                return;
+            }
+        }
     }
 
-    /** Sets the eighth argument. */
-    public void setArg8(A8 arg8) {
-        this.arg8 = arg8;
+    /** Sets the argument at a zero-based index, or sends an error status code if extraction failed. */
+    private boolean trySetArg(int index, HttpOptional<Object> maybeArg) {
+        if (maybeArg.isEmpty()) {
+            // Only the first failure is sent, and the API request is not handled after a failure.
+            if ((int) PENDING_COUNT.getAndSet(this, -1) > 0) {
+                sender.sendErrorCode(maybeArg);
+            }
+            return false;
+        }
+
+        Object arg = maybeArg.get();
+        switch (index) {
+            case 0 -> arg1 = arg;
+            case 1 -> arg2 = arg;
+            case 2 -> arg3 = arg;
+            case 3 -> arg4 = arg;
+            case 4 -> arg5 = arg;
+            case 5 -> arg6 = arg;
+            case 6 -> arg7 = arg;
+            case 7 -> arg8 = arg;
+            default -> throw new IllegalStateException("too many arguments");
+        }
+        return true;
     }
 
-    /** Handles this API request. */
-    public void handle() throws Exception {
-        handler.handleRequest(this);
+    /** Finds the handle for a field that is updated atomically. */
+    private static VarHandle findVarHandle(String name) {
+        try {
+            return LOOKUP.findVarHandle(ApiRequest.class, name, int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
-    /** Sends an error status code when an argument cannot be set. */
-    public <A> void sendErrorCode(HttpOptional<A> emptyArg) {
-        sender.sendErrorCode(emptyArg);
+    /** Creates a handler, using a dedicated copy of the handler class. */
+    @SuppressWarnings("unchecked")
+    private static <E, S extends Sender> Handler<E, S> specialize(Class<?> handlerClass, Object... args) {
+        return (Handler<E, S>) PipelineSpecializer.newInstance(LOOKUP, handlerClass, args);
     }
 
-    private ApiRequest(Handler<S, A1, A2, A3, A4, A5, A6, A7, A8> handler, S sender, Dispatcher dispatcher) {
+    private ApiRequest(Handler<E, S> handler, E exchange, S sender, Dispatcher dispatcher) {
         this.handler = handler;
+        this.exchange = exchange;
         this.sender = sender;
         this.dispatcher = dispatcher;
     }
 
-    /** Factory for API requests. */
-    @FunctionalInterface
-    public interface Factory<S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> {
+    /** Callback for an independent argument, which knows the position of its argument. */
+    private record IndependentArgCallback<E, S extends Sender>(ApiRequest<E, S> request, int index)
+            implements ArgExtractor.Callback<Object> {
 
-        /** Creates a factory for API requests with zero arguments. */
-        static <S extends Sender> Factory<S, Void, Void, Void, Void, Void, Void, Void, Void> zeroArg(
-                ApiHandler.ZeroArg<S> handler) {
-            return new FactoryImpl<>(new ZeroArgHandler<>(handler));
+        @Override
+        public void onArgExtracted(HttpOptional<Object> maybeArg) throws Exception {
+            request.onIndependentArgExtracted(index, maybeArg);
         }
+    }
 
-        /** Creates a factory for API requests with one argument. */
-        static <S extends Sender, A1> Factory<S, A1, Void, Void, Void, Void, Void, Void, Void> oneArg(
-                ApiHandler.OneArg<S, A1> handler) {
-            return new FactoryImpl<>(new OneArgHandler<>(handler));
-        }
+    /**
+     * Internal handler for an API request, which is specialized by the number of arguments.
+     * <p>
+     * If every argument extractor is synchronous, the handler extracts the arguments inline into locals,
+     * so it does not allocate. Otherwise, it delegates to the {@code ApiRequest} state machine.
+     * <p>
+     * Each handler is an instance of a dedicated copy of its class; see {@link PipelineSpecializer}.
+     * As a result, each route has its own call sites for its argument extractors and its API handler.
+     */
+    interface Handler<E, S extends Sender> {
 
-        /** Creates a factory for API requests with two arguments. */
-        static <S extends Sender, A1, A2> Factory<S, A1, A2, Void, Void, Void, Void, Void, Void> twoArg(
-                ApiHandler.TwoArg<S, A1, A2> handler) {
-            return new FactoryImpl<>(new TwoArgHandler<>(handler));
+        /** Creates a handler for an API request with zero arguments. */
+        static <E, S extends Sender> Handler<E, S> zeroArg(ApiHandler.ZeroArg<S> apiHandler) {
+            return specialize(ZeroArgHandler.class, apiHandler);
         }
 
-        /** Creates a factory for API requests with three arguments. */
-        static <S extends Sender, A1, A2, A3> Factory<S, A1, A2, A3, Void, Void, Void, Void, Void> threeArg(
-                ApiHandler.ThreeArg<S, A1, A2, A3> handler) {
-            return new FactoryImpl<>(new ThreeArgHandler<>(handler));
+        /** Creates a handler for an API request with one argument. */
+        static <E, S extends Sender, A1> Handler<E, S> oneArg(
+                ApiHandler.OneArg<S, A1> apiHandler, ArgExtractor.Async<E, A1> arg1Extractor) {
+            return specialize(OneArgHandler.class, apiHandler, arg1Extractor);
         }
 
-        /** Creates a factory for API requests with four arguments. */
-        static <S extends Sender, A1, A2, A3, A4> Factory<S, A1, A2, A3, A4, Void, Void, Void, Void> fourArg(
-                ApiHandler.FourArg<S, A1, A2, A3, A4> handler) {
-            return new FactoryImpl<>(new FourArgHandler<>(handler));
+        /** Creates a handler for an API request with two arguments. */
+        static <E, S extends Sender, A1, A2> Handler<E, S> twoArg(
+                ApiHandler.TwoArg<S, A1, A2> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor) {
+            return specialize(TwoArgHandler.class, apiHandler, arg1Extractor, arg2Extractor);
         }
 
-        /** Creates a factory for API requests with five arguments. */
-        static <S extends Sender, A1, A2, A3, A4, A5> Factory<S, A1, A2, A3, A4, A5, Void, Void, Void> fiveArg(
-                ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> handler) {
-            return new FactoryImpl<>(new FiveArgHandler<>(handler));
+        /** Creates a handler for an API request with three arguments. */
+        static <E, S extends Sender, A1, A2, A3> Handler<E, S> threeArg(
+                ApiHandler.ThreeArg<S, A1, A2, A3> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor) {
+            return specialize(ThreeArgHandler.class, apiHandler, arg1Extractor, arg2Extractor, arg3Extractor);
         }
 
-        /** Creates a factory for API requests with six arguments. */
-        static <S extends Sender, A1, A2, A3, A4, A5, A6> Factory<S, A1, A2, A3, A4, A5, A6, Void, Void> sixArg(
-                ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> handler) {
-            return new FactoryImpl<>(new SixArgHandler<>(handler));
+        /** Creates a handler for an API request with four arguments. */
+        static <E, S extends Sender, A1, A2, A3, A4> Handler<E, S> fourArg(
+                ApiHandler.FourArg<S, A1, A2, A3, A4> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor) {
+            return specialize(
+                    FourArgHandler.class, apiHandler, arg1Extractor, arg2Extractor, arg3Extractor, arg4Extractor);
         }
 
-        /** Creates a factory for API requests with seven arguments. */
-        static <S extends Sender, A1, A2, A3, A4, A5, A6, A7> Factory<S, A1, A2, A3, A4, A5, A6, A7, Void> sevenArg(
-                ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> handler) {
-            return new FactoryImpl<>(new SevenArgHandler<>(handler));
+        /** Creates a handler for an API request with five arguments. */
+        static <E, S extends Sender, A1, A2, A3, A4, A5> Handler<E, S> fiveArg(
+                ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor) {
+            return specialize(
+                    FiveArgHandler.class,
+                    apiHandler,
+                    arg1Extractor,
+                    arg2Extractor,
+                    arg3Extractor,
+                    arg4Extractor,
+                    arg5Extractor);
         }
 
-        /** Creates a factory for API requests with eight arguments. */
-        static <S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> Factory<S, A1, A2, A3, A4, A5, A6, A7, A8> eightArg(
-                ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> handler) {
-            return new FactoryImpl<>(new EightArgHandler<>(handler));
+        /** Creates a handler for an API request with six arguments. */
+        static <E, S extends Sender, A1, A2, A3, A4, A5, A6> Handler<E, S> sixArg(
+                ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor) {
+            return specialize(
+                    SixArgHandler.class,
+                    apiHandler,
+                    arg1Extractor,
+                    arg2Extractor,
+                    arg3Extractor,
+                    arg4Extractor,
+                    arg5Extractor,
+                    arg6Extractor);
         }
 
-        /** Creates an API request with none of the arguments set. */
-        ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> createWithUnsetArgs(S sender, Dispatcher dispatcher);
-    }
-
-    /** Internal {@code Factory} implementation. */
-    private record FactoryImpl<S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8>(
-            Handler<S, A1, A2, A3, A4, A5, A6, A7, A8> handler) implements Factory<S, A1, A2, A3, A4, A5, A6, A7, A8> {
+        /** Creates a handler for an API request with seven arguments. */
+        static <E, S extends Sender, A1, A2, A3, A4, A5, A6, A7> Handler<E, S> sevenArg(
+                ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor,
+                ArgExtractor.Async<E, A7> arg7Extractor) {
+            return specialize(
+                    SevenArgHandler.class,
+                    apiHandler,
+                    arg1Extractor,
+                    arg2Extractor,
+                    arg3Extractor,
+                    arg4Extractor,
+                    arg5Extractor,
+                    arg6Extractor,
+                    arg7Extractor);
+        }
 
-        @Override
-        public ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> createWithUnsetArgs(S sender, Dispatcher dispatcher) {
-            return new ApiRequest<>(handler, sender, dispatcher);
+        /** Creates a handler for an API request with eight arguments. */
+        static <E, S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> Handler<E, S> eightArg(
+                ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> apiHandler,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor,
+                ArgExtractor.Async<E, A7> arg7Extractor,
+                ArgExtractor.Async<E, A8> arg8Extractor) {
+            return specialize(
+                    EightArgHandler.class,
+                    apiHandler,
+                    arg1Extractor,
+                    arg2Extractor,
+                    arg3Extractor,
+                    arg4Extractor,
+                    arg5Extractor,
+                    arg6Extractor,
+                    arg7Extractor,
+                    arg8Extractor);
         }
-    }
 
-    /** Internal handler for the API request. */
-    @FunctionalInterface
-    private interface Handler<S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> {
+        /** Handles the API request, extracting the arguments first. */
+        void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception;
+
+        /** Gets the extractor for the argument at a zero-based index, or returns null if there is no such argument. */
+        ArgExtractor.Async<E, ?> getArgExtractor(int index);
 
-        void handleRequest(ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> request) throws Exception;
+        /** Handles the API request after the state machine has extracted the arguments. */
+        void handleRequest(ApiRequest<E, S> request) throws Exception;
     }
 
     /** Internal {@code Handler} implementation for an API request with zero arguments. */
-    private record ZeroArgHandler<S extends Sender>(ApiHandler.ZeroArg<S> delegate)
-            implements Handler<S, Void, Void, Void, Void, Void, Void, Void, Void> {
+    static final class ZeroArgHandler<E, S extends Sender> implements Handler<E, S> {
+
+        private final ApiHandler.ZeroArg<S> delegate;
+
+        @Override
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            delegate.handleRequest(sender, dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return null;
+        }
 
         @Override
-        public void handleRequest(ApiRequest<S, Void, Void, Void, Void, Void, Void, Void, Void> request)
-                throws Exception {
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
             delegate.handleRequest(request.sender, request.dispatcher);
         }
+
+        ZeroArgHandler(ApiHandler.ZeroArg<S> delegate) {
+            this.delegate = delegate;
+        }
     }
 
     /** Internal {@code Handler} implementation for an API request with one argument. */
-    private record OneArgHandler<S extends Sender, A>(ApiHandler.OneArg<S, A> delegate)
-            implements Handler<S, A, Void, Void, Void, Void, Void, Void, Void> {
+    static final class OneArgHandler<E, S extends Sender, A1> implements Handler<E, S> {
+
+        private final ApiHandler.OneArg<S, A1> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+
+        @Override
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            delegate.handleRequest(sender, maybeArg1.get(), dispatcher);
+        }
 
         @Override
-        public void handleRequest(ApiRequest<S, A, Void, Void, Void, Void, Void, Void, Void> request) throws Exception {
-            delegate.handleRequest(request.sender, request.arg1, request.dispatcher);
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
+            delegate.handleRequest(request.sender, (A1) request.arg1, request.dispatcher);
+        }
+
+        OneArgHandler(ApiHandler.OneArg<S, A1> delegate, ArgExtractor.Async<E, A1> arg1Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
         }
     }
 
     /** Internal {@code Handler} implementation for an API request with two arguments. */
-    private record TwoArgHandler<S extends Sender, A1, A2>(ApiHandler.TwoArg<S, A1, A2> delegate)
-            implements Handler<S, A1, A2, Void, Void, Void, Void, Void, Void> {
+    static final class TwoArgHandler<E, S extends Sender, A1, A2> implements Handler<E, S> {
+
+        private final ApiHandler.TwoArg<S, A1, A2> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
 
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, Void, Void, Void, Void, Void, Void> request) throws Exception {
-            delegate.handleRequest(request.sender, request.arg1, request.arg2, request.dispatcher);
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            delegate.handleRequest(sender, maybeArg1.get(), maybeArg2.get(), dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
+            delegate.handleRequest(request.sender, (A1) request.arg1, (A2) request.arg2, request.dispatcher);
+        }
+
+        TwoArgHandler(
+                ApiHandler.TwoArg<S, A1, A2> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
         }
     }
 
     /** Internal {@code Handler} implementation for an API request with three arguments. */
-    private record ThreeArgHandler<S extends Sender, A1, A2, A3>(ApiHandler.ThreeArg<S, A1, A2, A3> delegate)
-            implements Handler<S, A1, A2, A3, Void, Void, Void, Void, Void> {
+    static final class ThreeArgHandler<E, S extends Sender, A1, A2, A3> implements Handler<E, S> {
+
+        private final ApiHandler.ThreeArg<S, A1, A2, A3> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+
+        @Override
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            delegate.handleRequest(sender, maybeArg1.get(), maybeArg2.get(), maybeArg3.get(), dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                default -> null;
+            };
+        }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, Void, Void, Void, Void, Void> request) throws Exception {
-            delegate.handleRequest(request.sender, request.arg1, request.arg2, request.arg3, request.dispatcher);
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
+            delegate.handleRequest(
+                    request.sender, (A1) request.arg1, (A2) request.arg2, (A3) request.arg3, request.dispatcher);
+        }
+
+        ThreeArgHandler(
+                ApiHandler.ThreeArg<S, A1, A2, A3> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
         }
     }
 
     /** Internal {@code Handler} implementation for an API request with four arguments. */
-    private record FourArgHandler<S extends Sender, A1, A2, A3, A4>(ApiHandler.FourArg<S, A1, A2, A3, A4> delegate)
-            implements Handler<S, A1, A2, A3, A4, Void, Void, Void, Void> {
+    static final class FourArgHandler<E, S extends Sender, A1, A2, A3, A4> implements Handler<E, S> {
+
+        private final ApiHandler.FourArg<S, A1, A2, A3, A4> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+        private final ArgExtractor.Async<E, A4> arg4Extractor;
 
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, A4, Void, Void, Void, Void> request) throws Exception {
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)
+                    || !(arg4Extractor instanceof SyncArgExtractorAdapter<E, A4> syncArg4Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            HttpOptional<A4> maybeArg4 = syncArg4Extractor.delegate().tryExtract(exchange);
+            if (maybeArg4.isEmpty()) {
+                sender.sendErrorCode(maybeArg4);
+                return;
+            }
+
             delegate.handleRequest(
-                    request.sender, request.arg1, request.arg2, request.arg3, request.arg4, request.dispatcher);
+                    sender, maybeArg1.get(), maybeArg2.get(), maybeArg3.get(), maybeArg4.get(), dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                case 3 -> arg4Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
+            delegate.handleRequest(
+                    request.sender,
+                    (A1) request.arg1,
+                    (A2) request.arg2,
+                    (A3) request.arg3,
+                    (A4) request.arg4,
+                    request.dispatcher);
+        }
+
+        FourArgHandler(
+                ApiHandler.FourArg<S, A1, A2, A3, A4> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
+            this.arg4Extractor = arg4Extractor;
         }
     }
 
     /** Internal {@code Handler} implementation for an API request with five arguments. */
-    private record FiveArgHandler<S extends Sender, A1, A2, A3, A4, A5>(
-            ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> delegate)
-            implements Handler<S, A1, A2, A3, A4, A5, Void, Void, Void> {
+    static final class FiveArgHandler<E, S extends Sender, A1, A2, A3, A4, A5> implements Handler<E, S> {
+
+        private final ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+        private final ArgExtractor.Async<E, A4> arg4Extractor;
+        private final ArgExtractor.Async<E, A5> arg5Extractor;
+
+        @Override
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)
+                    || !(arg4Extractor instanceof SyncArgExtractorAdapter<E, A4> syncArg4Extractor)
+                    || !(arg5Extractor instanceof SyncArgExtractorAdapter<E, A5> syncArg5Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            HttpOptional<A4> maybeArg4 = syncArg4Extractor.delegate().tryExtract(exchange);
+            if (maybeArg4.isEmpty()) {
+                sender.sendErrorCode(maybeArg4);
+                return;
+            }
+
+            HttpOptional<A5> maybeArg5 = syncArg5Extractor.delegate().tryExtract(exchange);
+            if (maybeArg5.isEmpty()) {
+                sender.sendErrorCode(maybeArg5);
+                return;
+            }
+
+            delegate.handleRequest(
+                    sender,
+                    maybeArg1.get(),
+                    maybeArg2.get(),
+                    maybeArg3.get(),
+                    maybeArg4.get(),
+                    maybeArg5.get(),
+                    dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                case 3 -> arg4Extractor;
+                case 4 -> arg5Extractor;
+                default -> null;
+            };
+        }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, A4, A5, Void, Void, Void> request) throws Exception {
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
             delegate.handleRequest(
                     request.sender,
-                    request.arg1,
-                    request.arg2,
-                    request.arg3,
-                    request.arg4,
-                    request.arg5,
+                    (A1) request.arg1,
+                    (A2) request.arg2,
+                    (A3) request.arg3,
+                    (A4) request.arg4,
+                    (A5) request.arg5,
                     request.dispatcher);
         }
+
+        FiveArgHandler(
+                ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
+            this.arg4Extractor = arg4Extractor;
+            this.arg5Extractor = arg5Extractor;
+        }
     }
 
     /** Internal {@code Handler} implementation for an API request with six arguments. */
-    private record SixArgHandler<S extends Sender, A1, A2, A3, A4, A5, A6>(
-            ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> delegate)
-            implements Handler<S, A1, A2, A3, A4, A5, A6, Void, Void> {
+    static final class SixArgHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6> implements Handler<E, S> {
+
+        private final ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+        private final ArgExtractor.Async<E, A4> arg4Extractor;
+        private final ArgExtractor.Async<E, A5> arg5Extractor;
+        private final ArgExtractor.Async<E, A6> arg6Extractor;
 
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, A4, A5, A6, Void, Void> request) throws Exception {
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)
+                    || !(arg4Extractor instanceof SyncArgExtractorAdapter<E, A4> syncArg4Extractor)
+                    || !(arg5Extractor instanceof SyncArgExtractorAdapter<E, A5> syncArg5Extractor)
+                    || !(arg6Extractor instanceof SyncArgExtractorAdapter<E, A6> syncArg6Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            HttpOptional<A4> maybeArg4 = syncArg4Extractor.delegate().tryExtract(exchange);
+            if (maybeArg4.isEmpty()) {
+                sender.sendErrorCode(maybeArg4);
+                return;
+            }
+
+            HttpOptional<A5> maybeArg5 = syncArg5Extractor.delegate().tryExtract(exchange);
+            if (maybeArg5.isEmpty()) {
+                sender.sendErrorCode(maybeArg5);
+                return;
+            }
+
+            HttpOptional<A6> maybeArg6 = syncArg6Extractor.delegate().tryExtract(exchange);
+            if (maybeArg6.isEmpty()) {
+                sender.sendErrorCode(maybeArg6);
+                return;
+            }
+
+            delegate.handleRequest(
+                    sender,
+                    maybeArg1.get(),
+                    maybeArg2.get(),
+                    maybeArg3.get(),
+                    maybeArg4.get(),
+                    maybeArg5.get(),
+                    maybeArg6.get(),
+                    dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                case 3 -> arg4Extractor;
+                case 4 -> arg5Extractor;
+                case 5 -> arg6Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
             delegate.handleRequest(
                     request.sender,
-                    request.arg1,
-                    request.arg2,
-                    request.arg3,
-                    request.arg4,
-                    request.arg5,
-                    request.arg6,
+                    (A1) request.arg1,
+                    (A2) request.arg2,
+                    (A3) request.arg3,
+                    (A4) request.arg4,
+                    (A5) request.arg5,
+                    (A6) request.arg6,
                     request.dispatcher);
         }
+
+        SixArgHandler(
+                ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
+            this.arg4Extractor = arg4Extractor;
+            this.arg5Extractor = arg5Extractor;
+            this.arg6Extractor = arg6Extractor;
+        }
     }
 
     /** Internal {@code Handler} implementation for an API request with seven arguments. */
-    private record SevenArgHandler<S extends Sender, A1, A2, A3, A4, A5, A6, A7>(
-            ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> delegate)
-            implements Handler<S, A1, A2, A3, A4, A5, A6, A7, Void> {
+    static final class SevenArgHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A7> implements Handler<E, S> {
+
+        private final ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+        private final ArgExtractor.Async<E, A4> arg4Extractor;
+        private final ArgExtractor.Async<E, A5> arg5Extractor;
+        private final ArgExtractor.Async<E, A6> arg6Extractor;
+        private final ArgExtractor.Async<E, A7> arg7Extractor;
 
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, Void> request) throws Exception {
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)
+                    || !(arg4Extractor instanceof SyncArgExtractorAdapter<E, A4> syncArg4Extractor)
+                    || !(arg5Extractor instanceof SyncArgExtractorAdapter<E, A5> syncArg5Extractor)
+                    || !(arg6Extractor instanceof SyncArgExtractorAdapter<E, A6> syncArg6Extractor)
+                    || !(arg7Extractor instanceof SyncArgExtractorAdapter<E, A7> syncArg7Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            HttpOptional<A4> maybeArg4 = syncArg4Extractor.delegate().tryExtract(exchange);
+            if (maybeArg4.isEmpty()) {
+                sender.sendErrorCode(maybeArg4);
+                return;
+            }
+
+            HttpOptional<A5> maybeArg5 = syncArg5Extractor.delegate().tryExtract(exchange);
+            if (maybeArg5.isEmpty()) {
+                sender.sendErrorCode(maybeArg5);
+                return;
+            }
+
+            HttpOptional<A6> maybeArg6 = syncArg6Extractor.delegate().tryExtract(exchange);
+            if (maybeArg6.isEmpty()) {
+                sender.sendErrorCode(maybeArg6);
+                return;
+            }
+
+            HttpOptional<A7> maybeArg7 = syncArg7Extractor.delegate().tryExtract(exchange);
+            if (maybeArg7.isEmpty()) {
+                sender.sendErrorCode(maybeArg7);
+                return;
+            }
+
+            delegate.handleRequest(
+                    sender,
+                    maybeArg1.get(),
+                    maybeArg2.get(),
+                    maybeArg3.get(),
+                    maybeArg4.get(),
+                    maybeArg5.get(),
+                    maybeArg6.get(),
+                    maybeArg7.get(),
+                    dispatcher);
+        }
+
+        @Override
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                case 3 -> arg4Extractor;
+                case 4 -> arg5Extractor;
+                case 5 -> arg6Extractor;
+                case 6 -> arg7Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
             delegate.handleRequest(
                     request.sender,
-                    request.arg1,
-                    request.arg2,
-                    request.arg3,
-                    request.arg4,
-                    request.arg5,
-                    request.arg6,
-                    request.arg7,
+                    (A1) request.arg1,
+                    (A2) request.arg2,
+                    (A3) request.arg3,
+                    (A4) request.arg4,
+                    (A5) request.arg5,
+                    (A6) request.arg6,
+                    (A7) request.arg7,
                     request.dispatcher);
         }
+
+        SevenArgHandler(
+                ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor,
+                ArgExtractor.Async<E, A7> arg7Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
+            this.arg4Extractor = arg4Extractor;
+            this.arg5Extractor = arg5Extractor;
+            this.arg6Extractor = arg6Extractor;
+            this.arg7Extractor = arg7Extractor;
+        }
     }
 
     /** Internal {@code Handler} implementation for an API request with eight arguments. */
-    private record EightArgHandler<S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8>(
-            ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> delegate)
-            implements Handler<S, A1, A2, A3, A4, A5, A6, A7, A8> {
+    static final class EightArgHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> implements Handler<E, S> {
+
+        private final ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> delegate;
+        private final ArgExtractor.Async<E, A1> arg1Extractor;
+        private final ArgExtractor.Async<E, A2> arg2Extractor;
+        private final ArgExtractor.Async<E, A3> arg3Extractor;
+        private final ArgExtractor.Async<E, A4> arg4Extractor;
+        private final ArgExtractor.Async<E, A5> arg5Extractor;
+        private final ArgExtractor.Async<E, A6> arg6Extractor;
+        private final ArgExtractor.Async<E, A7> arg7Extractor;
+        private final ArgExtractor.Async<E, A8> arg8Extractor;
+
+        @Override
+        public void handleRequest(E exchange, S sender, Dispatcher dispatcher) throws Exception {
+            if (!(arg1Extractor instanceof SyncArgExtractorAdapter<E, A1> syncArg1Extractor)
+                    || !(arg2Extractor instanceof SyncArgExtractorAdapter<E, A2> syncArg2Extractor)
+                    || !(arg3Extractor instanceof SyncArgExtractorAdapter<E, A3> syncArg3Extractor)
+                    || !(arg4Extractor instanceof SyncArgExtractorAdapter<E, A4> syncArg4Extractor)
+                    || !(arg5Extractor instanceof SyncArgExtractorAdapter<E, A5> syncArg5Extractor)
+                    || !(arg6Extractor instanceof SyncArgExtractorAdapter<E, A6> syncArg6Extractor)
+                    || !(arg7Extractor instanceof SyncArgExtractorAdapter<E, A7> syncArg7Extractor)
+                    || !(arg8Extractor instanceof SyncArgExtractorAdapter<E, A8> syncArg8Extractor)) {
+                ApiRequest.extractArgsAndHandle(this, exchange, sender, dispatcher);
+                return;
+            }
+
+            HttpOptional<A1> maybeArg1 = syncArg1Extractor.delegate().tryExtract(exchange);
+            if (maybeArg1.isEmpty()) {
+                sender.sendErrorCode(maybeArg1);
+                return;
+            }
+
+            HttpOptional<A2> maybeArg2 = syncArg2Extractor.delegate().tryExtract(exchange);
+            if (maybeArg2.isEmpty()) {
+                sender.sendErrorCode(maybeArg2);
+                return;
+            }
+
+            HttpOptional<A3> maybeArg3 = syncArg3Extractor.delegate().tryExtract(exchange);
+            if (maybeArg3.isEmpty()) {
+                sender.sendErrorCode(maybeArg3);
+                return;
+            }
+
+            HttpOptional<A4> maybeArg4 = syncArg4Extractor.delegate().tryExtract(exchange);
+            if (maybeArg4.isEmpty()) {
+                sender.sendErrorCode(maybeArg4);
+                return;
+            }
+
+            HttpOptional<A5> maybeArg5 = syncArg5Extractor.delegate().tryExtract(exchange);
+            if (maybeArg5.isEmpty()) {
+                sender.sendErrorCode(maybeArg5);
+                return;
+            }
+
+            HttpOptional<A6> maybeArg6 = syncArg6Extractor.delegate().tryExtract(exchange);
+            if (maybeArg6.isEmpty()) {
+                sender.sendErrorCode(maybeArg6);
+                return;
+            }
+
+            HttpOptional<A7> maybeArg7 = syncArg7Extractor.delegate().tryExtract(exchange);
+            if (maybeArg7.isEmpty()) {
+                sender.sendErrorCode(maybeArg7);
+                return;
+            }
+
+            HttpOptional<A8> maybeArg8 = syncArg8Extractor.delegate().tryExtract(exchange);
+            if (maybeArg8.isEmpty()) {
+                sender.sendErrorCode(maybeArg8);
+                return;
+            }
+
+            delegate.handleRequest(
+                    sender,
+                    maybeArg1.get(),
+                    maybeArg2.get(),
+                    maybeArg3.get(),
+                    maybeArg4.get(),
+                    maybeArg5.get(),
+                    maybeArg6.get(),
+                    maybeArg7.get(),
+                    maybeArg8.get(),
+                    dispatcher);
+        }
 
         @Override
-        public void handleRequest(ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> request) throws Exception {
+        public ArgExtractor.Async<E, ?> getArgExtractor(int index) {
+            return switch (index) {
+                case 0 -> arg1Extractor;
+                case 1 -> arg2Extractor;
+                case 2 -> arg3Extractor;
+                case 3 -> arg4Extractor;
+                case 4 -> arg5Extractor;
+                case 5 -> arg6Extractor;
+                case 6 -> arg7Extractor;
+                case 7 -> arg8Extractor;
+                default -> null;
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void handleRequest(ApiRequest<E, S> request) throws Exception {
             delegate.handleRequest(
                     request.sender,
-                    request.arg1,
-                    request.arg2,
-                    request.arg3,
-                    request.arg4,
-                    request.arg5,
-                    request.arg6,
-                    request.arg7,
-                    request.arg8,
+                    (A1) request.arg1,
+                    (A2) request.arg2,
+                    (A3) request.arg3,
+                    (A4) request.arg4,
+                    (A5) request.arg5,
+                    (A6) request.arg6,
+                    (A7) request.arg7,
+                    (A8) request.arg8,
                     request.dispatcher);
         }
+
+        EightArgHandler(
+                ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> delegate,
+                ArgExtractor.Async<E, A1> arg1Extractor,
+                ArgExtractor.Async<E, A2> arg2Extractor,
+                ArgExtractor.Async<E, A3> arg3Extractor,
+                ArgExtractor.Async<E, A4> arg4Extractor,
+                ArgExtractor.Async<E, A5> arg5Extractor,
+                ArgExtractor.Async<E, A6> arg6Extractor,
+                ArgExtractor.Async<E, A7> arg7Extractor,
+                ArgExtractor.Async<E, A8> arg8Extractor) {
+            this.delegate = delegate;
+            this.arg1Extractor = arg1Extractor;
+            this.arg2Extractor = arg2Extractor;
+            this.arg3Extractor = arg3Extractor;
+            this.arg4Extractor = arg4Extractor;
+            this.arg5Extractor = arg5Extractor;
+            this.arg6Extractor = arg6Extractor;
+            this.arg7Extractor = arg7Extractor;
+            this.arg8Extractor = arg8Extractor;
+        }
     }
 }
@@ -25,10 +25,7 @@ public interface ArgExtractor<E, A> {
      * @return this extractor with an asynchronous interface
      */
     default ArgExtractor.Async<E, A> async() {
-        return (exchange, callback) -> {
-            HttpOptional<A> maybeArg = tryExtract(exchange);
-            callback.onArgExtracted(maybeArg);
-        };
+        return new SyncArgExtractorAdapter<>(this);
     }
 
     /**
@@ -49,6 +46,22 @@ public interface ArgExtractor<E, A> {
          * @throws Exception for any exceptions that the callback may throw, if it is synchronously called
          */
         void tryExtract(E exchange, Callback<A> callback) throws Exception;
+
+        /**
+         * Marks this extractor as independent of the other asynchronous extractors,
+         * so that it can run concurrently with them, e.g., to look up a token while the request body is read.
+         * <p>
+         * An independent extractor starts before the other asynchronous extractors, without waiting for them,
+         * and the API request is handled once every argument has been extracted.
+         * The first extractor that fails sends its error status code; the other results are then ignored.
+         * Its callback may be invoked on any thread; if it fails while another asynchronous extractor is in progress,
+         * its error status code is sent once that extractor returns, on the thread of that extractor.
+         *
+         * @return this extractor, marked as independent
+         */
+        default ArgExtractor.Async<E, A> independent() {
+            return new IndependentArgExtractorAdapter<>(this);
+        }
     }
 
     /**
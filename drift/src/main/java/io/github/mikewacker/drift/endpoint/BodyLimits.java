@@ -0,0 +1,142 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Limits on reading the HTTP request body of a route.
+ * <p>
+ * A 413 error occurs if the body is too large, and a 408 error occurs if the body is read too slowly,
+ * either because the body is not read before the deadline or because it is read below the minimum throughput.
+ * <p>
+ * If the body is compressed, the maximum size applies to the decompressed body,
+ * and a 413 error also occurs if the body decompresses by more than the maximum compression ratio.
+ */
+public final class BodyLimits {
+
+    private static final BodyLimits NONE = new BodyLimits(-1, null, -1, -1);
+
+    private final long maxSize; // -1 if not limited
+    private final Duration readTimeout; // null if not limited
+    private final long minBytesPerSecond; // -1 if not limited
+    private final long maxCompressionRatio; // -1 if not limited
+
+    /**
+     * Gets the limits for a route that does not limit its HTTP request body.
+     *
+     * @return limits that do not limit the body
+     */
+    public static BodyLimits none() {
+        return NONE;
+    }
+
+    /**
+     * Gets the maximum size of the body, in bytes, if the size is limited.
+     *
+     * @return the maximum size of the body, or an empty value if the size is not limited
+     */
+    public OptionalLong getMaxSize() {
+        return (maxSize >= 0) ? OptionalLong.of(maxSize) : OptionalLong.empty();
+    }
+
+    /**
+     * Gets the deadline for reading the body, relative to when the body starts being read.
+     *
+     * @return the deadline for reading the body, or an empty value if there is no deadline
+     */
+    public Optional<Duration> getReadTimeout() {
+        return Optional.ofNullable(readTimeout);
+    }
+
+    /**
+     * Gets the minimum throughput for reading the body, in bytes per second.
+     *
+     * @return the minimum throughput, or an empty value if there is no minimum throughput
+     */
+    public OptionalLong getMinBytesPerSecond() {
+        return (minBytesPerSecond >= 0) ? OptionalLong.of(minBytesPerSecond) : OptionalLong.empty();
+    }
+
+    /**
+     * Gets the maximum ratio of the decompressed size of the body to its compressed size.
+     *
+     * @return the maximum compression ratio, or an empty value if the ratio is not limited
+     */
+    public OptionalLong getMaxCompressionRatio() {
+        return (maxCompressionRatio >= 0) ? OptionalLong.of(maxCompressionRatio) : OptionalLong.empty();
+    }
+
+    /** Determines if there are any limits on the body. */
+    boolean isLimited() {
+        return this != NONE;
+    }
+
+    /** Determines if the body must be timed while it is read. */
+    boolean isTimed() {
+        return (readTimeout != null) || (minBytesPerSecond >= 0);
+    }
+
+    /** Gets the maximum size of the body, or returns -1 if the size is not limited. */
+    long maxSize() {
+        return maxSize;
+    }
+
+    /** Gets the deadline for reading the body, or returns null if there is no deadline. */
+    Duration readTimeout() {
+        return readTimeout;
+    }
+
+    /** Gets the minimum throughput for reading the body, or returns -1 if there is no minimum throughput. */
+    long minBytesPerSecond() {
+        return minBytesPerSecond;
+    }
+
+    /** Gets the maximum compression ratio of the body, or returns -1 if the ratio is not limited. */
+    long maxCompressionRatio() {
+        return maxCompressionRatio;
+    }
+
+    /** Limits the maximum size of the body. */
+    BodyLimits withMaxSize(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maximum body size must be positive");
+        }
+
+        return new BodyLimits(maxSize, readTimeout, minBytesPerSecond, maxCompressionRatio);
+    }
+
+    /** Limits the time to read the body. */
+    BodyLimits withReadTimeout(Duration readTimeout) {
+        if (readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("body read timeout must be positive");
+        }
+
+        return new BodyLimits(maxSize, readTimeout, minBytesPerSecond, maxCompressionRatio);
+    }
+
+    /** Limits the minimum throughput for reading the body. */
+    BodyLimits withMinBytesPerSecond(long minBytesPerSecond) {
+        if (minBytesPerSecond <= 0) {
+            throw new IllegalArgumentException("minimum body throughput must be positive");
+        }
+
+        return new BodyLimits(maxSize, readTimeout, minBytesPerSecond, maxCompressionRatio);
+    }
+
+    /** Limits the maximum compression ratio of the body. */
+    BodyLimits withMaxCompressionRatio(long maxCompressionRatio) {
+        if (maxCompressionRatio < 1) {
+            throw new IllegalArgumentException("maximum body compression ratio must be at least 1");
+        }
+
+        return new BodyLimits(maxSize, readTimeout, minBytesPerSecond, maxCompressionRatio);
+    }
+
+    private BodyLimits(long maxSize, Duration readTimeout, long minBytesPerSecond, long maxCompressionRatio) {
+        this.maxSize = maxSize;
+        this.readTimeout = readTimeout;
+        this.minBytesPerSecond = minBytesPerSecond;
+        this.maxCompressionRatio = maxCompressionRatio;
+    }
+}
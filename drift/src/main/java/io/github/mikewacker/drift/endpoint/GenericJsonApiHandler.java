@@ -3,10 +3,9 @@ package io.github.mikewacker.drift.endpoint;
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.ApiHandler;
 import io.github.mikewacker.drift.api.Dispatcher;
-import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
+import java.time.Duration;
 import java.util.List;
-import java.util.function.Consumer;
 
 /**
  * Internal {@code JsonApiHandler} that implements the generic logic.
@@ -18,23 +17,22 @@ import java.util.function.Consumer;
  *     <li>provide a static {@code builder()} method that returns a {@code RouteStageBuilder},
  *         using the {@code PreArgStageBuilder} implementation as the {@code RouteStageBuilder} implementation.
  * </ul>
+ * <p>
+ * The pipeline for each API handler is built once, and it is specialized by the number of arguments.
+ * If every argument extractor is synchronous, handling a request only allocates the sender and the dispatcher;
+ * otherwise, it also allocates a single state machine to extract the arguments.
  */
-final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> implements JsonApiHandler<E> {
+final class GenericJsonApiHandler<E, S extends Sender> implements JsonApiHandler<E> {
 
     private final HttpMethod method;
     private List<String> relativePathSegments;
+    private final BodyLimits bodyLimits;
+    private final ResponseCompression responseCompression;
+    private final boolean isComputingETags;
 
-    private final ApiRequest.Factory<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequestFactory;
     private final SenderFactory<E, S> senderFactory;
     private final DispatcherFactory<E> dispatcherFactory;
-    private final ArgExtractor.Async<E, A1> arg1Extractor;
-    private final ArgExtractor.Async<E, A2> arg2Extractor;
-    private final ArgExtractor.Async<E, A3> arg3Extractor;
-    private final ArgExtractor.Async<E, A4> arg4Extractor;
-    private final ArgExtractor.Async<E, A5> arg5Extractor;
-    private final ArgExtractor.Async<E, A6> arg6Extractor;
-    private final ArgExtractor.Async<E, A7> arg7Extractor;
-    private final ArgExtractor.Async<E, A8> arg8Extractor;
+    private final ApiRequest.Handler<E, S> apiRequestHandler;
 
     @Override
     public HttpMethod getMethod() {
@@ -47,98 +45,44 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
     }
 
     @Override
-    public void handleRequest(E exchange) throws Exception {
-        S sender = senderFactory.create(exchange);
-        Dispatcher dispatcher = dispatcherFactory.create(exchange);
-        ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest =
-                apiRequestFactory.createWithUnsetArgs(sender, dispatcher);
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg1Extractor, apiRequest::setArg1, this::onArg1Set);
-    }
-
-    /** Called when the first argument has been set for the API request. */
-    private void onArg1Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg2Extractor, apiRequest::setArg2, this::onArg2Set);
-    }
-
-    /** Called when the second argument has been set for the API request. */
-    private void onArg2Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg3Extractor, apiRequest::setArg3, this::onArg3Set);
-    }
-
-    /** Called when the third argument has been set for the API request. */
-    private void onArg3Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg4Extractor, apiRequest::setArg4, this::onArg4Set);
-    }
-
-    /** Called when the fourth argument has been set for the API request. */
-    private void onArg4Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg5Extractor, apiRequest::setArg5, this::onArg5Set);
-    }
-
-    /** Called when the fifth argument has been set for the API request. */
-    private void onArg5Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg6Extractor, apiRequest::setArg6, this::onArg6Set);
+    public BodyLimits getBodyLimits() {
+        return bodyLimits;
     }
 
-    /** Called when the sixth argument has been set for the API request. */
-    private void onArg6Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg7Extractor, apiRequest::setArg7, this::onArg7Set);
-    }
-
-    /** Called when the seventh argument has been set for the API request. */
-    private void onArg7Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        extractNextArgOrHandleApiRequest(exchange, apiRequest, arg8Extractor, apiRequest::setArg8, this::onArg8Set);
+    @Override
+    public ResponseCompression getResponseCompression() {
+        return responseCompression;
     }
 
-    /** Called when the eight argument has been set for the API request. */
-    private void onArg8Set(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception {
-        apiRequest.handle();
+    @Override
+    public boolean isComputingETags() {
+        return isComputingETags;
     }
 
-    /** Extracts the next argument, or handles the API request if all arguments have been extracted. */
-    private <A> void extractNextArgOrHandleApiRequest(
-            E exchange,
-            ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest,
-            ArgExtractor.Async<E, A> argExtractor,
-            Consumer<A> argSetter,
-            AdapterHandler<E, S, A1, A2, A3, A4, A5, A6, A7, A8> next)
-            throws Exception {
-        if (argExtractor == null) {
-            apiRequest.handle();
-            return;
-        }
-
-        ArgExtractor.Callback<A> callback = new AdaptedArgExtractorCallback<>(exchange, apiRequest, argSetter, next);
-        argExtractor.tryExtract(exchange, callback);
+    @Override
+    public void handleRequest(E exchange) throws Exception {
+        S sender = senderFactory.create(exchange);
+        Dispatcher dispatcher = dispatcherFactory.create(exchange);
+        apiRequestHandler.handleRequest(exchange, sender, dispatcher);
     }
 
     private GenericJsonApiHandler(
             HttpMethod method,
             List<String> relativePathSegments,
-            ApiRequest.Factory<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequestFactory,
+            BodyLimits bodyLimits,
+            ResponseCompression responseCompression,
+            boolean isComputingETags,
             SenderFactory<E, S> senderFactory,
             DispatcherFactory<E> dispatcherFactory,
-            ArgExtractor.Async<E, A1> arg1Extractor,
-            ArgExtractor.Async<E, A2> arg2Extractor,
-            ArgExtractor.Async<E, A3> arg3Extractor,
-            ArgExtractor.Async<E, A4> arg4Extractor,
-            ArgExtractor.Async<E, A5> arg5Extractor,
-            ArgExtractor.Async<E, A6> arg6Extractor,
-            ArgExtractor.Async<E, A7> arg7Extractor,
-            ArgExtractor.Async<E, A8> arg8Extractor) {
+            ApiRequest.Handler<E, S> apiRequestHandler) {
         this.method = method;
         this.relativePathSegments = relativePathSegments;
-        this.apiRequestFactory = apiRequestFactory;
+        this.bodyLimits = bodyLimits;
+        this.responseCompression = responseCompression;
+        this.isComputingETags = isComputingETags;
         this.senderFactory = senderFactory;
         this.dispatcherFactory = dispatcherFactory;
-        this.arg1Extractor = arg1Extractor;
-        this.arg2Extractor = arg2Extractor;
-        this.arg3Extractor = arg3Extractor;
-        this.arg4Extractor = arg4Extractor;
-        this.arg5Extractor = arg5Extractor;
-        this.arg6Extractor = arg6Extractor;
-        this.arg7Extractor = arg7Extractor;
-        this.arg8Extractor = arg8Extractor;
+        this.apiRequestHandler = apiRequestHandler;
     }
 
     /** Creates a {@code Sender} from the underlying HTTP exchange. */
@@ -161,40 +105,18 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
         EH create(JsonApiHandler<E> delegate);
     }
 
-    /** Internal handler that handles the underlying HTTP request by converting it to an {@code ApiRequest}. */
-    @FunctionalInterface
-    private interface AdapterHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8> {
-
-        void handleRequest(E exchange, ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest) throws Exception;
-    }
-
-    /** Sets the argument that has been extracted, or sends an error status code if extraction fails. */
-    private record AdaptedArgExtractorCallback<E, S extends Sender, A1, A2, A3, A4, A5, A6, A7, A8, A>(
-            E exchange,
-            ApiRequest<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequest,
-            Consumer<A> argSetter,
-            AdapterHandler<E, S, A1, A2, A3, A4, A5, A6, A7, A8> next)
-            implements ArgExtractor.Callback<A> {
-
-        @Override
-        public void onArgExtracted(HttpOptional<A> maybeArg) throws Exception {
-            if (maybeArg.isEmpty()) {
-                apiRequest.sendErrorCode(maybeArg);
-                return;
-            }
-            A arg = maybeArg.get();
-
-            argSetter.accept(arg);
-            next.handleRequest(exchange, apiRequest);
-        }
-    }
-
     /** Abstract {@code RouteStageBuilder} and {@code ResponseStageBuilder} implementation. */
     public abstract static class PreArgStageBuilder<E, EH extends JsonApiHandler<E>>
             implements RouteStageBuilder<E, EH>, ResponseTypeStageBuilder<E, EH> {
 
+        private static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+        private static final long DEFAULT_MAX_BUFFERED_EVENT_BYTES = 1024 * 1024;
+
         private HttpMethod method = null;
         private List<String> relativePathSegments = null;
+        private BodyLimits bodyLimits = BodyLimits.none();
+        private ResponseCompression responseCompression = ResponseCompression.none();
+        private boolean isComputingETags = false;
 
         @Override
         public final PreArgStageBuilder<E, EH> route(HttpMethod method, String relativePath) {
@@ -203,13 +125,56 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
             return this;
         }
 
+        @Override
+        public final PreArgStageBuilder<E, EH> maxBodySize(long maxBodySize) {
+            bodyLimits = bodyLimits.withMaxSize(maxBodySize);
+            return this;
+        }
+
+        @Override
+        public final PreArgStageBuilder<E, EH> bodyReadTimeout(Duration readTimeout) {
+            bodyLimits = bodyLimits.withReadTimeout(readTimeout);
+            return this;
+        }
+
+        @Override
+        public final PreArgStageBuilder<E, EH> minBodyThroughput(long minBytesPerSecond) {
+            bodyLimits = bodyLimits.withMinBytesPerSecond(minBytesPerSecond);
+            return this;
+        }
+
+        @Override
+        public final PreArgStageBuilder<E, EH> maxBodyCompressionRatio(long maxCompressionRatio) {
+            bodyLimits = bodyLimits.withMaxCompressionRatio(maxCompressionRatio);
+            return this;
+        }
+
+        @Override
+        public final PreArgStageBuilder<E, EH> compressResponses(int minSize, int level) {
+            responseCompression = ResponseCompression.of(minSize, level);
+            return this;
+        }
+
+        @Override
+        public final PreArgStageBuilder<E, EH> computeETags() {
+            isComputingETags = true;
+            return this;
+        }
+
         @Override
         public final ZeroArgStageBuilder<E, EH, Sender.StatusCode> statusCodeResponse() {
             SenderFactory<E, Sender.StatusCode> senderFactory = getStatusCodeSenderFactory();
             DispatcherFactory<E> dispatcherFactory = getDispatcherFactory();
             HttpHandlerFactory<E, EH> httpHandlerFactory = getHttpHandlerFactory();
             return new ZeroArgStageBuilderImpl<>(
-                    method, relativePathSegments, senderFactory, dispatcherFactory, httpHandlerFactory);
+                    method,
+                    relativePathSegments,
+                    bodyLimits,
+                    responseCompression,
+                    isComputingETags,
+                    senderFactory,
+                    dispatcherFactory,
+                    httpHandlerFactory);
         }
 
         @Override
@@ -219,7 +184,55 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
             DispatcherFactory<E> dispatcherFactory = getDispatcherFactory();
             HttpHandlerFactory<E, EH> httpHandlerFactory = getHttpHandlerFactory();
             return new ZeroArgStageBuilderImpl<>(
-                    method, relativePathSegments, senderFactory, dispatcherFactory, httpHandlerFactory);
+                    method,
+                    relativePathSegments,
+                    bodyLimits,
+                    responseCompression,
+                    isComputingETags,
+                    senderFactory,
+                    dispatcherFactory,
+                    httpHandlerFactory);
+        }
+
+        @Override
+        public final <I> ZeroArgStageBuilder<E, EH, Sender.Stream<I>> jsonArrayResponse(TypeReference<I> itemTypeRef) {
+            return streamResponse(StreamFormat.JSON_ARRAY);
+        }
+
+        @Override
+        public final <I> ZeroArgStageBuilder<E, EH, Sender.Stream<I>> ndjsonResponse(TypeReference<I> itemTypeRef) {
+            return streamResponse(StreamFormat.JSON_LINES);
+        }
+
+        @Override
+        public final <V> ZeroArgStageBuilder<E, EH, Sender.Events<V>> eventsResponse(TypeReference<V> eventTypeRef) {
+            return eventsResponse(eventTypeRef, DEFAULT_HEARTBEAT_INTERVAL, DEFAULT_MAX_BUFFERED_EVENT_BYTES);
+        }
+
+        @Override
+        public final <V> ZeroArgStageBuilder<E, EH, Sender.Events<V>> eventsResponse(
+                TypeReference<V> eventTypeRef, Duration heartbeatInterval, long maxBufferedBytes) {
+            if (heartbeatInterval.isNegative() || heartbeatInterval.isZero()) {
+                throw new IllegalArgumentException("heartbeat interval must be positive");
+            }
+
+            if (maxBufferedBytes <= 0) {
+                throw new IllegalArgumentException("maximum buffered event size must be positive");
+            }
+
+            SenderFactory<E, Sender.Events<V>> senderFactory =
+                    getEventsSenderFactory(heartbeatInterval, maxBufferedBytes);
+            DispatcherFactory<E> dispatcherFactory = getDispatcherFactory();
+            HttpHandlerFactory<E, EH> httpHandlerFactory = getHttpHandlerFactory();
+            return new ZeroArgStageBuilderImpl<>(
+                    method,
+                    relativePathSegments,
+                    bodyLimits,
+                    responseCompression,
+                    isComputingETags,
+                    senderFactory,
+                    dispatcherFactory,
+                    httpHandlerFactory);
         }
 
         /** Gets the factory that creates a {@code Sender.StatusCode} from the underlying HTTP exchange. */
@@ -228,6 +241,13 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
         /** Gets the factory that creates a {@code Sender.Value} from the underlying HTTP exchange. */
         protected abstract <V> SenderFactory<E, Sender.Value<V>> getJsonValueSenderFactory();
 
+        /** Gets the factory that creates a {@code Sender.Stream} in the format from the underlying HTTP exchange. */
+        protected abstract <I> SenderFactory<E, Sender.Stream<I>> getJsonStreamSenderFactory(StreamFormat format);
+
+        /** Gets the factory that creates a {@code Sender.Events} from the underlying HTTP exchange. */
+        protected abstract <V> SenderFactory<E, Sender.Events<V>> getEventsSenderFactory(
+                Duration heartbeatInterval, long maxBufferedBytes);
+
         /** Gets the factory that creates a {@code Dispatcher} from the underlying HTTP exchange. */
         protected abstract DispatcherFactory<E> getDispatcherFactory();
 
@@ -236,6 +256,22 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         protected PreArgStageBuilder() {}
 
+        /** Sets the type of the response to a stream of items in the format. */
+        private <I> ZeroArgStageBuilder<E, EH, Sender.Stream<I>> streamResponse(StreamFormat format) {
+            SenderFactory<E, Sender.Stream<I>> senderFactory = getJsonStreamSenderFactory(format);
+            DispatcherFactory<E> dispatcherFactory = getDispatcherFactory();
+            HttpHandlerFactory<E, EH> httpHandlerFactory = getHttpHandlerFactory();
+            return new ZeroArgStageBuilderImpl<>(
+                    method,
+                    relativePathSegments,
+                    bodyLimits,
+                    responseCompression,
+                    isComputingETags,
+                    senderFactory,
+                    dispatcherFactory,
+                    httpHandlerFactory);
+        }
+
         /** Splits the relative URL path into segments. */
         private static List<String> splitRelativePath(String relativePath) {
             relativePath = relativePath.replaceFirst("^/", "");
@@ -247,6 +283,9 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
     private record ZeroArgStageBuilderImpl<E, EH extends JsonApiHandler<E>, S extends Sender>(
             HttpMethod method,
             List<String> relativePathSegments,
+            BodyLimits bodyLimits,
+            ResponseCompression responseCompression,
+            boolean isComputingETags,
             SenderFactory<E, S> senderFactory,
             DispatcherFactory<E> dispatcherFactory,
             HttpHandlerFactory<E, EH> httpHandlerFactory)
@@ -254,22 +293,16 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.ZeroArg<S> apiHandler) {
-            ApiRequest.Factory<S, Void, Void, Void, Void, Void, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.zeroArg(apiHandler);
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.zeroArg(apiHandler);
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     method,
                     relativePathSegments,
-                    apiRequestFactory,
+                    bodyLimits,
+                    responseCompression,
+                    isComputingETags,
                     senderFactory,
                     dispatcherFactory,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(httpHandlerFactory, delegate);
         }
 
@@ -286,22 +319,16 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.OneArg<S, A1> apiHandler) {
-            ApiRequest.Factory<S, A1, Void, Void, Void, Void, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.oneArg(apiHandler);
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.oneArg(apiHandler, arg1Extractor);
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     builder0.method,
                     builder0.relativePathSegments,
-                    apiRequestFactory,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
                     builder0.senderFactory,
                     builder0.dispatcherFactory,
-                    arg1Extractor,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -318,23 +345,18 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.TwoArg<S, A1, A2> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, Void, Void, Void, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.twoArg(apiHandler);
+            ApiRequest.Handler<E, S> apiRequestHandler =
+                    ApiRequest.Handler.twoArg(apiHandler, builder1.arg1Extractor, arg2Extractor);
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     builder0.method,
                     builder0.relativePathSegments,
-                    apiRequestFactory,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
                     builder0.senderFactory,
                     builder0.dispatcherFactory,
-                    builder1.arg1Extractor,
-                    arg2Extractor,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -351,24 +373,19 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.ThreeArg<S, A1, A2, A3> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, Void, Void, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.threeArg(apiHandler);
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.threeArg(
+                    apiHandler, builder1.arg1Extractor, builder2.arg2Extractor, arg3Extractor);
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     builder0.method,
                     builder0.relativePathSegments,
-                    apiRequestFactory,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
                     builder0.senderFactory,
                     builder0.dispatcherFactory,
-                    builder1.arg1Extractor,
-                    builder2.arg2Extractor,
-                    arg3Extractor,
-                    null,
-                    null,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -385,25 +402,20 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.FourArg<S, A1, A2, A3, A4> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, A4, Void, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.fourArg(apiHandler);
             TwoArgStageBuilderImpl<E, EH, S, A1, A2> builder2 = builder3.builder2;
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.fourArg(
+                    apiHandler, builder1.arg1Extractor, builder2.arg2Extractor, builder3.arg3Extractor, arg4Extractor);
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     builder0.method,
                     builder0.relativePathSegments,
-                    apiRequestFactory,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
                     builder0.senderFactory,
                     builder0.dispatcherFactory,
-                    builder1.arg1Extractor,
-                    builder2.arg2Extractor,
-                    builder3.arg3Extractor,
-                    arg4Extractor,
-                    null,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -420,26 +432,26 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.FiveArg<S, A1, A2, A3, A4, A5> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, A4, A5, Void, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.fiveArg(apiHandler);
             ThreeArgStageBuilderImpl<E, EH, S, A1, A2, A3> builder3 = builder4.builder3;
             TwoArgStageBuilderImpl<E, EH, S, A1, A2> builder2 = builder3.builder2;
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.fiveArg(
+                    apiHandler,
+                    builder1.arg1Extractor,
+                    builder2.arg2Extractor,
+                    builder3.arg3Extractor,
+                    builder4.arg4Extractor,
+                    arg5Extractor);
             JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
                     builder0.method,
                     builder0.relativePathSegments,
-                    apiRequestFactory,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
                     builder0.senderFactory,
                     builder0.dispatcherFactory,
-                    builder1.arg1Extractor,
-                    builder2.arg2Extractor,
-                    builder3.arg3Extractor,
-                    builder4.arg4Extractor,
-                    arg5Extractor,
-                    null,
-                    null,
-                    null);
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -456,27 +468,28 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.SixArg<S, A1, A2, A3, A4, A5, A6> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, A4, A5, A6, Void, Void> apiRequestFactory =
-                    ApiRequest.Factory.sixArg(apiHandler);
             FourArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4> builder4 = builder5.builder4;
             ThreeArgStageBuilderImpl<E, EH, S, A1, A2, A3> builder3 = builder4.builder3;
             TwoArgStageBuilderImpl<E, EH, S, A1, A2> builder2 = builder3.builder2;
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
-            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
-                    builder0.method,
-                    builder0.relativePathSegments,
-                    apiRequestFactory,
-                    builder0.senderFactory,
-                    builder0.dispatcherFactory,
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.sixArg(
+                    apiHandler,
                     builder1.arg1Extractor,
                     builder2.arg2Extractor,
                     builder3.arg3Extractor,
                     builder4.arg4Extractor,
                     builder5.arg5Extractor,
-                    arg6Extractor,
-                    null,
-                    null);
+                    arg6Extractor);
+            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
+                    builder0.method,
+                    builder0.relativePathSegments,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
+                    builder0.senderFactory,
+                    builder0.dispatcherFactory,
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -495,28 +508,30 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.SevenArg<S, A1, A2, A3, A4, A5, A6, A7> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, A4, A5, A6, A7, Void> apiRequestFactory =
-                    ApiRequest.Factory.sevenArg(apiHandler);
             FiveArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4, A5> builder5 = builder6.builder5;
             FourArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4> builder4 = builder5.builder4;
             ThreeArgStageBuilderImpl<E, EH, S, A1, A2, A3> builder3 = builder4.builder3;
             TwoArgStageBuilderImpl<E, EH, S, A1, A2> builder2 = builder3.builder2;
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
-            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
-                    builder0.method,
-                    builder0.relativePathSegments,
-                    apiRequestFactory,
-                    builder0.senderFactory,
-                    builder0.dispatcherFactory,
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.sevenArg(
+                    apiHandler,
                     builder1.arg1Extractor,
                     builder2.arg2Extractor,
                     builder3.arg3Extractor,
                     builder4.arg4Extractor,
                     builder5.arg5Extractor,
                     builder6.arg6Extractor,
-                    arg7Extractor,
-                    null);
+                    arg7Extractor);
+            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
+                    builder0.method,
+                    builder0.relativePathSegments,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
+                    builder0.senderFactory,
+                    builder0.dispatcherFactory,
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
 
@@ -536,8 +551,6 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
 
         @Override
         public FinalStageBuilder<E, EH> apiHandler(ApiHandler.EightArg<S, A1, A2, A3, A4, A5, A6, A7, A8> apiHandler) {
-            ApiRequest.Factory<S, A1, A2, A3, A4, A5, A6, A7, A8> apiRequestFactory =
-                    ApiRequest.Factory.eightArg(apiHandler);
             SixArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4, A5, A6> builder6 = builder7.builder6;
             FiveArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4, A5> builder5 = builder6.builder5;
             FourArgStageBuilderImpl<E, EH, S, A1, A2, A3, A4> builder4 = builder5.builder4;
@@ -545,12 +558,8 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
             TwoArgStageBuilderImpl<E, EH, S, A1, A2> builder2 = builder3.builder2;
             OneArgStageBuilderImpl<E, EH, S, A1> builder1 = builder2.builder1;
             ZeroArgStageBuilderImpl<E, EH, S> builder0 = builder1.builder0;
-            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
-                    builder0.method,
-                    builder0.relativePathSegments,
-                    apiRequestFactory,
-                    builder0.senderFactory,
-                    builder0.dispatcherFactory,
+            ApiRequest.Handler<E, S> apiRequestHandler = ApiRequest.Handler.eightArg(
+                    apiHandler,
                     builder1.arg1Extractor,
                     builder2.arg2Extractor,
                     builder3.arg3Extractor,
@@ -559,6 +568,15 @@ final class GenericJsonApiHandler<E, S extends Sender, A1, A2, A3, A4, A5, A6, A
                     builder6.arg6Extractor,
                     builder7.arg7Extractor,
                     arg8Extractor);
+            JsonApiHandler<E> delegate = new GenericJsonApiHandler<>(
+                    builder0.method,
+                    builder0.relativePathSegments,
+                    builder0.bodyLimits,
+                    builder0.responseCompression,
+                    builder0.isComputingETags,
+                    builder0.senderFactory,
+                    builder0.dispatcherFactory,
+                    apiRequestHandler);
             return new FinalStageBuilderImpl<>(builder0.httpHandlerFactory, delegate);
         }
     }
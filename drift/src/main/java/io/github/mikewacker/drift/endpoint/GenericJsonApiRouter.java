@@ -1,9 +1,6 @@
 package io.github.mikewacker.drift.endpoint;
 
-import io.github.mikewacker.drift.api.Sender;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.List;
 
 /**
  * Internal {@code JsonApiRouter} that implements the generic logic.
@@ -12,77 +9,62 @@ import java.util.Optional;
  * <ul>
  *     <li>provide a static factory method, {@code of()}; the method accepts a varargs list of HTTP handlers
  *         whose type is a {@code JsonApiHandler} implementation for the server.
- *         The protected {@code addHttpHandler()} method can be called to add these HTTP handlers to the router.
+ *         These HTTP handlers are passed to the protected constructor, which compiles them into a route table.
  *     <li>implement the protected abstract methods, which contain server-specific logic.
  * </ul>
+ * <p>
+ * Routing a request does not allocate, even if the route is not found,
+ * unless the route has path parameters.
  */
 abstract class GenericJsonApiRouter<E> implements JsonApiRouter<E> {
 
-    private final Node<E> root = Node.createRoot();
+    private final RouteTable<E> routeTable;
 
     @Override
     public final void handleRequest(E httpExchange) throws Exception {
-        Sender sender = createErrorCodeSender(httpExchange);
-
-        Optional<HttpMethod> maybeMethod = tryGetMethod(httpExchange);
-        if (maybeMethod.isEmpty()) {
-            sender.sendErrorCode(400);
+        HttpMethod method = RouteTable.parseMethod(getMethod(httpExchange));
+        if (method == null) {
+            sendErrorCode(httpExchange, 400);
             return;
         }
-        HttpMethod method = maybeMethod.get();
 
         String relativePath = getRelativePath(httpExchange);
-        String[] relativePathSegments = splitPath(relativePath);
-
-        Node<E> node = root;
-        for (String pathSegment : relativePathSegments) {
-            Optional<Node<E>> maybeNode = node.tryGetChild(pathSegment);
-            if (maybeNode.isEmpty()) {
-                sender.sendErrorCode(404);
-                return;
-            }
-
-            node = maybeNode.get();
+        int[] paramOffsets = routeTable.getParamOffsetsBuffer();
+        RouteTable.CompiledNode<E> node = routeTable.match(relativePath, paramOffsets);
+        if (node == null) {
+            sendErrorCode(httpExchange, 404);
+            return;
         }
 
-        Optional<JsonApiHandler<E>> maybeHttpHandler = node.tryGetHandler(method);
-        if (maybeHttpHandler.isEmpty()) {
-            sender.sendErrorCode(405);
+        RouteTable.Route<E> route = node.getRoute(method);
+        if (route == null) {
+            sendErrorCode(httpExchange, 405);
             return;
         }
-        JsonApiHandler<E> httpHandler = maybeHttpHandler.get();
-
-        httpHandler.handleRequest(httpExchange);
-    }
 
-    /**
-     * Adds an HTTP handler for an API handler to this router.
-     *
-     * @param httpHandler an HTTP handler for an API handler
-     */
-    protected final void addHttpHandler(JsonApiHandler<E> httpHandler) {
-        Node<E> node = root;
-        for (String pathSegment : httpHandler.getRelativePathSegments()) {
-            node = node.getOrCreateChild(pathSegment);
+        if (route.hasParams()) {
+            PathParams pathParams = PathParams.create(relativePath, route.paramNames(), paramOffsets);
+            setPathParams(httpExchange, pathParams);
         }
-        node.setHandler(httpHandler.getMethod(), httpHandler);
+
+        route.httpHandler().handleRequest(httpExchange);
     }
 
     /**
-     * Creates a {@code Sender} for sending an error status code.
+     * Sends an error status code.
      *
      * @param httpExchange the underlying HTTP exchange
-     * @return a {@code Sender} for sending an error status code
+     * @param errorCode an HTTP status code for the error
      */
-    protected abstract Sender createErrorCodeSender(E httpExchange);
+    protected abstract void sendErrorCode(E httpExchange, int errorCode);
 
     /**
-     * Gets the HTTP method, or returns empty.
+     * Gets the raw HTTP method.
      *
      * @param httpExchange the underlying HTTP exchange
-     * @return the HTTP method, or empty if the HTTP method is invalid
+     * @return the raw HTTP method, which may not be supported
      */
-    protected abstract Optional<HttpMethod> tryGetMethod(E httpExchange);
+    protected abstract String getMethod(E httpExchange);
 
     /**
      * Gets the relative URL path.
@@ -92,49 +74,22 @@ abstract class GenericJsonApiRouter<E> implements JsonApiRouter<E> {
      */
     protected abstract String getRelativePath(E httpExchange);
 
-    protected GenericJsonApiRouter() {}
-
-    /** Splits the URL path into segments. */
-    private static String[] splitPath(String path) {
-        path = path.replaceFirst("^/", "");
-        return path.split("/");
-    }
-
-    /** Trie node for the router. */
-    private static final class Node<E> {
-
-        private Map<HttpMethod, JsonApiHandler<E>> httpHandlers = new HashMap<>();
-        private Map<String, Node<E>> children = new HashMap<>();
-
-        /** Creates the root node. */
-        public static <E> Node<E> createRoot() {
-            return new Node<>();
-        }
-
-        /** Gets the HTTP handler for an HTTP method, or returns empty. */
-        public Optional<JsonApiHandler<E>> tryGetHandler(HttpMethod method) {
-            return Optional.ofNullable(httpHandlers.get(method));
-        }
-
-        /** Gets the child node for the path segment, or returns empty. */
-        public Optional<Node<E>> tryGetChild(String pathSegment) {
-            return Optional.ofNullable(children.get(pathSegment));
-        }
-
-        /** Sets the HTTP handler for an HTTP method. */
-        public void setHandler(HttpMethod method, JsonApiHandler<E> httpHandler) {
-            Optional<JsonApiHandler<E>> maybeConflictingHttpHandler =
-                    Optional.ofNullable(httpHandlers.putIfAbsent(method, httpHandler));
-            if (maybeConflictingHttpHandler.isPresent()) {
-                throw new IllegalArgumentException("multiple HTTP handlers have the same route");
-            }
-        }
-
-        /** Gets or creates the child node for the path segment. */
-        public Node<E> getOrCreateChild(String pathSegment) {
-            return children.computeIfAbsent(pathSegment, ps -> new Node<>());
-        }
+    /**
+     * Sets the path parameters for a route that has path parameters, so that argument extractors can get them.
+     *
+     * @param httpExchange the underlying HTTP exchange
+     * @param pathParams the path parameters
+     */
+    protected abstract void setPathParams(E httpExchange, PathParams pathParams);
 
-        private Node() {}
+    /**
+     * Creates a router, compiling the HTTP handlers into a route table.
+     *
+     * @param httpHandlers a list of HTTP handlers for the API handlers
+     * @throws IllegalArgumentException if multiple HTTP handlers have the same route,
+     *     or if a route has an invalid path parameter
+     */
+    protected GenericJsonApiRouter(List<? extends JsonApiHandler<E>> httpHandlers) {
+        routeTable = RouteTable.compile(httpHandlers);
     }
 }
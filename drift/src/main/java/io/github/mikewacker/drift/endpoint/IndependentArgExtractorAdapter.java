@@ -0,0 +1,15 @@
+package io.github.mikewacker.drift.endpoint;
+
+/**
+ * Internal adapter that marks an asynchronous {@code ArgExtractor} as independent of the other extractors.
+ * <p>
+ * The handler pipeline recognizes this adapter, so it can start the extractor concurrently with the other
+ * asynchronous extractors instead of waiting for the previous extractor to finish.
+ */
+record IndependentArgExtractorAdapter<E, A>(ArgExtractor.Async<E, A> delegate) implements ArgExtractor.Async<E, A> {
+
+    @Override
+    public void tryExtract(E exchange, ArgExtractor.Callback<A> callback) throws Exception {
+        delegate.tryExtract(exchange, callback);
+    }
+}
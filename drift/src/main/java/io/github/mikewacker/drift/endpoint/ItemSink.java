@@ -0,0 +1,33 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.github.mikewacker.drift.api.HttpOptional;
+
+/**
+ * Sink for the items of an HTTP request body that is read incrementally,
+ * which produces an argument for the API request once the body ends.
+ * <p>
+ * A sink is created for each HTTP request. The items are passed to the sink as they are parsed,
+ * while the rest of the body is still being read; the sink is called on the I/O thread, so it should not block.
+ * If the body is malformed or cannot be read, the sink is abandoned without being finished.
+ *
+ * @param <I> the type of each item
+ * @param <A> the type of the argument
+ */
+public interface ItemSink<I, A> {
+
+    /**
+     * Called for each item of the body, in order.
+     *
+     * @param item the next item
+     * @throws Exception for any exceptions that this sink may throw; a 500 error occurs if it throws
+     */
+    void onItem(I item) throws Exception;
+
+    /**
+     * Called after the last item of the body.
+     *
+     * @return an argument for the API request, or an error status code
+     * @throws Exception for any exceptions that this sink may throw; a 500 error occurs if it throws
+     */
+    HttpOptional<A> finish() throws Exception;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.ApiHandler;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -25,11 +26,33 @@ public interface JsonApiHandler<E> {
 
     /**
      * Gets the relative URL path for this API, split into segments using {@code '/'} as the delimiter.
+     * A path segment such as {@code {id}} is a path parameter.
      *
      * @return a list of path segments
      */
     List<String> getRelativePathSegments();
 
+    /**
+     * Gets the limits on reading the HTTP request body for this API.
+     *
+     * @return the limits on the HTTP request body
+     */
+    BodyLimits getBodyLimits();
+
+    /**
+     * Gets the compression of the JSON responses for this API.
+     *
+     * @return the compression of the responses
+     */
+    ResponseCompression getResponseCompression();
+
+    /**
+     * Determines if an {@code ETag} is computed for the JSON responses for this API.
+     *
+     * @return whether an {@code ETag} is computed for the responses
+     */
+    boolean isComputingETags();
+
     /**
      * Handles the underlying HTTP request by invoking an API handler.
      *
@@ -48,6 +71,10 @@ public interface JsonApiHandler<E> {
 
         /**
          * Sets the route.
+         * <p>
+         * The relative path can contain path parameters that each match one path segment, e.g.,
+         * {@code /users/{id}/orders/{orderId}}. If a static path segment and a path parameter are at the same position
+         * in different routes, the static path segment has priority.
          *
          * @param method the HTTP method of the route
          * @param relativePath the relative URL path of the route
@@ -64,6 +91,79 @@ public interface JsonApiHandler<E> {
      */
     interface ResponseTypeStageBuilder<E, EH extends JsonApiHandler<E>> {
 
+        /**
+         * Limits the size of the HTTP request body.
+         * <p>
+         * A 413 error occurs if the body is too large. If the request declares a {@code Content-Length},
+         * the request is rejected before the body is read; otherwise, it is rejected once too many bytes have been read.
+         * If the body is compressed, the limit applies to the decompressed body.
+         *
+         * @param maxBodySize the maximum size of the HTTP request body, in bytes, which must be positive
+         * @return this builder at the response type stage
+         * @throws IllegalArgumentException if the maximum size is not positive
+         */
+        ResponseTypeStageBuilder<E, EH> maxBodySize(long maxBodySize);
+
+        /**
+         * Sets a deadline for reading the HTTP request body, relative to when the body starts being read.
+         * <p>
+         * A 408 error occurs if the body has not been read before the deadline, and the connection is closed.
+         *
+         * @param readTimeout the deadline for reading the body, which must be positive
+         * @return this builder at the response type stage
+         * @throws IllegalArgumentException if the deadline is not positive
+         */
+        ResponseTypeStageBuilder<E, EH> bodyReadTimeout(Duration readTimeout);
+
+        /**
+         * Sets a minimum throughput for reading the HTTP request body.
+         * <p>
+         * The throughput is checked once per second while the body is read. A 408 error occurs if fewer bytes
+         * were read during the last second than the minimum throughput, and the connection is closed.
+         *
+         * @param minBytesPerSecond the minimum throughput, in bytes per second, which must be positive
+         * @return this builder at the response type stage
+         * @throws IllegalArgumentException if the minimum throughput is not positive
+         */
+        ResponseTypeStageBuilder<E, EH> minBodyThroughput(long minBytesPerSecond);
+
+        /**
+         * Limits the compression ratio of an HTTP request body that is compressed with gzip or deflate.
+         * <p>
+         * A 413 error occurs as soon as the decompressed body is larger than the compressed bytes read so far
+         * times the maximum ratio. If the ratio is not limited, a maximum ratio of 100 is used.
+         *
+         * @param maxCompressionRatio the maximum ratio of the decompressed size to the compressed size,
+         *     which must be at least 1
+         * @return this builder at the response type stage
+         * @throws IllegalArgumentException if the maximum ratio is less than 1
+         */
+        ResponseTypeStageBuilder<E, EH> maxBodyCompressionRatio(long maxCompressionRatio);
+
+        /**
+         * Compresses JSON responses with gzip or deflate, if the client accepts either encoding.
+         * <p>
+         * Responses smaller than the minimum size are not compressed.
+         * A {@code Vary: Accept-Encoding} header is set on every JSON response, since the encoding depends on it.
+         *
+         * @param minSize the minimum size of a response to compress, in bytes, which must not be negative
+         * @param level the compression level, from 1 (fastest) to 9 (smallest)
+         * @return this builder at the response type stage
+         * @throws IllegalArgumentException if the minimum size is negative or the level is out of range
+         */
+        ResponseTypeStageBuilder<E, EH> compressResponses(int minSize, int level);
+
+        /**
+         * Computes a weak {@code ETag} for each JSON response from a hash of its serialized bytes.
+         * <p>
+         * A {@code GET} or {@code HEAD} request whose {@code If-None-Match} header matches the {@code ETag}
+         * receives a 304 response without a body. The response is still serialized to compute the hash;
+         * an API handler can skip serialization by sending a value with a version-based {@code ETag} instead.
+         *
+         * @return this builder at the response type stage
+         */
+        ResponseTypeStageBuilder<E, EH> computeETags();
+
         /**
          * Sets the type of the response to only an HTTP status code.
          *
@@ -79,6 +179,56 @@ public interface JsonApiHandler<E> {
          * @param <V> the type of the response value
          */
         <V> ZeroArgStageBuilder<E, EH, Sender.Value<V>> jsonResponse(TypeReference<V> responseValueTypeRef);
+
+        /**
+         * Sets the type of the response to a stream of items that are sent as the elements of a JSON array.
+         * <p>
+         * The items are serialized and sent incrementally, so the response does not need to fit in memory.
+         *
+         * @param itemTypeRef a {@link TypeReference} for each item
+         * @return this builder at the zero arguments stage
+         * @param <I> the type of each item
+         */
+        <I> ZeroArgStageBuilder<E, EH, Sender.Stream<I>> jsonArrayResponse(TypeReference<I> itemTypeRef);
+
+        /**
+         * Sets the type of the response to a stream of items that are sent as newline-delimited JSON.
+         * <p>
+         * The items are serialized and sent incrementally, so the response does not need to fit in memory.
+         *
+         * @param itemTypeRef a {@link TypeReference} for each item
+         * @return this builder at the zero arguments stage
+         * @param <I> the type of each item
+         */
+        <I> ZeroArgStageBuilder<E, EH, Sender.Stream<I>> ndjsonResponse(TypeReference<I> itemTypeRef);
+
+        /**
+         * Sets the type of the response to server-sent events that are pushed to the client,
+         * sending a heartbeat every 15 seconds and buffering at most 1 MiB of events per connection.
+         *
+         * @param eventTypeRef a {@link TypeReference} for each event
+         * @return this builder at the zero arguments stage
+         * @param <V> the type of each event
+         */
+        <V> ZeroArgStageBuilder<E, EH, Sender.Events<V>> eventsResponse(TypeReference<V> eventTypeRef);
+
+        /**
+         * Sets the type of the response to server-sent events that are pushed to the client.
+         * <p>
+         * A heartbeat comment is sent whenever no event has been sent for the heartbeat interval,
+         * which keeps proxies from closing an idle connection and detects a client that has disconnected.
+         * If the events that are buffered but not yet sent exceed the maximum size, the client has fallen too far
+         * behind, and the connection is closed.
+         *
+         * @param eventTypeRef a {@link TypeReference} for each event
+         * @param heartbeatInterval the interval between heartbeats, which must be positive
+         * @param maxBufferedBytes the maximum size of the buffered events, in bytes, which must be positive
+         * @return this builder at the zero arguments stage
+         * @throws IllegalArgumentException if the heartbeat interval or the maximum size is not positive
+         * @param <V> the type of each event
+         */
+        <V> ZeroArgStageBuilder<E, EH, Sender.Events<V>> eventsResponse(
+                TypeReference<V> eventTypeRef, Duration heartbeatInterval, long maxBufferedBytes);
     }
 
     /**
@@ -313,6 +463,11 @@ public interface JsonApiHandler<E> {
 
         /**
          * Adds an argument to the API handler. The argument will be extracted from the underlying HTTP request.
+         * <p>
+         * Synchronous arguments are extracted before any asynchronous argument, regardless of their positions,
+         * so that an invalid request is rejected before the request body is read.
+         * Asynchronous arguments are extracted in order, except for {@linkplain ArgExtractor.Async#independent()
+         * independent} arguments, which are extracted concurrently with the other asynchronous arguments.
          *
          * @param argExtractor the extractor that gets the argument from the underlying HTTP request
          * @return this builder at the stage with an additional argument
@@ -0,0 +1,333 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.github.mikewacker.drift.json.JsonStreamingSerializer;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.xnio.ChannelListener;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * Streams serialized items onto the non-blocking response channel of an HTTP exchange, respecting backpressure.
+ * <p>
+ * Items are serialized in batches into pooled buffers. The next batch is only serialized once the previous batch
+ * has been fully written to the channel; until then, the writer waits for the channel to become writable again.
+ * Thus, memory use is bounded by the size of a batch, regardless of the number of items or the speed of the client.
+ * <p>
+ * All serialization and writing happens on the IO thread of the exchange, in the write listener of the channel.
+ * A publisher can deliver items from any thread; the items are queued, and the IO thread is woken up.
+ */
+final class JsonStreamWriter<I> implements ChannelListener<StreamSinkChannel> {
+
+    private static final int BATCH_SIZE = 16 * 1024;
+    private static final int PUBLISHER_REQUEST_SIZE = 64;
+
+    private final HttpServerExchange httpExchange;
+    private final StreamSinkChannel channel;
+    private final PooledBufferOutputStream stream;
+    private final JsonStreamingSerializer<I> serializer;
+    private final ItemSource<I> source;
+
+    private ByteBuffer[] pendingBuffers = null;
+    private boolean isDone = false;
+    private boolean isStopped = false;
+
+    /**
+     * Starts streaming the items of an iterator in the format.
+     * Response headers must be set before streaming starts.
+     */
+    public static <I> void start(HttpServerExchange httpExchange, StreamFormat format, Iterator<? extends I> items) {
+        start(httpExchange, format, new IteratorSource<>(items));
+    }
+
+    /**
+     * Starts streaming the items of a publisher in the format.
+     * Response headers must be set before streaming starts.
+     */
+    public static <I> void start(
+            HttpServerExchange httpExchange, StreamFormat format, Flow.Publisher<? extends I> items) {
+        PublisherSource<I> source = new PublisherSource<>();
+        start(httpExchange, format, source);
+        items.subscribe(source);
+    }
+
+    @Override
+    public void handleEvent(StreamSinkChannel channel) {
+        try {
+            writeBatches();
+        } catch (IOException | RuntimeException e) {
+            abort();
+        }
+    }
+
+    /** Starts streaming the items of a source. */
+    private static <I> void start(HttpServerExchange httpExchange, StreamFormat format, ItemSource<I> source) {
+        PooledBufferOutputStream stream =
+                PooledBufferOutputStream.create(httpExchange.getConnection().getByteBufferPool());
+        JsonStreamWriter<I> writer =
+                new JsonStreamWriter<>(httpExchange, stream, format.createSerializer(stream), source);
+        source.setWakeUp(writer::wakeUp);
+        httpExchange.addExchangeCompleteListener((he, nextListener) -> {
+            writer.cleanUp();
+            nextListener.proceed();
+        });
+        writer.channel.getWriteSetter().set(writer);
+        writer.channel.resumeWrites();
+    }
+
+    /**
+     * Writes batches until the channel is not writable, no item is available yet, or all items have been written.
+     */
+    private void writeBatches() throws IOException {
+        while (true) {
+            if (pendingBuffers != null) {
+                channel.write(pendingBuffers);
+                if (hasRemaining(pendingBuffers)) {
+                    return; // wait for the channel to be writable
+                }
+
+                pendingBuffers = null;
+                stream.release();
+            }
+
+            if (isDone) {
+                isStopped = true;
+                httpExchange.endExchange();
+                return;
+            }
+
+            serializeBatch();
+            if (stream.size() > 0) {
+                pendingBuffers = stream.flipBuffers();
+                continue;
+            }
+
+            if (!isDone) {
+                channel.suspendWrites(); // wait for the source to wake up the writer
+                return;
+            }
+        }
+    }
+
+    /** Serializes the next batch of items, stopping early if no item is available yet. */
+    private void serializeBatch() {
+        while (stream.size() < BATCH_SIZE) {
+            I item = source.poll();
+            if (item == null) {
+                if (source.isExhausted()) {
+                    serializer.finish();
+                    isDone = true;
+                }
+                break;
+            }
+
+            serializer.write(item);
+        }
+        serializer.flush();
+    }
+
+    /** Wakes up the writer on the IO thread, once more items are available. */
+    private void wakeUp() {
+        httpExchange.getIoThread().execute(() -> {
+            if (!isStopped) {
+                channel.resumeWrites();
+            }
+        });
+    }
+
+    /** Aborts streaming, closing the connection so that the client does not see a well-formed response. */
+    private void abort() {
+        IoUtils.safeClose(httpExchange.getConnection());
+        cleanUp();
+    }
+
+    /** Releases the buffers and stops the source. This method is idempotent. */
+    private void cleanUp() {
+        isStopped = true;
+        source.close();
+        stream.release();
+        pendingBuffers = null;
+    }
+
+    /** Determines if any of the buffers have remaining bytes. */
+    private static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JsonStreamWriter(
+            HttpServerExchange httpExchange,
+            PooledBufferOutputStream stream,
+            JsonStreamingSerializer<I> serializer,
+            ItemSource<I> source) {
+        this.httpExchange = httpExchange;
+        this.channel = httpExchange.getResponseChannel();
+        this.stream = stream;
+        this.serializer = serializer;
+        this.source = source;
+    }
+
+    /** Source of items that is polled on the IO thread. */
+    private interface ItemSource<I> {
+
+        /** Sets the callback that wakes up the writer once more items are available. */
+        void setWakeUp(Runnable wakeUp);
+
+        /** Polls the next item, or returns null if no item is available yet; throws if the source failed. */
+        I poll();
+
+        /** Determines if no more items will be available, after {@code poll()} returns null. */
+        boolean isExhausted();
+
+        /** Stops the source. This method is idempotent. */
+        void close();
+    }
+
+    /** Source of items from an iterator, which always has an item available until it is exhausted. */
+    private static final class IteratorSource<I> implements ItemSource<I> {
+
+        private final Iterator<? extends I> items;
+        private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+        @Override
+        public void setWakeUp(Runnable wakeUp) {}
+
+        @Override
+        public I poll() {
+            if (!items.hasNext()) {
+                return null;
+            }
+
+            I item = items.next();
+            if (item == null) {
+                throw new NullPointerException("items must not be null");
+            }
+
+            return item;
+        }
+
+        @Override
+        public boolean isExhausted() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (!isClosed.compareAndSet(false, true)) {
+                return;
+            }
+
+            if (items instanceof AutoCloseable closeableItems) {
+                try {
+                    closeableItems.close();
+                } catch (Exception e) {
+                    // ignore; the response has already been sent or aborted
+                }
+            }
+        }
+
+        private IteratorSource(Iterator<? extends I> items) {
+            this.items = items;
+        }
+    }
+
+    /**
+     * Source of items from a publisher, which requests a few items at a time.
+     * <p>
+     * Only as many items as have been requested are queued, and more items are only requested
+     * as the writer polls the queued items, so a fast publisher cannot outrun a slow client.
+     */
+    private static final class PublisherSource<I> implements ItemSource<I>, Flow.Subscriber<I> {
+
+        private final Queue<I> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isClosed = new AtomicBoolean(false);
+        private volatile Flow.Subscription subscription = null;
+        private volatile boolean isComplete = false;
+        private volatile Throwable failure = null;
+        private volatile Runnable wakeUp = null;
+        private int polledSinceRequest = 0;
+
+        @Override
+        public void setWakeUp(Runnable wakeUp) {
+            this.wakeUp = wakeUp;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (isClosed.get()) {
+                subscription.cancel();
+                return;
+            }
+
+            subscription.request(PUBLISHER_REQUEST_SIZE);
+        }
+
+        @Override
+        public void onNext(I item) {
+            queue.add(item);
+            wakeUp.run();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure = throwable;
+            wakeUp.run();
+        }
+
+        @Override
+        public void onComplete() {
+            isComplete = true;
+            wakeUp.run();
+        }
+
+        @Override
+        public I poll() {
+            Throwable failure = this.failure;
+            if (failure != null) {
+                throw new IllegalStateException("publisher failed", failure);
+            }
+
+            I item = queue.poll();
+            if (item == null) {
+                return null;
+            }
+
+            if (++polledSinceRequest == PUBLISHER_REQUEST_SIZE / 2) {
+                subscription.request(polledSinceRequest);
+                polledSinceRequest = 0;
+            }
+
+            return item;
+        }
+
+        @Override
+        public boolean isExhausted() {
+            return isComplete && queue.isEmpty();
+        }
+
+        @Override
+        public void close() {
+            if (!isClosed.compareAndSet(false, true)) {
+                return;
+            }
+
+            Flow.Subscription subscription = this.subscription;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        private PublisherSource() {}
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.util.Arrays;
+
+/**
+ * Internal, immutable values of the path parameters for a matched route.
+ * <p>
+ * The values are stored as offsets into the relative path that the router captured while matching;
+ * a value is only converted to a {@code String} when it is requested.
+ */
+final class PathParams {
+
+    private final String relativePath;
+    private final String[] names;
+    private final int[] offsets;
+
+    /** Creates the path parameters, copying the offsets from the buffer that the router used while matching. */
+    public static PathParams create(String relativePath, String[] names, int[] offsetsBuffer) {
+        int[] offsets = Arrays.copyOf(offsetsBuffer, 2 * names.length);
+        return new PathParams(relativePath, names, offsets);
+    }
+
+    /** Gets the value of a path parameter, or returns null if the route does not have that path parameter. */
+    public String get(String name) {
+        for (int i = 0; i < names.length; ++i) {
+            if (names[i].equals(name)) {
+                return relativePath.substring(offsets[2 * i], offsets[2 * i + 1]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PathParams{");
+        for (int i = 0; i < names.length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append('=').append(relativePath, offsets[2 * i], offsets[2 * i + 1]);
+        }
+        return sb.append('}').toString();
+    }
+
+    private PathParams(String relativePath, String[] names, int[] offsets) {
+        this.relativePath = relativePath;
+        this.names = names;
+        this.offsets = offsets;
+    }
+}
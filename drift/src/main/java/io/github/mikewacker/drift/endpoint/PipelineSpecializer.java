@@ -0,0 +1,93 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * Internal factory that gives each route its own copy of a pipeline class.
+ * <p>
+ * When a single pipeline class is shared by many routes, its call sites become megamorphic,
+ * and the JIT compiler stops inlining the argument extractors and the API handler.
+ * Instead, the bytecode of the pipeline class is defined again as a hidden class for each route,
+ * so that each copy has its own call sites and its own type profile.
+ * <p>
+ * Each hidden class is a nestmate of the lookup class, so the pipeline class can access its private members.
+ * A pipeline class cannot be a record, because the generated methods of a record refer to the record class by name.
+ * If a hidden class cannot be defined, the pipeline class is shared instead.
+ * This mode can also be disabled by setting the system property
+ * {@code io.github.mikewacker.drift.specializeRoutes} to {@code false}.
+ */
+final class PipelineSpecializer {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("io.github.mikewacker.drift.specializeRoutes", "true"));
+
+    private static final ClassValue<byte[]> BYTECODE = new ClassValue<>() {
+
+        @Override
+        protected byte[] computeValue(Class<?> pipelineClass) {
+            return tryReadBytecode(pipelineClass);
+        }
+    };
+
+    /**
+     * Creates an instance of a pipeline class, using a copy of that class that is dedicated to a single route.
+     *
+     * @param lookup a lookup with full privilege access to a class in the nest of the pipeline class
+     * @param pipelineClass the pipeline class, which must have a single constructor
+     * @param args the arguments for the constructor
+     * @return an instance of a dedicated copy of the pipeline class
+     */
+    public static Object newInstance(MethodHandles.Lookup lookup, Class<?> pipelineClass, Object... args) {
+        MethodHandles.Lookup hiddenClassLookup = ENABLED ? tryDefineHiddenClass(lookup, pipelineClass) : null;
+        MethodHandles.Lookup specializedLookup = (hiddenClassLookup != null) ? hiddenClassLookup : lookup;
+        Class<?> specializedClass = (hiddenClassLookup != null) ? hiddenClassLookup.lookupClass() : pipelineClass;
+
+        Constructor<?>[] constructors = pipelineClass.getDeclaredConstructors();
+        if (constructors.length != 1) {
+            throw new IllegalArgumentException("pipeline class must have a single constructor");
+        }
+
+        MethodType constructorType = MethodType.methodType(void.class, constructors[0].getParameterTypes());
+        try {
+            MethodHandle constructor = specializedLookup.findConstructor(specializedClass, constructorType);
+            return constructor.invokeWithArguments(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("pipeline could not be created", e);
+        }
+    }
+
+    /** Defines a copy of the pipeline class as a hidden class, or returns null if it cannot be defined. */
+    private static MethodHandles.Lookup tryDefineHiddenClass(MethodHandles.Lookup lookup, Class<?> pipelineClass) {
+        byte[] bytecode = BYTECODE.get(pipelineClass);
+        if (bytecode == null) {
+            return null;
+        }
+
+        try {
+            return lookup.defineHiddenClass(bytecode, true, MethodHandles.Lookup.ClassOption.NESTMATE);
+        } catch (IllegalAccessException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Reads the bytecode of a class, or returns null if it cannot be read. */
+    private static byte[] tryReadBytecode(Class<?> clazz) {
+        String className = clazz.getName();
+        String resourceName = className.substring(className.lastIndexOf('.') + 1) + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resourceName)) {
+            return (stream != null) ? stream.readAllBytes() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // static class
+    private PipelineSpecializer() {}
+}
@@ -0,0 +1,93 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream that writes into buffers from Undertow's buffer pool, instead of into a growing array.
+ * <p>
+ * The buffers are only borrowed; they must be released once their contents have been sent.
+ * Closing the stream does not release the buffers, since a serializer may close the stream when it is done.
+ */
+final class PooledBufferOutputStream extends OutputStream {
+
+    private final ByteBufferPool pool;
+    private final List<PooledByteBuffer> pooledBuffers = new ArrayList<>(1);
+    private ByteBuffer currentBuffer = null;
+    private long size = 0;
+
+    /** Creates a stream that borrows buffers from the pool. */
+    public static PooledBufferOutputStream create(ByteBufferPool pool) {
+        return new PooledBufferOutputStream(pool);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureRemaining();
+        currentBuffer.put((byte) b);
+        ++size;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            ensureRemaining();
+            int writeLength = Math.min(length, currentBuffer.remaining());
+            currentBuffer.put(bytes, offset, writeLength);
+            offset += writeLength;
+            length -= writeLength;
+            size += writeLength;
+        }
+    }
+
+    /** Writes compressed data from the deflater directly into the current buffer, borrowing a buffer if needed. */
+    public void write(Deflater deflater) {
+        ensureRemaining();
+        size += deflater.deflate(currentBuffer);
+    }
+
+    /** Gets the number of bytes that have been written. */
+    public long size() {
+        return size;
+    }
+
+    /** Flips the buffers for reading, and then gets them. */
+    public ByteBuffer[] flipBuffers() {
+        ByteBuffer[] buffers = new ByteBuffer[pooledBuffers.size()];
+        for (int i = 0; i < buffers.length; ++i) {
+            buffers[i] = pooledBuffers.get(i).getBuffer().flip();
+        }
+        currentBuffer = null;
+        return buffers;
+    }
+
+    /** Returns the buffers to the pool, emptying the stream so that it can be reused. This method is idempotent. */
+    public void release() {
+        for (PooledByteBuffer pooledBuffer : pooledBuffers) {
+            pooledBuffer.close();
+        }
+        pooledBuffers.clear();
+        currentBuffer = null;
+        size = 0;
+    }
+
+    /** Borrows another buffer if the current buffer is full. */
+    private void ensureRemaining() {
+        if ((currentBuffer != null) && currentBuffer.hasRemaining()) {
+            return;
+        }
+
+        PooledByteBuffer pooledBuffer = pool.allocate();
+        pooledBuffers.add(pooledBuffer);
+        currentBuffer = pooledBuffer.getBuffer().clear();
+    }
+
+    private PooledBufferOutputStream(ByteBufferPool pool) {
+        this.pool = pool;
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide budget for the bytes of HTTP request bodies that are buffered in memory at the same time.
+ * <p>
+ * Each request is within its own size limit, but a burst of large concurrent requests can still exhaust memory.
+ * When a budget is installed via {@link #setGlobal(RequestBodyBudget)}, the body extractors that buffer the full body
+ * charge each chunk that they read against the budget, and they release it once the body has been deserialized.
+ * When the budget is exhausted, new reads either pause without reading from their connections until bytes are released,
+ * or they fail with a 503 error.
+ * <p>
+ * Reads that have already started are never paused, so a paused read never holds bytes that other reads wait for.
+ * As a result, the budget can be exceeded by the reads in progress, but each of those is bounded by the maximum body
+ * size of its route. A paused read reserves bytes when it resumes, so releasing bytes resumes only as many paused reads
+ * as the released bytes can cover. The number of buffered bytes, {@link #getBufferedBytes()}, can be observed as a
+ * gauge.
+ */
+public final class RequestBodyBudget {
+
+    private static volatile RequestBodyBudget global = null;
+
+    private final long maxBufferedBytes;
+    private final WhenExhausted whenExhausted;
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final Queue<PausedRead> pausedReads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a budget.
+     *
+     * @param maxBufferedBytes the maximum number of bytes that can be buffered at the same time, which must be positive
+     * @param whenExhausted what happens to reads when the budget is exhausted
+     * @return a budget
+     * @throws IllegalArgumentException if the maximum number of bytes is not positive
+     */
+    public static RequestBodyBudget create(long maxBufferedBytes, WhenExhausted whenExhausted) {
+        if (maxBufferedBytes <= 0) {
+            throw new IllegalArgumentException("maximum buffered bytes must be positive");
+        }
+
+        return new RequestBodyBudget(maxBufferedBytes, whenExhausted);
+    }
+
+    /**
+     * Installs a budget that is shared by all requests in this process.
+     *
+     * @param budget the budget, or null to remove the installed budget
+     */
+    public static void setGlobal(RequestBodyBudget budget) {
+        global = budget;
+    }
+
+    /**
+     * Gets the budget that is shared by all requests in this process, if one is installed.
+     *
+     * @return the installed budget, or an empty value
+     */
+    public static Optional<RequestBodyBudget> getGlobal() {
+        return Optional.ofNullable(global);
+    }
+
+    /**
+     * Gets the maximum number of bytes that can be buffered at the same time.
+     *
+     * @return the maximum number of bytes
+     */
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    /**
+     * Gets the number of bytes that are currently buffered.
+     *
+     * @return the number of bytes
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    /** Gets the installed budget, or returns null. */
+    static RequestBodyBudget tryGetGlobal() {
+        return global;
+    }
+
+    /** Determines if reads fail when this budget is exhausted, instead of pausing. */
+    boolean rejectsWhenExhausted() {
+        return whenExhausted == WhenExhausted.REJECT;
+    }
+
+    /** Determines if this budget is exhausted. */
+    boolean isExhausted() {
+        return bufferedBytes.get() >= maxBufferedBytes;
+    }
+
+    /** Charges bytes that have been buffered against this budget. */
+    void acquire(long bytes) {
+        bufferedBytes.addAndGet(bytes);
+    }
+
+    /** Releases bytes that are no longer buffered, resuming paused reads if bytes are available. */
+    void release(long bytes) {
+        bufferedBytes.addAndGet(-bytes);
+        resumePausedReads();
+    }
+
+    /**
+     * Resumes a paused read once bytes are available, reserving bytes for the read before it is resumed.
+     * <p>
+     * The read is resumed on the thread that makes bytes available. The returned read can be cancelled before then,
+     * e.g., if its exchange completes while it is paused.
+     */
+    PausedRead resumeWhenAvailable(long reservedBytes, Runnable resumeRead) {
+        PausedRead pausedRead = new PausedRead(this, reservedBytes, resumeRead);
+        pausedReads.add(pausedRead);
+
+        // Bytes may have been released after the read was paused, but before it was queued.
+        resumePausedReads();
+        return pausedRead;
+    }
+
+    /** Resumes paused reads while this budget is not exhausted, reserving bytes for each read before it is resumed. */
+    private void resumePausedReads() {
+        while (!isExhausted()) {
+            PausedRead pausedRead = pausedReads.poll();
+            if (pausedRead == null) {
+                return;
+            }
+
+            acquire(pausedRead.reservedBytes);
+            pausedRead.resumeRead.run();
+        }
+    }
+
+    private RequestBodyBudget(long maxBufferedBytes, WhenExhausted whenExhausted) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.whenExhausted = whenExhausted;
+    }
+
+    /** A read that is paused until bytes are available. */
+    static final class PausedRead {
+
+        private final RequestBodyBudget budget;
+        private final long reservedBytes;
+        private final Runnable resumeRead;
+
+        /**
+         * Cancels this read if it has not been resumed yet.
+         * <p>
+         * If it returns false, the read has been resumed, or it will be resumed, and the bytes have been reserved.
+         */
+        boolean cancel() {
+            return budget.pausedReads.remove(this);
+        }
+
+        private PausedRead(RequestBodyBudget budget, long reservedBytes, Runnable resumeRead) {
+            this.budget = budget;
+            this.reservedBytes = reservedBytes;
+            this.resumeRead = resumeRead;
+        }
+    }
+
+    /** What happens to a read of a request body when the budget is exhausted. */
+    public enum WhenExhausted {
+        /** The read is paused, suspending reads on the connection until bytes are released. */
+        PAUSE,
+        /** The read fails with a 503 error. */
+        REJECT,
+    }
+}
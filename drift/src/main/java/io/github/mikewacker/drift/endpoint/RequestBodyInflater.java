@@ -0,0 +1,241 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.undertow.server.RequestTooBigException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses an HTTP request body that is encoded with gzip or deflate, one chunk at a time.
+ * <p>
+ * Each chunk is inflated as soon as it arrives, and the caller bounds the decompressed size of each chunk,
+ * so a body that decompresses to an enormous size is rejected before that output is ever held in memory.
+ * For deflate, both the zlib format and raw deflate data are accepted, since clients disagree on the format.
+ * <p>
+ * An inflater is used for a single body; it is not thread-safe. It must be closed to release its native memory.
+ */
+final class RequestBodyInflater {
+
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final int DEFLATE_METHOD = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    private static final int RESERVED_FLAGS = 0xe0;
+
+    private final boolean isGzip;
+    private final byte[] outputBuffer = new byte[8 * 1024];
+    private final CRC32 crc = new CRC32();
+    private Inflater inflater = null; // null until the header has been read
+    private ByteArrayOutputStream header = new ByteArrayOutputStream(); // null once the header has been read
+    private final byte[] trailer = new byte[GZIP_TRAILER_SIZE];
+    private int trailerLength = 0;
+    private long outputSize = 0;
+
+    /**
+     * Creates an inflater for the {@code Content-Encoding} of an HTTP request,
+     * or returns null if the encoding is not supported.
+     */
+    public static RequestBodyInflater tryCreate(String contentEncoding) {
+        return switch (contentEncoding.strip().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new RequestBodyInflater(true);
+            case "deflate" -> new RequestBodyInflater(false);
+            default -> null;
+        };
+    }
+
+    /**
+     * Inflates the next chunk of the compressed body.
+     *
+     * @throws RequestTooBigException if the chunk decompresses to more than the maximum size
+     * @throws ZipException if the compressed body is malformed
+     */
+    public byte[] inflate(byte[] chunk, long maxOutputSize) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (header == null) {
+            inflateInput(chunk, 0, chunk.length, maxOutputSize, output);
+            return output.toByteArray();
+        }
+
+        header.write(chunk, 0, chunk.length);
+        byte[] headerBytes = header.toByteArray();
+        int headerSize = isGzip ? getGzipHeaderSize(headerBytes) : getDeflateHeaderSize(headerBytes);
+        if (headerSize < 0) {
+            if (headerBytes.length > MAX_HEADER_SIZE) {
+                throw new ZipException("compressed header is too large");
+            }
+
+            return output.toByteArray();
+        }
+
+        header = null;
+        inflater = new Inflater(isGzip || !isZlibHeader(headerBytes));
+        inflateInput(headerBytes, headerSize, headerBytes.length - headerSize, maxOutputSize, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Checks that the compressed body is complete, after the last chunk has been inflated.
+     *
+     * @throws ZipException if the compressed body is truncated
+     */
+    public void finish() throws ZipException {
+        boolean isComplete =
+                (inflater != null) && inflater.finished() && (!isGzip || (trailerLength == GZIP_TRAILER_SIZE));
+        if (!isComplete) {
+            throw new ZipException("compressed body is truncated");
+        }
+    }
+
+    /** Releases the native memory of the inflater. This method is idempotent. */
+    public void close() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    /** Inflates compressed input, and then reads the trailer if the compressed data ends within the input. */
+    private void inflateInput(byte[] input, int offset, int length, long maxOutputSize, ByteArrayOutputStream output)
+            throws IOException {
+        if (inflater.finished()) {
+            readTrailer(input, offset, length);
+            return;
+        }
+
+        inflater.setInput(input, offset, length);
+        while (!inflater.finished()) {
+            int inflatedSize = inflateNext();
+            if (inflatedSize == 0) {
+                break;
+            }
+
+            if (output.size() + inflatedSize > maxOutputSize) {
+                throw new RequestTooBigException();
+            }
+
+            crc.update(outputBuffer, 0, inflatedSize);
+            output.write(outputBuffer, 0, inflatedSize);
+            outputSize += inflatedSize;
+        }
+
+        if (inflater.finished()) {
+            int remaining = inflater.getRemaining();
+            readTrailer(input, offset + length - remaining, remaining);
+        }
+    }
+
+    /** Inflates the next bytes into the output buffer. */
+    private int inflateNext() throws ZipException {
+        try {
+            int inflatedSize = inflater.inflate(outputBuffer);
+            if ((inflatedSize == 0) && inflater.needsDictionary()) {
+                throw new ZipException("preset dictionary is not supported");
+            }
+
+            return inflatedSize;
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    /** Reads the bytes after the compressed data, which must be exactly the gzip trailer (if any). */
+    private void readTrailer(byte[] input, int offset, int length) throws ZipException {
+        int expectedLength = isGzip ? (GZIP_TRAILER_SIZE - trailerLength) : 0;
+        if (length > expectedLength) {
+            throw new ZipException("unexpected data after the compressed body");
+        }
+
+        System.arraycopy(input, offset, trailer, trailerLength, length);
+        trailerLength += length;
+        if (!isGzip || (trailerLength < GZIP_TRAILER_SIZE)) {
+            return;
+        }
+
+        if ((readInt(trailer, 0) != (int) crc.getValue()) || (readInt(trailer, 4) != (int) outputSize)) {
+            throw new ZipException("gzip trailer does not match the decompressed body");
+        }
+    }
+
+    /** Gets the size of a gzip header, or returns -1 if the header is incomplete. */
+    private static int getGzipHeaderSize(byte[] bytes) throws ZipException {
+        if (bytes.length < GZIP_HEADER_SIZE) {
+            return -1;
+        }
+
+        if ((bytes[0] != (byte) 0x1f) || (bytes[1] != (byte) 0x8b) || (bytes[2] != DEFLATE_METHOD)) {
+            throw new ZipException("not in gzip format");
+        }
+
+        int flags = bytes[3] & 0xff;
+        if ((flags & RESERVED_FLAGS) != 0) {
+            throw new ZipException("unsupported gzip flags");
+        }
+
+        int size = GZIP_HEADER_SIZE;
+        if ((flags & FEXTRA) != 0) {
+            if (bytes.length < size + 2) {
+                return -1;
+            }
+
+            int extraSize = (bytes[size] & 0xff) | ((bytes[size + 1] & 0xff) << 8);
+            size += 2 + extraSize;
+        }
+
+        if ((flags & FNAME) != 0) {
+            size = skipZeroTerminated(bytes, size);
+        }
+
+        if ((size >= 0) && ((flags & FCOMMENT) != 0)) {
+            size = skipZeroTerminated(bytes, size);
+        }
+
+        if ((size >= 0) && ((flags & FHCRC) != 0)) {
+            size += 2;
+        }
+
+        return ((size >= 0) && (size <= bytes.length)) ? size : -1;
+    }
+
+    /** Gets the size of the header that is consumed before deflate data, or returns -1 if it cannot be detected yet. */
+    private static int getDeflateHeaderSize(byte[] bytes) {
+        // The zlib header, if present, is consumed by the inflater itself.
+        return (bytes.length >= 2) ? 0 : -1;
+    }
+
+    /** Determines if deflate data starts with a zlib header, as opposed to being raw deflate data. */
+    private static boolean isZlibHeader(byte[] bytes) {
+        int cmf = bytes[0] & 0xff;
+        int flg = bytes[1] & 0xff;
+        return ((cmf & 0x0f) == DEFLATE_METHOD) && ((((cmf << 8) | flg) % 31) == 0);
+    }
+
+    /** Skips a zero-terminated field, or returns -1 if the terminator has not been read yet. */
+    private static int skipZeroTerminated(byte[] bytes, int offset) {
+        for (int i = offset; i < bytes.length; ++i) {
+            if (bytes[i] == 0) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /** Reads a little-endian 32-bit integer. */
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff)
+                | ((bytes[offset + 1] & 0xff) << 8)
+                | ((bytes[offset + 2] & 0xff) << 16)
+                | ((bytes[offset + 3] & 0xff) << 24);
+    }
+
+    private RequestBodyInflater(boolean isGzip) {
+        this.isGzip = isGzip;
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.mikewacker.drift.endpoint;
+
+/**
+ * Compression of the JSON responses of a route, negotiated from the {@code Accept-Encoding} header.
+ * <p>
+ * A response is compressed with gzip or deflate if the client accepts either encoding,
+ * preferring gzip, and if the serialized response is at least the minimum size;
+ * smaller responses are sent as is, since compressing them saves little and costs CPU time.
+ */
+public final class ResponseCompression {
+
+    private static final ResponseCompression NONE = new ResponseCompression(-1, -1);
+
+    private final int minSize; // -1 if not compressed
+    private final int level; // -1 if not compressed
+
+    /**
+     * Gets the settings for a route that does not compress its responses.
+     *
+     * @return settings that do not compress responses
+     */
+    public static ResponseCompression none() {
+        return NONE;
+    }
+
+    /**
+     * Determines if responses are compressed.
+     *
+     * @return whether responses are compressed
+     */
+    public boolean isEnabled() {
+        return this != NONE;
+    }
+
+    /**
+     * Gets the minimum size of a response to compress, in bytes, or returns -1 if responses are not compressed.
+     *
+     * @return the minimum size of a response to compress
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Gets the compression level, from 1 (fastest) to 9 (smallest), or returns -1 if responses are not compressed.
+     *
+     * @return the compression level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Gets the settings to compress responses. */
+    static ResponseCompression of(int minSize, int level) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("minimum response size to compress must not be negative");
+        }
+
+        if ((level < 1) || (level > 9)) {
+            throw new IllegalArgumentException("compression level must be between 1 and 9");
+        }
+
+        return new ResponseCompression(minSize, level);
+    }
+
+    private ResponseCompression(int minSize, int level) {
+        this.minSize = minSize;
+        this.level = level;
+    }
+}
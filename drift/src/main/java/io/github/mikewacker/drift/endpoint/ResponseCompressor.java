@@ -0,0 +1,178 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.QValueParser;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.xnio.XnioIoThread;
+
+/**
+ * Compresses a response with gzip or deflate, negotiating the encoding from the {@code Accept-Encoding} header.
+ * <p>
+ * Compression streams from the pooled buffers of the serialized response into other pooled buffers;
+ * the response is never copied into an intermediate array.
+ * <p>
+ * Each I/O thread also keeps a {@link Deflater} for each format, which is reset between responses,
+ * so a response that is compressed on an I/O thread does not allocate and free the native memory of a new deflater.
+ */
+final class ResponseCompressor {
+
+    /** Content coding for gzip. */
+    public static final String GZIP = "gzip";
+
+    /** Content coding for deflate, which is the zlib format. */
+    public static final String DEFLATE = "deflate";
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final ThreadLocal<Deflater> pooledGzipDeflater = new ThreadLocal<>();
+    private static final ThreadLocal<Deflater> pooledZlibDeflater = new ThreadLocal<>();
+
+    /**
+     * Negotiates the encoding of the response, preferring gzip when the client has no preference,
+     * or returns null if the client accepts neither gzip nor deflate.
+     */
+    public static String negotiate(HeaderValues acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        List<List<QValueParser.QValueResult>> groups = QValueParser.parse(acceptEncoding);
+        int gzipRank = getRank(groups, GZIP);
+        int deflateRank = getRank(groups, DEFLATE);
+        if ((gzipRank < 0) && (deflateRank < 0)) {
+            return null;
+        }
+
+        if (deflateRank < 0) {
+            return GZIP;
+        }
+
+        return ((gzipRank >= 0) && (gzipRank <= deflateRank)) ? GZIP : DEFLATE;
+    }
+
+    /** Determines if the client accepts gzip. */
+    public static boolean acceptsGzip(HeaderValues acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        List<List<QValueParser.QValueResult>> groups = QValueParser.parse(acceptEncoding);
+        return getRank(groups, GZIP) >= 0;
+    }
+
+    /**
+     * Compresses the contents of the buffers into pooled buffers, using the negotiated encoding.
+     * The input buffers are not modified.
+     */
+    public static PooledBufferOutputStream compress(
+            ByteBuffer[] input, String encoding, int level, ByteBufferPool pool) {
+        boolean isGzip = encoding.equals(GZIP);
+        Deflater deflater = borrowDeflater(isGzip, level);
+        CRC32 crc = isGzip ? new CRC32() : null;
+        PooledBufferOutputStream output = PooledBufferOutputStream.create(pool);
+        try {
+            if (isGzip) {
+                output.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            }
+
+            for (ByteBuffer buffer : input) {
+                if (isGzip) {
+                    crc.update(buffer.duplicate());
+                }
+
+                deflater.setInput(buffer.duplicate());
+                while (!deflater.needsInput()) {
+                    output.write(deflater);
+                }
+            }
+
+            deflater.finish();
+            while (!deflater.finished()) {
+                output.write(deflater);
+            }
+
+            if (isGzip) {
+                writeGzipTrailer(output, crc.getValue(), deflater.getBytesRead());
+            }
+
+            return output;
+        } catch (RuntimeException e) {
+            output.release();
+            throw e;
+        } finally {
+            releaseDeflater(isGzip, deflater);
+        }
+    }
+
+    /** Borrows the pooled deflater of the current I/O thread, or creates a new deflater. */
+    private static Deflater borrowDeflater(boolean isGzip, int level) {
+        ThreadLocal<Deflater> pooledDeflater = getPooledDeflater(isGzip);
+        Deflater deflater = (pooledDeflater != null) ? pooledDeflater.get() : null;
+        if (deflater == null) {
+            return new Deflater(level, isGzip);
+        }
+
+        pooledDeflater.remove();
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    /** Resets a deflater and returns it to the pool of the current I/O thread, or frees its native memory. */
+    private static void releaseDeflater(boolean isGzip, Deflater deflater) {
+        ThreadLocal<Deflater> pooledDeflater = getPooledDeflater(isGzip);
+        if ((pooledDeflater == null) || (pooledDeflater.get() != null)) {
+            deflater.end();
+            return;
+        }
+
+        deflater.reset();
+        pooledDeflater.set(deflater);
+    }
+
+    /** Gets the pool of deflaters for a format, or returns null if the current thread is not an I/O thread. */
+    private static ThreadLocal<Deflater> getPooledDeflater(boolean isGzip) {
+        if (!(Thread.currentThread() instanceof XnioIoThread)) {
+            return null;
+        }
+
+        return isGzip ? pooledGzipDeflater : pooledZlibDeflater;
+    }
+
+    /**
+     * Gets the rank of an encoding, where a lower rank is preferred, or returns -1 if it is not accepted.
+     * An encoding that is not listed is ranked by the {@code *} wildcard, if present.
+     */
+    private static int getRank(List<List<QValueParser.QValueResult>> groups, String encoding) {
+        int wildcardRank = -1;
+        for (int rank = 0; rank < groups.size(); ++rank) {
+            for (QValueParser.QValueResult result : groups.get(rank)) {
+                String value = result.getValue();
+                if (value.equalsIgnoreCase(encoding)) {
+                    return result.isQValueZero() ? -1 : rank;
+                }
+
+                if (value.equals("*") && !result.isQValueZero() && (wildcardRank < 0)) {
+                    wildcardRank = rank;
+                }
+            }
+        }
+        return wildcardRank;
+    }
+
+    /** Writes the gzip trailer: the CRC-32 and the size of the uncompressed data, both little-endian. */
+    private static void writeGzipTrailer(PooledBufferOutputStream output, long crc, long size) {
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; ++i) {
+            trailer[i] = (byte) (crc >>> (8 * i));
+            trailer[4 + i] = (byte) (size >>> (8 * i));
+        }
+        output.write(trailer, 0, trailer.length);
+    }
+
+    // static class
+    private ResponseCompressor() {}
+}
@@ -0,0 +1,293 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Internal, immutable route table that is compiled from a list of HTTP handlers.
+ * <p>
+ * The routes are stored in a compressed radix tree. A path segment of a route can be a path parameter,
+ * such as {@code {id}}; a path parameter matches one non-empty path segment.
+ * When a route has both a static path segment and a path parameter at the same position,
+ * the static path segment has priority.
+ * <p>
+ * Matching walks the raw relative path in place; it does not split the path or create substrings,
+ * and it does not allocate for a hit or a miss. The offsets of path parameters are captured while matching.
+ * Path segments follow the same rules that the handler builder uses to split a relative path:
+ * a single leading {@code '/'} and any trailing {@code '/'}'s are ignored.
+ */
+final class RouteTable<E> {
+
+    private static final int[] EMPTY_PARAM_OFFSETS = new int[0];
+
+    private final CompiledNode<E> root;
+    private final ThreadLocal<int[]> paramOffsetsBuffer; // null if no route has path parameters
+
+    /** Compiles a route table from a list of HTTP handlers. */
+    public static <E> RouteTable<E> compile(List<? extends JsonApiHandler<E>> httpHandlers) {
+        Node<E> root = new Node<>("");
+        int maxParamCount = 0;
+        for (JsonApiHandler<E> httpHandler : httpHandlers) {
+            int paramCount = root.addRoute(httpHandler);
+            maxParamCount = Math.max(paramCount, maxParamCount);
+        }
+        return new RouteTable<>(root.compile(), maxParamCount);
+    }
+
+    /** Parses the HTTP method, or returns null if the HTTP method is not supported. */
+    public static HttpMethod parseMethod(String rawMethod) {
+        return switch (rawMethod) {
+            case "GET" -> HttpMethod.GET;
+            case "PUT" -> HttpMethod.PUT;
+            case "POST" -> HttpMethod.POST;
+            case "DELETE" -> HttpMethod.DELETE;
+            case "PATCH" -> HttpMethod.PATCH;
+            case "HEAD" -> HttpMethod.HEAD;
+            default -> null;
+        };
+    }
+
+    /**
+     * Gets a per-thread buffer for the offsets of path parameters,
+     * which is overwritten each time that a path is matched on the current thread.
+     */
+    public int[] getParamOffsetsBuffer() {
+        return (paramOffsetsBuffer != null) ? paramOffsetsBuffer.get() : EMPTY_PARAM_OFFSETS;
+    }
+
+    /**
+     * Matches the relative path to a node, or returns null if no node matches.
+     * The offsets of path parameters are stored in the buffer.
+     */
+    public CompiledNode<E> match(String relativePath, int[] paramOffsets) {
+        int start = (!relativePath.isEmpty() && (relativePath.charAt(0) == '/')) ? 1 : 0;
+        int end = relativePath.length();
+        while ((end > start) && (relativePath.charAt(end - 1) == '/')) {
+            --end;
+        }
+
+        return root.match(relativePath, start, end, paramOffsets, 0);
+    }
+
+    private RouteTable(CompiledNode<E> root, int maxParamCount) {
+        this.root = root;
+        paramOffsetsBuffer = (maxParamCount > 0) ? ThreadLocal.withInitial(() -> new int[2 * maxParamCount]) : null;
+    }
+
+    /** Route for an HTTP handler, including the names of its path parameters. */
+    public record Route<E>(JsonApiHandler<E> httpHandler, String[] paramNames) {
+
+        /** Determines if this route has path parameters. */
+        public boolean hasParams() {
+            return paramNames.length > 0;
+        }
+    }
+
+    /** Immutable radix tree node whose routes are indexed by HTTP method. */
+    public static final class CompiledNode<E> {
+
+        private final String prefix;
+        private final Route<E>[] routes;
+        private final boolean hasRoutes;
+        private final char[] staticChildKeys;
+        private final CompiledNode<E>[] staticChildren;
+        private final CompiledNode<E> paramChild;
+
+        /** Gets the route for an HTTP method, or returns null. */
+        public Route<E> getRoute(HttpMethod method) {
+            return routes[method.ordinal()];
+        }
+
+        /** Matches the remainder of the path, trying static children before the path parameter child. */
+        private CompiledNode<E> match(String path, int pos, int end, int[] paramOffsets, int paramIndex) {
+            int prefixLength = prefix.length();
+            if ((end - pos < prefixLength) || !path.regionMatches(pos, prefix, 0, prefixLength)) {
+                return null;
+            }
+
+            pos += prefixLength;
+            if (pos == end) {
+                return hasRoutes ? this : null;
+            }
+
+            int childIndex = Arrays.binarySearch(staticChildKeys, path.charAt(pos));
+            if (childIndex >= 0) {
+                CompiledNode<E> node = staticChildren[childIndex].match(path, pos, end, paramOffsets, paramIndex);
+                if (node != null) {
+                    return node;
+                }
+            }
+
+            if (paramChild == null) {
+                return null;
+            }
+
+            int paramEnd = path.indexOf('/', pos);
+            if ((paramEnd < 0) || (paramEnd > end)) {
+                paramEnd = end;
+            }
+
+            if (paramEnd == pos) {
+                return null;
+            }
+
+            paramOffsets[2 * paramIndex] = pos;
+            paramOffsets[2 * paramIndex + 1] = paramEnd;
+            return paramChild.match(path, paramEnd, end, paramOffsets, paramIndex + 1);
+        }
+
+        private CompiledNode(
+                String prefix,
+                Route<E>[] routes,
+                char[] staticChildKeys,
+                CompiledNode<E>[] staticChildren,
+                CompiledNode<E> paramChild) {
+            this.prefix = prefix;
+            this.routes = routes;
+            this.hasRoutes = Arrays.stream(routes).anyMatch(Objects::nonNull);
+            this.staticChildKeys = staticChildKeys;
+            this.staticChildren = staticChildren;
+            this.paramChild = paramChild;
+        }
+    }
+
+    /** Mutable radix tree node that is used to build the route table. */
+    private static final class Node<E> {
+
+        private String prefix;
+        private final Map<HttpMethod, Route<E>> routes = new EnumMap<>(HttpMethod.class);
+        private final List<Node<E>> staticChildren = new ArrayList<>();
+        private Node<E> paramChild = null;
+
+        /** Adds a route to this root node, returning the number of path parameters. */
+        public int addRoute(JsonApiHandler<E> httpHandler) {
+            List<String> paramNames = new ArrayList<>();
+            StringBuilder staticPath = new StringBuilder();
+            Node<E> node = this;
+            List<String> pathSegments = httpHandler.getRelativePathSegments();
+            for (int i = 0; i < pathSegments.size(); ++i) {
+                if (i > 0) {
+                    staticPath.append('/');
+                }
+
+                String pathSegment = pathSegments.get(i);
+                String paramName = tryGetParamName(pathSegment);
+                if (paramName == null) {
+                    staticPath.append(pathSegment);
+                    continue;
+                }
+
+                node = node.getOrCreateStaticDescendant(staticPath.toString());
+                staticPath.setLength(0);
+                node = node.getOrCreateParamChild();
+                paramNames.add(paramName);
+            }
+            node = node.getOrCreateStaticDescendant(staticPath.toString());
+
+            Set<String> uniqueParamNames = new HashSet<>(paramNames);
+            if (uniqueParamNames.size() != paramNames.size()) {
+                throw new IllegalArgumentException("multiple path parameters have the same name");
+            }
+
+            Route<E> route = new Route<>(httpHandler, paramNames.toArray(new String[0]));
+            if (node.routes.putIfAbsent(httpHandler.getMethod(), route) != null) {
+                throw new IllegalArgumentException("multiple HTTP handlers have the same route");
+            }
+
+            return paramNames.size();
+        }
+
+        /** Compiles this node and its children. */
+        @SuppressWarnings("unchecked")
+        public CompiledNode<E> compile() {
+            Route<E>[] compiledRoutes = (Route<E>[]) new Route<?>[HttpMethod.values().length];
+            routes.forEach((method, route) -> compiledRoutes[method.ordinal()] = route);
+
+            staticChildren.sort(
+                    (child1, child2) -> Character.compare(child1.prefix.charAt(0), child2.prefix.charAt(0)));
+            char[] staticChildKeys = new char[staticChildren.size()];
+            CompiledNode<E>[] compiledStaticChildren = (CompiledNode<E>[]) new CompiledNode<?>[staticChildren.size()];
+            for (int i = 0; i < staticChildren.size(); ++i) {
+                Node<E> staticChild = staticChildren.get(i);
+                staticChildKeys[i] = staticChild.prefix.charAt(0);
+                compiledStaticChildren[i] = staticChild.compile();
+            }
+
+            CompiledNode<E> compiledParamChild = (paramChild != null) ? paramChild.compile() : null;
+            return new CompiledNode<>(
+                    prefix, compiledRoutes, staticChildKeys, compiledStaticChildren, compiledParamChild);
+        }
+
+        /** Gets the name of the path parameter, or returns null if the path segment is static. */
+        private static String tryGetParamName(String pathSegment) {
+            if (!pathSegment.startsWith("{") || !pathSegment.endsWith("}")) {
+                return null;
+            }
+
+            String paramName = pathSegment.substring(1, pathSegment.length() - 1);
+            if (paramName.isEmpty() || paramName.contains("{") || paramName.contains("}")) {
+                throw new IllegalArgumentException(String.format("invalid path parameter: %s", pathSegment));
+            }
+
+            return paramName;
+        }
+
+        /** Gets or creates the descendant node for a static path, splitting nodes if needed. */
+        private Node<E> getOrCreateStaticDescendant(String path) {
+            if (path.isEmpty()) {
+                return this;
+            }
+
+            for (int i = 0; i < staticChildren.size(); ++i) {
+                Node<E> child = staticChildren.get(i);
+                int commonLength = getCommonPrefixLength(child.prefix, path);
+                if (commonLength == 0) {
+                    continue;
+                }
+
+                if (commonLength < child.prefix.length()) {
+                    Node<E> splitChild = new Node<>(child.prefix.substring(0, commonLength));
+                    child.prefix = child.prefix.substring(commonLength);
+                    splitChild.staticChildren.add(child);
+                    staticChildren.set(i, splitChild);
+                    child = splitChild;
+                }
+
+                return child.getOrCreateStaticDescendant(path.substring(commonLength));
+            }
+
+            Node<E> child = new Node<>(path);
+            staticChildren.add(child);
+            return child;
+        }
+
+        /** Gets or creates the child node for a path parameter. */
+        private Node<E> getOrCreateParamChild() {
+            if (paramChild == null) {
+                paramChild = new Node<>("");
+            }
+
+            return paramChild;
+        }
+
+        /** Gets the length of the common prefix. */
+        private static int getCommonPrefixLength(String s1, String s2) {
+            int maxLength = Math.min(s1.length(), s2.length());
+            int length = 0;
+            while ((length < maxLength) && (s1.charAt(length) == s2.charAt(length))) {
+                ++length;
+            }
+            return length;
+        }
+
+        private Node(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+}
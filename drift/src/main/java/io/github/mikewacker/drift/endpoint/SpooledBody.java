@@ -0,0 +1,113 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * HTTP request body that has been read in full, either into memory or into a temporary file.
+ * <p>
+ * A small body is kept in memory, while a large body is spooled to a temporary file as it is read,
+ * so that it is never held on the heap. The temporary file is deleted when the body is closed;
+ * if the body is not closed earlier, it is closed when the HTTP exchange completes.
+ */
+public final class SpooledBody implements Closeable {
+
+    private final byte[] bytes; // null if spooled to a file
+    private final Path file; // null if in memory
+    private final long size;
+    private volatile boolean closed = false;
+
+    /**
+     * Gets the size of the body, in bytes.
+     *
+     * @return the size of the body
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Determines if the body is held in memory, instead of a temporary file.
+     *
+     * @return whether the body is held in memory
+     */
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * Opens a stream that reads the body from the start.
+     *
+     * @return a stream of the body
+     * @throws IOException if the body is closed, or if the temporary file cannot be opened
+     */
+    public InputStream openStream() throws IOException {
+        checkNotClosed();
+        return isInMemory() ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+    }
+
+    /**
+     * Gets a read-only view of the body. If the body is spooled to a temporary file, the file is memory-mapped.
+     *
+     * @return a read-only buffer that contains the body
+     * @throws IOException if the body is closed, or if the temporary file cannot be mapped
+     */
+    public ByteBuffer map() throws IOException {
+        checkNotClosed();
+        if (isInMemory()) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Closes the body, deleting the temporary file if the body was spooled to a file.
+     * A buffer that was mapped from the file remains readable.
+     *
+     * @throws IOException if the temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        if (!isInMemory()) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Creates a body that is held in memory. */
+    static SpooledBody inMemory(byte[] bytes) {
+        return new SpooledBody(bytes, null, bytes.length);
+    }
+
+    /** Creates a body that is spooled to a temporary file. */
+    static SpooledBody spooled(Path file, long size) {
+        return new SpooledBody(null, file, size);
+    }
+
+    /** Checks that the body has not been closed. */
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("body is closed");
+        }
+    }
+
+    private SpooledBody(byte[] bytes, Path file, long size) {
+        this.bytes = bytes;
+        this.file = file;
+        this.size = size;
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.github.mikewacker.drift.json.JsonStreamingSerializer;
+import java.io.OutputStream;
+
+/** Wire format of a streamed response. */
+enum StreamFormat {
+    /** Items are the elements of a single JSON array. */
+    JSON_ARRAY("application/json"),
+    /** Each item is on its own line, as newline-delimited JSON. */
+    JSON_LINES("application/x-ndjson");
+
+    private final String contentType;
+
+    /** Gets the {@code Content-Type} of the response. */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /** Creates a serializer that writes the items in this format to a stream. */
+    public <I> JsonStreamingSerializer<I> createSerializer(OutputStream stream) {
+        return switch (this) {
+            case JSON_ARRAY -> JsonStreamingSerializer.jsonArray(stream);
+            case JSON_LINES -> JsonStreamingSerializer.jsonLines(stream);
+        };
+    }
+
+    StreamFormat(String contentType) {
+        this.contentType = contentType;
+    }
+}
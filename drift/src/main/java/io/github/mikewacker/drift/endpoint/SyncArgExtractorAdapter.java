@@ -0,0 +1,18 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.github.mikewacker.drift.api.HttpOptional;
+
+/**
+ * Internal adapter that gives a synchronous {@code ArgExtractor} the asynchronous interface.
+ * <p>
+ * The handler pipeline recognizes this adapter, so it can run the synchronous extractor inline
+ * instead of creating a callback for it.
+ */
+record SyncArgExtractorAdapter<E, A>(ArgExtractor<E, A> delegate) implements ArgExtractor.Async<E, A> {
+
+    @Override
+    public void tryExtract(E exchange, ArgExtractor.Callback<A> callback) throws Exception {
+        HttpOptional<A> maybeArg = delegate.tryExtract(exchange);
+        callback.onArgExtracted(maybeArg);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.mikewacker.drift.endpoint;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Parser that gets a typed value directly from text, such as the value of a query parameter or a header.
+ * <p>
+ * Unlike deserializing the text from JSON, a parser does not create intermediate JSON bytes,
+ * and it does not use an {@code ObjectMapper}.
+ *
+ * @param <V> the type of the value
+ */
+@FunctionalInterface
+public interface TextParser<V> {
+
+    /**
+     * Returns a parser for a decimal {@code int}.
+     *
+     * @return a parser for an {@code int}
+     */
+    static TextParser<Integer> ofInt() {
+        return Integer::valueOf;
+    }
+
+    /**
+     * Returns a parser for a decimal {@code long}.
+     *
+     * @return a parser for a {@code long}
+     */
+    static TextParser<Long> ofLong() {
+        return Long::valueOf;
+    }
+
+    /**
+     * Returns a parser for a {@code boolean}, which must be {@code true} or {@code false}.
+     *
+     * @return a parser for a {@code boolean}
+     */
+    static TextParser<Boolean> ofBoolean() {
+        return text -> switch (text) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException(String.format("invalid boolean: %s", text));
+        };
+    }
+
+    /**
+     * Returns a parser for a {@link UUID} in its standard string representation.
+     *
+     * @return a parser for a {@code UUID}
+     */
+    static TextParser<UUID> ofUuid() {
+        return UUID::fromString;
+    }
+
+    /**
+     * Returns a parser for an enum constant, which must match the name of the constant exactly.
+     *
+     * @param enumClass the class of the enum
+     * @return a parser for the enum
+     * @param <E> the type of the enum
+     */
+    static <E extends Enum<E>> TextParser<E> ofEnum(Class<E> enumClass) {
+        return text -> Enum.valueOf(enumClass, text);
+    }
+
+    /**
+     * Returns a parser for an {@link Instant} in ISO-8601 format, such as {@code 2024-01-01T00:00:00Z}.
+     *
+     * @return a parser for an {@code Instant}
+     */
+    static TextParser<Instant> ofInstant() {
+        return text -> {
+            try {
+                return Instant.parse(text);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(e);
+            }
+        };
+    }
+
+    /**
+     * Parses a value from text.
+     *
+     * @param text the text
+     * @return the value, which is not null
+     * @throws IllegalArgumentException if the text is invalid
+     */
+    V parse(String text);
+}
@@ -1,27 +1,285 @@
 package io.github.mikewacker.drift.endpoint;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.HttpOptional;
+import io.github.mikewacker.drift.api.ScheduledExecutor;
+import io.github.mikewacker.drift.json.JsonFieldIndex;
+import io.github.mikewacker.drift.json.JsonLinesDeserializer;
+import io.github.mikewacker.drift.json.JsonStreamingDeserializer;
 import io.github.mikewacker.drift.json.JsonValues;
 import io.undertow.io.Receiver;
+import io.undertow.server.Connectors;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.server.RequestTooBigException;
+import io.undertow.util.AttachmentKey;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.SameThreadExecutor;
 import io.undertow.util.StatusCodes;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.ZipException;
 
-/** Repository of extractors for Undertow that get arguments for the API request from the underlying HTTP request. */
+/**
+ * Repository of extractors for Undertow that get arguments for the API request from the underlying HTTP request.
+ * <p>
+ * The extractors for the HTTP request body transparently decompress a body with a {@code Content-Encoding}
+ * of {@code gzip} or {@code deflate} as it is read, and the maximum size of the route applies to the decompressed body.
+ * A 400 error occurs if the compressed body is malformed, a 413 error occurs if the body decompresses by more than
+ * the maximum compression ratio of the route (100 by default), and a 415 error occurs for any other encoding.
+ */
 public final class UndertowArgs {
 
+    private static final long DEFAULT_IN_MEMORY_THRESHOLD = 64 * 1024;
+    private static final long DEFAULT_MAX_COMPRESSION_RATIO = 100;
+    private static final int MAX_POOLED_ARGS_PER_THREAD = 64;
+    private static final long DEFAULT_PAUSED_READ_RESERVATION = 64 * 1024;
+
+    private static final AttachmentKey<SharedBodyFields> BODY_FIELDS = AttachmentKey.create(SharedBodyFields.class);
+
     /**
      * Returns an extractor that gets an argument for the API request from the HTTP request body.
-     * A 400 error occurs if the argument cannot be deserialized from JSON.
+     * A 400 error occurs if the argument cannot be deserialized from JSON,
+     * and a 413 error occurs if the body exceeds the maximum size of the route.
+     * A 408 error occurs if the body is read too slowly for the limits of the route.
+     * <p>
+     * If a {@link RequestBodyBudget} is installed, the buffered body is charged against that budget
+     * until it has been deserialized; a 503 error occurs if the budget is exhausted and rejects reads.
      *
      * @param argTypeRef a {@link TypeReference} for the argument
      * @return an argument extractor for the HTTP request body
      * @param <A> the type of the argument
      */
     public static <A> ArgExtractor.Async<HttpServerExchange, A> body(TypeReference<A> argTypeRef) {
-        return new BodyExtractor<>(argTypeRef);
+        return new BodyExtractor<>(new BodyDeserializer<>(jsonParser(argTypeRef), -1, null));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from the HTTP request body,
+     * deserializing a large body on the worker pool instead of the I/O thread.
+     * <p>
+     * If the body is at least as large as the threshold, the body is deserialized on the worker pool,
+     * and the rest of the arguments and the API request are also handled on the worker pool.
+     * A smaller body is deserialized on the I/O thread, avoiding a context switch.
+     * Otherwise, this extractor is the same as {@link #body(TypeReference)}.
+     *
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @param offloadThreshold the minimum size of the body, in bytes, that is deserialized on the worker pool
+     * @return an argument extractor for the HTTP request body
+     * @param <A> the type of the argument
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> body(
+            TypeReference<A> argTypeRef, long offloadThreshold) {
+        checkOffloadThreshold(offloadThreshold);
+        return new BodyExtractor<>(new BodyDeserializer<>(jsonParser(argTypeRef), offloadThreshold, null));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from the HTTP request body,
+     * deserializing a large body on the provided executor instead of the I/O thread.
+     * <p>
+     * This extractor is the same as {@link #body(TypeReference, long)}, except that it uses the provided executor
+     * instead of the worker pool.
+     *
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @param offloadThreshold the minimum size of the body, in bytes, that is deserialized on the executor
+     * @param offloadExecutor the executor that deserializes a large body
+     * @return an argument extractor for the HTTP request body
+     * @param <A> the type of the argument
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> body(
+            TypeReference<A> argTypeRef, long offloadThreshold, Executor offloadExecutor) {
+        checkOffloadThreshold(offloadThreshold);
+        return new BodyExtractor<>(new BodyDeserializer<>(jsonParser(argTypeRef), offloadThreshold, offloadExecutor));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from the HTTP request body,
+     * deserializing the body into a mutable object that is borrowed from a pool.
+     * <p>
+     * Each I/O thread has its own pool, so borrowing and returning an object does not contend with other threads.
+     * The body is deserialized by updating the borrowed object in place, instead of allocating a new object.
+     * The object is reset and returned to the pool when the HTTP exchange completes,
+     * so the handler must not retain the object, or anything that the object references, after it responds.
+     * <p>
+     * The reset function must clear every property of the object, since properties that are missing from the JSON
+     * are not overwritten. If an object is borrowed when the pool is empty, or outside of an I/O thread,
+     * a new object is created. Otherwise, this extractor is the same as {@link #body(TypeReference)}.
+     *
+     * @param argFactory a factory that creates a new, empty object
+     * @param argReset a function that resets an object to its empty state
+     * @return an argument extractor for the HTTP request body
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> pooledBody(
+            Supplier<A> argFactory, Consumer<? super A> argReset) {
+        return new PooledBodyExtractor<>(new IoThreadPool<>(argFactory, argReset));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from a top-level field of the JSON object
+     * in the HTTP request body.
+     * <p>
+     * All the body field extractors for an HTTP request share a single read and a single parse of the body,
+     * so a handler can receive several fields as separate arguments without a wrapper type.
+     * The body is tokenized once, and only the fields that are extracted are bound;
+     * the values of the other fields are skipped.
+     * A 400 error occurs if the body is not a JSON object, if the field is missing,
+     * or if the argument cannot be deserialized from JSON.
+     * The body is read the same way as {@link #body(TypeReference)}, with the same limits and errors.
+     *
+     * @param name the name of the top-level field
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @return an argument extractor for the field of the HTTP request body
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> bodyField(String name, TypeReference<A> argTypeRef) {
+        return new BodyFieldExtractor<>(index -> index.tryDeserializeField(name, argTypeRef, StatusCodes.BAD_REQUEST));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from a nested value of the JSON object
+     * in the HTTP request body, using a JSON pointer such as {@code /user/address/city}.
+     * <p>
+     * This extractor shares the single read and parse of the body with the body field extractors.
+     * Only the top-level field that contains the value is parsed again, and the values that are not on the path
+     * to the nested value are skipped, so only the nested value is bound.
+     * A 400 error occurs if the body is not a JSON object, if the value is missing,
+     * or if the argument cannot be deserialized from JSON.
+     * Otherwise, this extractor is the same as {@link #bodyField(String, TypeReference)}.
+     *
+     * @param pointer a JSON pointer to the value
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @return an argument extractor for the nested value of the HTTP request body
+     * @param <A> the type of the argument
+     * @throws IllegalArgumentException if the JSON pointer is malformed
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> bodyPointer(
+            String pointer, TypeReference<A> argTypeRef) {
+        JsonPointer jsonPointer = JsonPointer.compile(pointer);
+        return new BodyFieldExtractor<>(
+                index -> index.tryDeserializeAt(jsonPointer, argTypeRef, StatusCodes.BAD_REQUEST));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from the HTTP request body,
+     * deserializing the JSON incrementally as each chunk of the body is read.
+     * Unlike {@link #body(TypeReference)}, the body is never buffered into a single array,
+     * and parsing overlaps with reading the body.
+     * A 400 error occurs as soon as the JSON is malformed, or if the argument cannot be deserialized from JSON,
+     * and a 413 error occurs as soon as the body exceeds the maximum size of the route.
+     * A 408 error occurs if the body is read too slowly for the limits of the route.
+     *
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @return an argument extractor for the HTTP request body
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor.Async<HttpServerExchange, A> streamingBody(TypeReference<A> argTypeRef) {
+        return new StreamingBodyExtractor<>(argTypeRef);
+    }
+
+    /**
+     * Returns an extractor that reads a newline-delimited JSON body, passing each item to a sink as soon as it is parsed.
+     * The argument for the API request is produced by the sink once the body ends.
+     * <p>
+     * The body is never buffered; only the current partial line is held in memory,
+     * so memory use does not grow with the number of items, and the sink can start its work
+     * while the rest of the body is still being read. Blank lines are ignored.
+     * A 400 error occurs as soon as a line is not a single JSON value that can be deserialized as an item,
+     * and a 500 error occurs if the sink throws.
+     * A 413 error occurs as soon as the body exceeds the maximum size of the route,
+     * and a 408 error occurs if the body is read too slowly for the limits of the route.
+     *
+     * @param itemTypeRef a {@link TypeReference} for each item
+     * @param sinkFactory a factory that creates a sink for each HTTP request
+     * @return an argument extractor for the HTTP request body
+     * @param <I> the type of each item
+     * @param <A> the type of the argument
+     */
+    public static <I, A> ArgExtractor.Async<HttpServerExchange, A> ndjsonBody(
+            TypeReference<I> itemTypeRef, Supplier<? extends ItemSink<I, A>> sinkFactory) {
+        return new NdjsonBodyExtractor<>(itemTypeRef, sinkFactory);
+    }
+
+    /**
+     * Returns an extractor that reads a newline-delimited JSON body, passing the items to a sink in bounded chunks.
+     * <p>
+     * Each chunk is a new list that contains up to the maximum number of items; only the last chunk may be smaller,
+     * and no chunk is empty. Otherwise, this extractor is the same as {@link #ndjsonBody(TypeReference, Supplier)}.
+     *
+     * @param itemTypeRef a {@link TypeReference} for each item
+     * @param maxChunkSize the maximum number of items in a chunk
+     * @param sinkFactory a factory that creates a sink for the chunks of each HTTP request
+     * @return an argument extractor for the HTTP request body
+     * @param <I> the type of each item
+     * @param <A> the type of the argument
+     * @throws IllegalArgumentException if the maximum chunk size is not positive
+     */
+    public static <I, A> ArgExtractor.Async<HttpServerExchange, A> ndjsonBody(
+            TypeReference<I> itemTypeRef, int maxChunkSize, Supplier<? extends ItemSink<List<I>, A>> sinkFactory) {
+        if (maxChunkSize <= 0) {
+            throw new IllegalArgumentException("maximum chunk size must be positive");
+        }
+
+        return new NdjsonBodyExtractor<>(itemTypeRef, () -> new ChunkingItemSink<>(maxChunkSize, sinkFactory.get()));
+    }
+
+    /**
+     * Returns an extractor that gets the raw HTTP request body, spooling a large body to a temporary file.
+     * A body of up to 64 KiB is kept in memory.
+     * <p>
+     * This extractor is the same as {@link #spooledBody(long)}, except that it uses a default threshold.
+     *
+     * @return an argument extractor for the HTTP request body
+     */
+    public static ArgExtractor.Async<HttpServerExchange, SpooledBody> spooledBody() {
+        return spooledBody(DEFAULT_IN_MEMORY_THRESHOLD);
+    }
+
+    /**
+     * Returns an extractor that gets the raw HTTP request body, spooling a large body to a temporary file.
+     * <p>
+     * The body is kept in memory until it exceeds the threshold. After that, the bytes read so far
+     * and each chunk that arrives are written to a temporary file using a {@link FileChannel},
+     * so that a large body is never held on the heap. The file is written on the worker pool,
+     * so these blocking writes never stall the I/O thread. The handler is responsible for closing the body,
+     * which deletes the temporary file; if it does not, the body is closed when the HTTP exchange completes.
+     * <p>
+     * A 413 error occurs if the body exceeds the maximum size of the route,
+     * a 408 error occurs if the body is read too slowly for the limits of the route,
+     * and a 500 error occurs if the temporary file cannot be written.
+     *
+     * @param inMemoryThreshold the maximum size of a body, in bytes, that is kept in memory
+     * @return an argument extractor for the HTTP request body
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public static ArgExtractor.Async<HttpServerExchange, SpooledBody> spooledBody(long inMemoryThreshold) {
+        if (inMemoryThreshold < 0) {
+            throw new IllegalArgumentException("in-memory threshold must not be negative");
+        }
+
+        return new SpooledBodyExtractor(inMemoryThreshold);
     }
 
     /**
@@ -49,68 +307,1554 @@ public final class UndertowArgs {
         return new QueryParamJsonExtractor<>(name, argTypeRef);
     }
 
+    /**
+     * Returns an extractor that gets an argument for the API request from an HTTP query parameter,
+     * parsing the text of the value directly.
+     * A 400 error occurs if the query parameter has zero values or multiple values,
+     * or if the value cannot be parsed.
+     *
+     * @param name the name of the HTTP query parameter
+     * @param parser the parser for the value, such as {@link TextParser#ofInt()}
+     * @return an argument extractor for the HTTP query parameter
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, A> queryParam(String name, TextParser<A> parser) {
+        return new QueryParamParsedExtractor<>(name, parser);
+    }
+
+    /**
+     * Returns an extractor that gets a list argument for the API request from all the values of an HTTP query parameter,
+     * parsing the text of each value directly. The list is empty if the query parameter has zero values.
+     * A 400 error occurs if a value cannot be parsed.
+     *
+     * @param name the name of the HTTP query parameter
+     * @param parser the parser for each value, such as {@link TextParser#ofLong()}
+     * @return an argument extractor for the HTTP query parameter
+     * @param <A> the type of each element of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, List<A>> queryParamList(String name, TextParser<A> parser) {
+        return new QueryParamListExtractor<>(name, parser);
+    }
+
+    /**
+     * Returns an extractor that gets a text argument for the API request from an HTTP header.
+     * A 400 error occurs if the header has zero values or multiple values.
+     *
+     * @param name the name of the HTTP header
+     * @return an argument extractor for the HTTP header
+     */
+    public static ArgExtractor<HttpServerExchange, String> header(String name) {
+        return new HeaderTextExtractor(new HttpString(name));
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from an HTTP header,
+     * parsing the text of the value directly.
+     * A 400 error occurs if the header has zero values or multiple values, or if the value cannot be parsed.
+     *
+     * @param name the name of the HTTP header
+     * @param parser the parser for the value, such as {@link TextParser#ofUuid()}
+     * @return an argument extractor for the HTTP header
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, A> header(String name, TextParser<A> parser) {
+        return new HeaderParsedExtractor<>(new HttpString(name), parser);
+    }
+
+    /**
+     * Returns an extractor that gets a list argument for the API request from all the values of an HTTP header,
+     * parsing the text of each value directly. The list is empty if the header has zero values.
+     * <p>
+     * Each header line may contain multiple comma-separated values, and whitespace around each value is ignored.
+     * A 400 error occurs if a value cannot be parsed.
+     *
+     * @param name the name of the HTTP header
+     * @param parser the parser for each value
+     * @return an argument extractor for the HTTP header
+     * @param <A> the type of each element of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, List<A>> headerList(String name, TextParser<A> parser) {
+        return new HeaderListExtractor<>(new HttpString(name), parser);
+    }
+
+    /**
+     * Returns an extractor that gets a text argument for the API request from a path parameter of the route,
+     * such as {@code id} for the route {@code /users/{id}}.
+     * The value is read from the offsets that the router captured when it matched the route.
+     * A 500 error occurs if the matched route does not have the path parameter.
+     *
+     * @param name the name of the path parameter
+     * @return an argument extractor for the path parameter
+     */
+    public static ArgExtractor<HttpServerExchange, String> pathParam(String name) {
+        return new PathParamTextExtractor(name);
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from a path parameter of the route,
+     * such as {@code id} for the route {@code /users/{id}}.
+     * The value is read from the offsets that the router captured when it matched the route.
+     * A 400 error occurs if the argument cannot be deserialized from JSON,
+     * and a 500 error occurs if the matched route does not have the path parameter.
+     *
+     * @param name the name of the path parameter
+     * @param argTypeRef a {@link TypeReference} for the argument
+     * @return an argument extractor for the path parameter
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, A> pathParam(String name, TypeReference<A> argTypeRef) {
+        return new PathParamJsonExtractor<>(name, argTypeRef);
+    }
+
+    /**
+     * Returns an extractor that gets an argument for the API request from a path parameter of the route,
+     * parsing the text of the value directly.
+     * A 400 error occurs if the value cannot be parsed,
+     * and a 500 error occurs if the matched route does not have the path parameter.
+     *
+     * @param name the name of the path parameter
+     * @param parser the parser for the value, such as {@link TextParser#ofLong()}
+     * @return an argument extractor for the path parameter
+     * @param <A> the type of the argument
+     */
+    public static <A> ArgExtractor<HttpServerExchange, A> pathParam(String name, TextParser<A> parser) {
+        return new PathParamParsedExtractor<>(name, parser);
+    }
+
     // static class
     private UndertowArgs() {}
 
+    /** Checks that the threshold for offloading deserialization is not negative. */
+    private static void checkOffloadThreshold(long offloadThreshold) {
+        if (offloadThreshold < 0) {
+            throw new IllegalArgumentException("offload threshold must not be negative");
+        }
+    }
+
+    /** Parses a text value, such as the value of a query parameter, directly. */
+    private static <A> HttpOptional<A> tryParseText(String textArg, TextParser<A> parser) {
+        try {
+            return HttpOptional.of(parser.parse(textArg));
+        } catch (IllegalArgumentException e) {
+            return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+        }
+    }
+
+    /** Parses each text value, such as each value of a query parameter, directly. */
+    private static <A> HttpOptional<List<A>> tryParseTextList(Iterable<String> textArgs, TextParser<A> parser) {
+        List<A> args = new ArrayList<>();
+        try {
+            for (String textArg : textArgs) {
+                args.add(parser.parse(textArg));
+            }
+        } catch (IllegalArgumentException e) {
+            return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+        }
+        return HttpOptional.of(args);
+    }
+
+    /** Creates a parser that deserializes the HTTP request body from JSON. */
+    private static <A> Function<byte[], HttpOptional<A>> jsonParser(TypeReference<A> argTypeRef) {
+        return rawArg -> JsonValues.tryDeserialize(rawArg, argTypeRef, StatusCodes.BAD_REQUEST);
+    }
+
+    /** Deserializes a text value, such as the value of a query parameter, from JSON. */
+    private static <A> HttpOptional<A> tryDeserializeText(String textArg, TypeReference<A> argTypeRef) {
+        byte[] rawArg = JsonValues.serialize(textArg);
+        return JsonValues.tryDeserialize(rawArg, argTypeRef, StatusCodes.BAD_REQUEST);
+    }
+
+    /** Gets the limits on the HTTP request body of the route. */
+    private static BodyLimits getBodyLimits(HttpServerExchange httpExchange) {
+        BodyLimits limits = httpExchange.getAttachment(UndertowJsonApiHandler.BODY_LIMITS);
+        return (limits != null) ? limits : BodyLimits.none();
+    }
+
+    /** Determines if the HTTP request body is too large. */
+    private static boolean isBodyTooLarge(long bodySize, long maxBodySize) {
+        return (maxBodySize >= 0) && (bodySize > maxBodySize);
+    }
+
+    /**
+     * Rejects an HTTP request whose {@code Content-Length} is too large, without reading the body.
+     * The connection is closed after the response is sent, since the body will not be read.
+     */
+    private static <A> void rejectDeclaredBodyTooLarge(
+            HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+        httpExchange.setPersistent(false);
+        callback.onArgExtracted(HttpOptional.empty(StatusCodes.REQUEST_ENTITY_TOO_LARGE));
+    }
+
+    /**
+     * Aborts reading an HTTP request body that exceeded the maximum size while it was being read.
+     * <p>
+     * The connection is closed after the response is sent. The request is also marked as terminated;
+     * otherwise, Undertow would read and discard the rest of the oversized body before it sends the response.
+     */
+    private static void abortBodyTooLarge(HttpServerExchange httpExchange) {
+        httpExchange.setPersistent(false);
+        Connectors.terminateRequest(httpExchange);
+    }
+
+    /**
+     * Rejects an HTTP request whose body is read too slowly.
+     * <p>
+     * The connection is closed after the response is sent. The request is also marked as terminated;
+     * otherwise, Undertow would wait for the slow client to send the rest of the body before it sends the response.
+     */
+    private static <A> void rejectSlowBody(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) {
+        httpExchange.setPersistent(false);
+        Connectors.terminateRequest(httpExchange);
+        onArgExtracted(callback, HttpOptional.empty(StatusCodes.REQUEST_TIME_OUT));
+    }
+
+    /** Determines if the HTTP request body is compressed, according to its {@code Content-Encoding}. */
+    private static boolean isBodyEncoded(HttpServerExchange httpExchange) {
+        String contentEncoding = httpExchange.getRequestHeaders().getFirst(Headers.CONTENT_ENCODING);
+        return (contentEncoding != null) && !contentEncoding.strip().equalsIgnoreCase("identity");
+    }
+
+    /**
+     * Starts reading the HTTP request body in chunks, decompressing the body if it is compressed.
+     * <p>
+     * The callbacks receive the decompressed chunks, so they count and limit the decompressed body.
+     * The compression ratio of the body is also limited, so that a small compressed body cannot inflate
+     * to an enormous size; an unsupported {@code Content-Encoding} is reported as an error.
+     * <p>
+     * The timer, if any, counts the bytes as they are received, before they are decompressed,
+     * so a compressed body gets no credit towards the minimum throughput for bytes that it did not send.
+     */
+    private static <C extends Receiver.PartialBytesCallback & Receiver.ErrorCallback> void receivePartialBody(
+            HttpServerExchange httpExchange, C bodyCallback, BodyLimits limits, BodyReadTimer timer) {
+        Receiver.PartialBytesCallback partialCallback = bodyCallback;
+        Receiver.ErrorCallback errorCallback = bodyCallback;
+        if (isBodyEncoded(httpExchange)) {
+            String contentEncoding = httpExchange.getRequestHeaders().getFirst(Headers.CONTENT_ENCODING);
+            RequestBodyInflater inflater = RequestBodyInflater.tryCreate(contentEncoding);
+            if (inflater == null) {
+                bodyCallback.error(httpExchange, new UnsupportedContentEncodingException(contentEncoding));
+                return;
+            }
+
+            InflatingBodyCallback inflatingCallback =
+                    new InflatingBodyCallback(inflater, bodyCallback, bodyCallback, limits);
+            httpExchange.addExchangeCompleteListener(inflatingCallback);
+            partialCallback = inflatingCallback;
+            errorCallback = inflatingCallback;
+        }
+
+        if (timer != null) {
+            partialCallback = countReceivedBytes(partialCallback, timer);
+        }
+
+        httpExchange.getRequestReceiver().receivePartialBytes(partialCallback, errorCallback);
+    }
+
+    /** Counts the bytes of each chunk as it is received, and then passes the chunk to another callback. */
+    private static Receiver.PartialBytesCallback countReceivedBytes(
+            Receiver.PartialBytesCallback bodyCallback, BodyReadTimer timer) {
+        return (httpExchange, chunk, last) -> {
+            timer.onBytesRead(chunk.length);
+            bodyCallback.handle(httpExchange, chunk, last);
+        };
+    }
+
+    /** Gets the error status code when the HTTP request body cannot be read. */
+    private static int getReadErrorCode(IOException e) {
+        if ((e instanceof RequestTooBigException) || (e instanceof Receiver.RequestToLargeException)) {
+            return StatusCodes.REQUEST_ENTITY_TOO_LARGE;
+        } else if (e instanceof ZipException) {
+            return StatusCodes.BAD_REQUEST;
+        } else if (e instanceof UnsupportedContentEncodingException) {
+            return StatusCodes.UNSUPPORTED_MEDIA_TYPE;
+        }
+
+        return StatusCodes.INTERNAL_SERVER_ERROR;
+    }
+
+    /** Invokes the callback from a receiver callback, which cannot throw checked exceptions. */
+    private static <A> void onArgExtracted(ArgExtractor.Callback<A> callback, HttpOptional<A> maybeArg) {
+        try {
+            callback.onArgExtracted(maybeArg);
+        } catch (Exception e) {
+            throw TunneledException.tunnel(e);
+        }
+    }
+
     /** Extractor that reads and deserializes the HTTP request body. */
-    private record BodyExtractor<A>(TypeReference<A> argTypeRef) implements ArgExtractor.Async<HttpServerExchange, A> {
+    private record BodyExtractor<A>(BodyDeserializer<A> deserializer)
+            implements ArgExtractor.Async<HttpServerExchange, A> {
 
         @Override
-        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) {
-            Receiver.FullBytesCallback bodyCallback = new BodyCallback<>(argTypeRef, callback);
-            httpExchange.getRequestReceiver().receiveFullBytes(bodyCallback);
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+            BodyLimits limits = getBodyLimits(httpExchange);
+            long contentLength = httpExchange.getRequestContentLength();
+            if (isBodyTooLarge(contentLength, limits.maxSize())) {
+                rejectDeclaredBodyTooLarge(httpExchange, callback);
+                return;
+            }
+
+            RequestBodyBudget budget = RequestBodyBudget.tryGetGlobal();
+            if ((budget == null)
+                    && !limits.isTimed()
+                    && ((limits.maxSize() < 0) || (contentLength >= 0))
+                    && !isBodyEncoded(httpExchange)) {
+                BodyCallback<A> bodyCallback = new BodyCallback<>(deserializer, callback);
+                httpExchange.getRequestReceiver().receiveFullBytes(bodyCallback, bodyCallback);
+                return;
+            }
+
+            // The body must be counted as it is read.
+            BufferedBodyCallback<A> bodyCallback = new BufferedBodyCallback<>(deserializer, callback, limits, budget);
+            if ((budget == null) || !budget.isExhausted()) {
+                bodyCallback.startRead(httpExchange);
+                return;
+            }
+
+            if (budget.rejectsWhenExhausted()) {
+                callback.onArgExtracted(HttpOptional.empty(StatusCodes.SERVICE_UNAVAILABLE));
+                return;
+            }
+
+            // Undertow ends the exchange when its handler returns, unless the exchange is dispatched.
+            long reservedBytes = getPausedReadReservation(contentLength, limits);
+            httpExchange.dispatch(
+                    SameThreadExecutor.INSTANCE, () -> bodyCallback.pauseRead(httpExchange, reservedBytes));
+        }
+    }
+
+    /**
+     * Gets the bytes to reserve for a paused read when it resumes: the declared length of the body if it is known,
+     * or else a fixed quota that is also bounded by the maximum size of the body.
+     */
+    private static long getPausedReadReservation(long contentLength, BodyLimits limits) {
+        if (contentLength >= 0) {
+            return contentLength;
+        }
+
+        return (limits.maxSize() >= 0)
+                ? Math.min(limits.maxSize(), DEFAULT_PAUSED_READ_RESERVATION)
+                : DEFAULT_PAUSED_READ_RESERVATION;
+    }
+
+    /**
+     * Deserializer for the HTTP request body, which deserializes a large body on another executor.
+     * <p>
+     * A large body would block every other connection on the I/O thread while it is deserialized.
+     * Instead, the exchange is dispatched, and the callback is invoked on the other executor;
+     * the executor is the worker pool if it is null.
+     */
+    private record BodyDeserializer<A>(
+            Function<byte[], HttpOptional<A>> parser, long offloadThreshold, Executor offloadExecutor) {
+
+        /** Deserializes the HTTP request body and invokes the callback. */
+        public void deserialize(HttpServerExchange httpExchange, byte[] rawArg, ArgExtractor.Callback<A> callback) {
+            if (!shouldOffload(httpExchange, rawArg.length)) {
+                onArgExtracted(callback, deserialize(rawArg));
+                return;
+            }
+
+            HttpHandler deserializeHandler = he -> callback.onArgExtracted(deserialize(rawArg));
+            if (offloadExecutor != null) {
+                httpExchange.dispatch(offloadExecutor, deserializeHandler);
+            } else {
+                httpExchange.dispatch(deserializeHandler);
+            }
+        }
+
+        /** Determines if the deserialization should be offloaded from the I/O thread. */
+        private boolean shouldOffload(HttpServerExchange httpExchange, int bodySize) {
+            return (offloadThreshold >= 0) && (bodySize >= offloadThreshold) && httpExchange.isInIoThread();
+        }
+
+        /** Deserializes the HTTP request body. */
+        private HttpOptional<A> deserialize(byte[] rawArg) {
+            return parser.apply(rawArg);
         }
     }
 
-    /** Callback for when the HTTP request body has been read. */
-    private record BodyCallback<A>(TypeReference<A> argTypeRef, ArgExtractor.Callback<A> callback)
-            implements Receiver.FullBytesCallback {
+    /** Callback for when the HTTP request body has been read, or when it could not be read. */
+    private record BodyCallback<A>(BodyDeserializer<A> deserializer, ArgExtractor.Callback<A> callback)
+            implements Receiver.FullBytesCallback, Receiver.ErrorCallback {
 
         @Override
         public void handle(HttpServerExchange httpExchange, byte[] rawArg) {
-            HttpOptional<A> maybeArg = JsonValues.tryDeserialize(rawArg, argTypeRef, StatusCodes.BAD_REQUEST);
+            deserializer.deserialize(httpExchange, rawArg, callback);
+        }
 
-            // FullBytesCallback does not throw checked exceptions, so we must tunnel checked exceptions.
-            try {
-                callback.onArgExtracted(maybeArg);
-            } catch (Exception e) {
-                throw TunneledException.tunnel(e);
-            }
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            int errorCode = getReadErrorCode(e);
+            onArgExtracted(callback, HttpOptional.empty(errorCode));
         }
     }
 
-    /** Extractor that gets the text value of an HTTP query parameter. */
-    private record QueryParamTextExtractor(String name) implements ArgExtractor<HttpServerExchange, String> {
+    /**
+     * Callback that buffers the chunks of an HTTP request body, counting them against the limits of the route
+     * and charging them against the global budget.
+     * <p>
+     * The charged bytes are also released when the exchange completes, in case it ends before the body is read.
+     * If the read was paused, the bytes reserved for it when it resumed are charged up front,
+     * and a read that is still paused when the exchange completes is cancelled.
+     */
+    private static final class BufferedBodyCallback<A>
+            implements Receiver.PartialBytesCallback, Receiver.ErrorCallback, ExchangeCompletionListener {
 
-        private static final Deque<String> EMPTY_VALUES = new ArrayDeque<>();
+        private final BodyDeserializer<A> deserializer;
+        private final ArgExtractor.Callback<A> callback;
+        private final BodyLimits limits;
+        private final RequestBodyBudget budget; // null if there is no budget
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private BodyReadTimer timer = null; // null if the body is not timed
+        private RequestBodyBudget.PausedRead pausedRead = null; // null if the read was not paused
+        private long chargedBytes = 0;
+        private boolean isDone = false;
 
         @Override
-        public HttpOptional<String> tryExtract(HttpServerExchange httpExchange) {
-            Deque<String> values = httpExchange.getQueryParameters().getOrDefault(name, EMPTY_VALUES);
-            if (values.size() != 1) {
-                return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+        public void handle(HttpServerExchange httpExchange, byte[] chunk, boolean last) {
+            if (isDone) {
+                return;
             }
-            String value = values.getFirst();
 
-            return HttpOptional.of(value);
+            body.write(chunk, 0, chunk.length);
+
+            if (isBodyTooLarge(body.size(), limits.maxSize())) {
+                abortBodyTooLarge(httpExchange);
+                finish(HttpOptional.empty(StatusCodes.REQUEST_ENTITY_TOO_LARGE));
+                return;
+            }
+
+            // Only the bytes beyond those reserved for a paused read are charged.
+            if ((budget != null) && (body.size() > chargedBytes)) {
+                budget.acquire(body.size() - chargedBytes);
+                chargedBytes = body.size();
+            }
+
+            if (!last) {
+                return;
+            }
+
+            // The buffered bytes are released once the body has been deserialized, which may be on another thread.
+            stop();
+            byte[] rawArg = body.toByteArray();
+            deserializer.deserialize(httpExchange, rawArg, this::onDeserialized);
         }
-    }
 
-    /** Extractor that gets and deserializes the value of an HTTP query parameter. */
-    private record QueryParamJsonExtractor<A>(String name, TypeReference<A> argTypeRef)
-            implements ArgExtractor<HttpServerExchange, A> {
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            if (isDone) {
+                return;
+            }
+
+            int errorCode = getReadErrorCode(e);
+            finish(HttpOptional.empty(errorCode));
+        }
 
         @Override
-        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
-            ArgExtractor<HttpServerExchange, String> textArgExtractor = new QueryParamTextExtractor(name);
+        public void exchangeEvent(HttpServerExchange httpExchange, NextListener nextListener) {
+            isDone = true;
+            if (pausedRead != null) {
+                pausedRead.cancel();
+            }
+
+            releaseBudget();
+            nextListener.proceed();
+        }
+
+        /** Starts reading the HTTP request body. */
+        private void startRead(HttpServerExchange httpExchange) {
+            if (budget != null) {
+                httpExchange.addExchangeCompleteListener(this);
+            }
+
+            readBody(httpExchange);
+        }
+
+        /** Pauses reading the HTTP request body until the budget is available. */
+        private void pauseRead(HttpServerExchange httpExchange, long reservedBytes) {
+            httpExchange.addExchangeCompleteListener(this);
+            pausedRead = budget.resumeWhenAvailable(reservedBytes, () -> resumeRead(httpExchange, reservedBytes));
+        }
+
+        /**
+         * Resumes reading the HTTP request body on the I/O thread of the exchange, after the read was paused.
+         * <p>
+         * If the exchange completed after the bytes were reserved, the reserved bytes are released instead.
+         */
+        private void resumeRead(HttpServerExchange httpExchange, long reservedBytes) {
+            httpExchange.getIoThread().execute(() -> {
+                if (isDone) {
+                    budget.release(reservedBytes);
+                    return;
+                }
+
+                chargedBytes = reservedBytes;
+                Connectors.executeRootHandler(this::readBody, httpExchange);
+            });
+        }
+
+        /** Reads the HTTP request body. */
+        private void readBody(HttpServerExchange httpExchange) {
+            if (limits.isTimed()) {
+                timer = BodyReadTimer.start(httpExchange, limits, () -> timeOut(httpExchange));
+            }
+
+            receivePartialBody(httpExchange, this, limits, timer);
+        }
+
+        /** Rejects the HTTP request when the body is read too slowly. */
+        private void timeOut(HttpServerExchange httpExchange) {
+            if (isDone) {
+                return;
+            }
+
+            isDone = true;
+            releaseBudget();
+            rejectSlowBody(httpExchange, callback);
+        }
+
+        /** Stops reading the body, and then releases the buffered bytes and invokes the callback. */
+        private void finish(HttpOptional<A> maybeArg) {
+            stop();
+            releaseBudget();
+            onArgExtracted(callback, maybeArg);
+        }
+
+        /** Releases the buffered bytes and invokes the callback once the body has been deserialized. */
+        private void onDeserialized(HttpOptional<A> maybeArg) throws Exception {
+            releaseBudget();
+            callback.onArgExtracted(maybeArg);
+        }
+
+        /** Stops reading the body. */
+        private void stop() {
+            isDone = true;
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+
+        /** Releases the bytes that were charged against the budget. */
+        private void releaseBudget() {
+            if (chargedBytes > 0) {
+                budget.release(chargedBytes);
+                chargedBytes = 0;
+            }
+        }
+
+        private BufferedBodyCallback(
+                BodyDeserializer<A> deserializer,
+                ArgExtractor.Callback<A> callback,
+                BodyLimits limits,
+                RequestBodyBudget budget) {
+            this.deserializer = deserializer;
+            this.callback = callback;
+            this.limits = limits;
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * Callback that decompresses each chunk of a compressed HTTP request body,
+     * and then passes the decompressed chunk to another callback.
+     * <p>
+     * The decompressed size of each chunk is bounded before it is inflated, both by the maximum size of the body
+     * and by the maximum compression ratio, so a decompression bomb is rejected without inflating it.
+     * The native memory of the inflater is released when the exchange completes.
+     */
+    private static final class InflatingBodyCallback
+            implements Receiver.PartialBytesCallback, Receiver.ErrorCallback, ExchangeCompletionListener {
+
+        private final RequestBodyInflater inflater;
+        private final Receiver.PartialBytesCallback bodyCallback;
+        private final Receiver.ErrorCallback errorCallback;
+        private final long maxSize;
+        private final long maxCompressionRatio;
+        private long compressedSize = 0;
+        private long decompressedSize = 0;
+        private boolean isDone = false;
+
+        @Override
+        public void handle(HttpServerExchange httpExchange, byte[] chunk, boolean last) {
+            if (isDone) {
+                return;
+            }
+
+            byte[] decompressedChunk;
+            try {
+                compressedSize += chunk.length;
+                decompressedChunk = inflater.inflate(chunk, getMaxChunkSize());
+                decompressedSize += decompressedChunk.length;
+                if (last) {
+                    inflater.finish();
+                }
+            } catch (IOException e) {
+                error(httpExchange, e);
+                return;
+            }
+
+            isDone = last;
+            bodyCallback.handle(httpExchange, decompressedChunk, last);
+        }
+
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            if (isDone) {
+                return;
+            }
+
+            isDone = true;
+            errorCallback.error(httpExchange, e);
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange httpExchange, NextListener nextListener) {
+            inflater.close();
+            nextListener.proceed();
+        }
+
+        /** Gets the maximum decompressed size of the next chunk. */
+        private long getMaxChunkSize() {
+            long maxDecompressedSize = (compressedSize <= Long.MAX_VALUE / maxCompressionRatio)
+                    ? compressedSize * maxCompressionRatio
+                    : Long.MAX_VALUE;
+            if (maxSize >= 0) {
+                maxDecompressedSize = Math.min(maxDecompressedSize, maxSize);
+            }
+
+            return maxDecompressedSize - decompressedSize;
+        }
+
+        private InflatingBodyCallback(
+                RequestBodyInflater inflater,
+                Receiver.PartialBytesCallback bodyCallback,
+                Receiver.ErrorCallback errorCallback,
+                BodyLimits limits) {
+            this.inflater = inflater;
+            this.bodyCallback = bodyCallback;
+            this.errorCallback = errorCallback;
+            maxSize = limits.maxSize();
+            maxCompressionRatio =
+                    (limits.maxCompressionRatio() >= 0) ? limits.maxCompressionRatio() : DEFAULT_MAX_COMPRESSION_RATIO;
+        }
+    }
+
+    /** Exception for an HTTP request body whose {@code Content-Encoding} is not supported. */
+    private static final class UnsupportedContentEncodingException extends IOException {
+
+        public UnsupportedContentEncodingException(String contentEncoding) {
+            super(String.format("unsupported content encoding: %s", contentEncoding));
+        }
+    }
+
+    /** Extractor that reads the HTTP request body and deserializes it into a pooled object. */
+    private record PooledBodyExtractor<A>(IoThreadPool<A> pool) implements ArgExtractor.Async<HttpServerExchange, A> {
+
+        private static final BodyExtractor<byte[]> RAW_BODY_EXTRACTOR =
+                new BodyExtractor<>(new BodyDeserializer<>(HttpOptional::of, -1, null));
+
+        @Override
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+            RAW_BODY_EXTRACTOR.tryExtract(
+                    httpExchange, maybeRawArg -> callback.onArgExtracted(deserialize(httpExchange, maybeRawArg)));
+        }
+
+        /** Deserializes the HTTP request body into a borrowed object, which is returned when the exchange completes. */
+        private HttpOptional<A> deserialize(HttpServerExchange httpExchange, HttpOptional<byte[]> maybeRawArg) {
+            if (maybeRawArg.isEmpty()) {
+                return maybeRawArg.convertEmpty();
+            }
+
+            A arg = pool.borrow(httpExchange);
+            HttpOptional<A> maybeArg = JsonValues.tryDeserializeInto(maybeRawArg.get(), arg, StatusCodes.BAD_REQUEST);
+            if (maybeArg.isEmpty()) {
+                pool.release(httpExchange, arg);
+                return maybeArg;
+            }
+
+            httpExchange.addExchangeCompleteListener((he, nextListener) -> {
+                try {
+                    pool.release(he, arg);
+                } finally {
+                    nextListener.proceed();
+                }
+            });
+            return maybeArg;
+        }
+    }
+
+    /**
+     * Pool of reusable objects, where each I/O thread has its own pool.
+     * <p>
+     * A pool is only accessed on its own I/O thread, so it needs no synchronization.
+     * An object that is released on another thread is returned to the pool on the I/O thread of the exchange.
+     */
+    private static final class IoThreadPool<A> {
+
+        private final Supplier<A> factory;
+        private final Consumer<? super A> reset;
+        private final ThreadLocal<ArrayDeque<A>> pooledObjects = ThreadLocal.withInitial(ArrayDeque::new);
+
+        /** Borrows an object from the pool of the current I/O thread, or creates a new object. */
+        public A borrow(HttpServerExchange httpExchange) {
+            if (Thread.currentThread() != httpExchange.getIoThread()) {
+                return factory.get();
+            }
+
+            A object = pooledObjects.get().pollFirst();
+            return (object != null) ? object : factory.get();
+        }
+
+        /** Resets an object and returns it to the pool of the I/O thread of the exchange, unless the pool is full. */
+        public void release(HttpServerExchange httpExchange, A object) {
+            if (Thread.currentThread() != httpExchange.getIoThread()) {
+                httpExchange.getIoThread().execute(() -> release(httpExchange, object));
+                return;
+            }
+
+            ArrayDeque<A> objects = pooledObjects.get();
+            if (objects.size() >= MAX_POOLED_ARGS_PER_THREAD) {
+                return;
+            }
+
+            reset.accept(object);
+            objects.addFirst(object);
+        }
+
+        private IoThreadPool(Supplier<A> factory, Consumer<? super A> reset) {
+            this.factory = factory;
+            this.reset = reset;
+        }
+    }
+
+    /** Extractor that gets and deserializes a field, or a nested value, of the HTTP request body. */
+    private record BodyFieldExtractor<A>(Function<JsonFieldIndex, HttpOptional<A>> projection)
+            implements ArgExtractor.Async<HttpServerExchange, A> {
+
+        private static final BodyExtractor<JsonFieldIndex> INDEX_EXTRACTOR = new BodyExtractor<>(
+                new BodyDeserializer<>(rawBody -> JsonFieldIndex.tryIndex(rawBody, StatusCodes.BAD_REQUEST), -1, null));
+
+        @Override
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+            SharedBodyFields fields = httpExchange.getAttachment(BODY_FIELDS);
+            boolean isFirst = (fields == null);
+            if (isFirst) {
+                fields = new SharedBodyFields();
+                httpExchange.putAttachment(BODY_FIELDS, fields);
+            }
+
+            fields.whenIndexed(maybeIndex -> callback.onArgExtracted(extractField(maybeIndex)));
+            if (isFirst) {
+                INDEX_EXTRACTOR.tryExtract(httpExchange, fields);
+            }
+        }
+
+        /** Extracts the field, or the nested value, from the index of the body. */
+        private HttpOptional<A> extractField(HttpOptional<JsonFieldIndex> maybeIndex) {
+            if (maybeIndex.isEmpty()) {
+                return maybeIndex.convertEmpty();
+            }
+
+            return projection.apply(maybeIndex.get());
+        }
+    }
+
+    /**
+     * Index of the fields of the HTTP request body, which is shared by all the body field extractors for an exchange.
+     * <p>
+     * The first body field extractor reads and indexes the body; the other extractors wait for the index.
+     */
+    private static final class SharedBodyFields implements ArgExtractor.Callback<JsonFieldIndex> {
+
+        private HttpOptional<JsonFieldIndex> maybeIndex = null; // null until the body has been indexed
+        private List<ArgExtractor.Callback<JsonFieldIndex>> waiters = new ArrayList<>();
+
+        @Override
+        public void onArgExtracted(HttpOptional<JsonFieldIndex> maybeIndex) throws Exception {
+            List<ArgExtractor.Callback<JsonFieldIndex>> waiters;
+            synchronized (this) {
+                this.maybeIndex = maybeIndex;
+                waiters = this.waiters;
+                this.waiters = null;
+            }
+
+            for (ArgExtractor.Callback<JsonFieldIndex> waiter : waiters) {
+                waiter.onArgExtracted(maybeIndex);
+            }
+        }
+
+        /** Invokes the callback once the body has been indexed. */
+        public void whenIndexed(ArgExtractor.Callback<JsonFieldIndex> waiter) throws Exception {
+            HttpOptional<JsonFieldIndex> maybeIndex;
+            synchronized (this) {
+                if (this.maybeIndex == null) {
+                    waiters.add(waiter);
+                    return;
+                }
+
+                maybeIndex = this.maybeIndex;
+            }
+
+            waiter.onArgExtracted(maybeIndex);
+        }
+    }
+
+    /** Extractor that reads a newline-delimited JSON body, passing each item to a sink. */
+    private record NdjsonBodyExtractor<I, A>(
+            TypeReference<I> itemTypeRef, Supplier<? extends ItemSink<I, A>> sinkFactory)
+            implements ArgExtractor.Async<HttpServerExchange, A> {
+
+        @Override
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+            BodyLimits limits = getBodyLimits(httpExchange);
+            if (isBodyTooLarge(httpExchange.getRequestContentLength(), limits.maxSize())) {
+                rejectDeclaredBodyTooLarge(httpExchange, callback);
+                return;
+            }
+
+            JsonLinesDeserializer<I> deserializer = JsonLinesDeserializer.create(itemTypeRef);
+            NdjsonBodyCallback<I, A> bodyCallback =
+                    new NdjsonBodyCallback<>(deserializer, sinkFactory.get(), callback, limits);
+            bodyCallback.startRead(httpExchange);
+        }
+    }
+
+    /** Callback that deserializes the items in each chunk of a newline-delimited JSON body and passes them to a sink. */
+    private static final class NdjsonBodyCallback<I, A>
+            implements Receiver.PartialBytesCallback, Receiver.ErrorCallback {
+
+        private final JsonLinesDeserializer<I> deserializer;
+        private final ItemSink<I, A> sink;
+        private final ArgExtractor.Callback<A> callback;
+        private final BodyLimits limits;
+        private BodyReadTimer timer = null; // null if the body is not timed
+        private long bodySize = 0;
+        private boolean isDone = false;
+
+        @Override
+        public void handle(HttpServerExchange httpExchange, byte[] chunk, boolean last) {
+            if (isDone) {
+                return;
+            }
+
+            bodySize += chunk.length;
+
+            if (isBodyTooLarge(bodySize, limits.maxSize())) {
+                abortBodyTooLarge(httpExchange);
+                finish(HttpOptional.empty(StatusCodes.REQUEST_ENTITY_TOO_LARGE));
+                return;
+            }
+
+            HttpOptional<A> maybeArg;
+            try {
+                boolean isWellFormed = deserializer.tryFeed(chunk, 0, chunk.length, this::onItem);
+                if (isWellFormed && !last) {
+                    return;
+                }
+
+                maybeArg = (isWellFormed && deserializer.tryFinish(this::onItem))
+                        ? sink.finish()
+                        : HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            } catch (Exception e) {
+                maybeArg = HttpOptional.empty(StatusCodes.INTERNAL_SERVER_ERROR);
+            }
+
+            finish(maybeArg);
+        }
+
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            if (isDone) {
+                return;
+            }
+
+            int errorCode = getReadErrorCode(e);
+            finish(HttpOptional.empty(errorCode));
+        }
+
+        /** Starts reading the HTTP request body. */
+        private void startRead(HttpServerExchange httpExchange) {
+            if (limits.isTimed()) {
+                timer = BodyReadTimer.start(httpExchange, limits, () -> timeOut(httpExchange));
+            }
+
+            receivePartialBody(httpExchange, this, limits, timer);
+        }
+
+        /** Passes an item to the sink, tunneling any exception that it throws. */
+        private void onItem(I item) {
+            try {
+                sink.onItem(item);
+            } catch (Exception e) {
+                throw TunneledException.tunnel(e);
+            }
+        }
+
+        /** Rejects the HTTP request when the body is read too slowly. */
+        private void timeOut(HttpServerExchange httpExchange) {
+            if (isDone) {
+                return;
+            }
+
+            isDone = true;
+            rejectSlowBody(httpExchange, callback);
+        }
+
+        /** Stops the timer and invokes the callback. */
+        private void finish(HttpOptional<A> maybeArg) {
+            isDone = true;
+            if (timer != null) {
+                timer.stop();
+            }
+
+            onArgExtracted(callback, maybeArg);
+        }
+
+        private NdjsonBodyCallback(
+                JsonLinesDeserializer<I> deserializer,
+                ItemSink<I, A> sink,
+                ArgExtractor.Callback<A> callback,
+                BodyLimits limits) {
+            this.deserializer = deserializer;
+            this.sink = sink;
+            this.callback = callback;
+            this.limits = limits;
+        }
+    }
+
+    /** Sink that groups items into bounded chunks and passes each chunk to another sink. */
+    private static final class ChunkingItemSink<I, A> implements ItemSink<I, A> {
+
+        private final int maxChunkSize;
+        private final ItemSink<List<I>, A> chunkSink;
+        private List<I> chunk;
+
+        @Override
+        public void onItem(I item) throws Exception {
+            chunk.add(item);
+            if (chunk.size() < maxChunkSize) {
+                return;
+            }
+
+            List<I> fullChunk = chunk;
+            chunk = new ArrayList<>(maxChunkSize);
+            chunkSink.onItem(fullChunk);
+        }
+
+        @Override
+        public HttpOptional<A> finish() throws Exception {
+            if (!chunk.isEmpty()) {
+                chunkSink.onItem(chunk);
+                chunk = List.of();
+            }
+
+            return chunkSink.finish();
+        }
+
+        private ChunkingItemSink(int maxChunkSize, ItemSink<List<I>, A> chunkSink) {
+            this.maxChunkSize = maxChunkSize;
+            this.chunkSink = chunkSink;
+            chunk = new ArrayList<>(maxChunkSize);
+        }
+    }
+
+    /** Extractor that reads the HTTP request body, spooling a large body to a temporary file. */
+    private record SpooledBodyExtractor(long inMemoryThreshold)
+            implements ArgExtractor.Async<HttpServerExchange, SpooledBody> {
+
+        @Override
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<SpooledBody> callback)
+                throws Exception {
+            BodyLimits limits = getBodyLimits(httpExchange);
+            if (isBodyTooLarge(httpExchange.getRequestContentLength(), limits.maxSize())) {
+                rejectDeclaredBodyTooLarge(httpExchange, callback);
+                return;
+            }
+
+            SpoolingBodyCallback bodyCallback = new SpoolingBodyCallback(inMemoryThreshold, callback, limits);
+            bodyCallback.startRead(httpExchange);
+        }
+    }
+
+    /**
+     * Callback that buffers the chunks of an HTTP request body in memory,
+     * and then writes them to a temporary file once the body exceeds the in-memory threshold.
+     * <p>
+     * The file is created and written with blocking calls, so they are made on the worker pool instead of the I/O thread.
+     * Receiving is paused while a chunk is written, and it is resumed on the I/O thread once the write completes,
+     * so only one write is in progress at a time, and the chunks are written in order.
+     * <p>
+     * The file and its channel are only accessed on the I/O thread once no write is in progress.
+     * If the read is rejected while a write is in progress, the file is discarded once the write completes;
+     * the file is also closed and deleted on the worker pool.
+     */
+    private static final class SpoolingBodyCallback implements Receiver.PartialBytesCallback, Receiver.ErrorCallback {
+
+        private final long inMemoryThreshold;
+        private final ArgExtractor.Callback<SpooledBody> callback;
+        private final BodyLimits limits;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream(); // null once spooled to a file
+        private Path file = null;
+        private FileChannel channel = null;
+        private BodyReadTimer timer = null; // null if the body is not timed
+        private long bodySize = 0;
+        private boolean isSpooling = false; // true while a chunk is written on the worker pool
+        private boolean isDone = false;
+
+        @Override
+        public void handle(HttpServerExchange httpExchange, byte[] chunk, boolean last) {
+            if (isDone) {
+                return;
+            }
+
+            bodySize += chunk.length;
+
+            if (isBodyTooLarge(bodySize, limits.maxSize())) {
+                abortBodyTooLarge(httpExchange);
+                fail(httpExchange, StatusCodes.REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+
+            if ((memory != null) && (bodySize <= inMemoryThreshold)) {
+                memory.write(chunk, 0, chunk.length);
+                if (last) {
+                    finish(httpExchange, SpooledBody.inMemory(memory.toByteArray()));
+                }
+
+                return;
+            }
+
+            if (!last) {
+                httpExchange.getRequestReceiver().pause();
+            }
+
+            // Undertow ends the exchange when its handler returns, unless the exchange is dispatched.
+            byte[] bufferedBytes = (memory != null) ? memory.toByteArray() : null;
+            memory = null;
+            isSpooling = true;
+            Executor worker = httpExchange.getConnection().getWorker();
+            httpExchange.dispatch(worker, () -> spool(httpExchange, bufferedBytes, chunk, last));
+        }
+
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            if (isDone) {
+                return;
+            }
+
+            fail(httpExchange, getReadErrorCode(e));
+        }
+
+        /** Starts reading the HTTP request body. */
+        private void startRead(HttpServerExchange httpExchange) {
+            if (limits.isTimed()) {
+                timer = BodyReadTimer.start(httpExchange, limits, () -> timeOut(httpExchange));
+            }
+
+            receivePartialBody(httpExchange, this, limits, timer);
+        }
+
+        /**
+         * Writes a chunk to the temporary file on the worker pool, creating the file and first writing the bytes
+         * that were buffered in memory if needed. The result is then handled on the I/O thread.
+         */
+        private void spool(HttpServerExchange httpExchange, byte[] bufferedBytes, byte[] chunk, boolean last) {
+            IOException error = null;
+            try {
+                if (bufferedBytes != null) {
+                    file = Files.createTempFile("drift-body-", ".tmp");
+                    channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                    writeFully(bufferedBytes);
+                }
+
+                writeFully(chunk);
+                if (last) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            IOException spoolError = error;
+            httpExchange
+                    .getIoThread()
+                    .execute(() -> Connectors.executeRootHandler(
+                            he -> onSpooled(httpExchange, last, spoolError), httpExchange));
+        }
+
+        /** Resumes receiving the body after a chunk was written, or finishes reading the body. */
+        private void onSpooled(HttpServerExchange httpExchange, boolean last, IOException e) {
+            isSpooling = false;
+            if (isDone) {
+                // The read was rejected while the chunk was being written.
+                discardFile(httpExchange);
+                return;
+            }
+
+            if (e != null) {
+                fail(httpExchange, StatusCodes.INTERNAL_SERVER_ERROR);
+                return;
+            }
+
+            if (!last) {
+                httpExchange.getRequestReceiver().resume();
+                return;
+            }
+
+            finish(httpExchange, SpooledBody.spooled(file, bodySize));
+        }
+
+        /** Writes all the bytes to the temporary file. */
+        private void writeFully(byte[] bytes) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        /** Stops reading the body, and then invokes the callback with the body, which is closed with the exchange. */
+        private void finish(HttpServerExchange httpExchange, SpooledBody body) {
+            httpExchange.addExchangeCompleteListener((he, nextListener) -> {
+                closeQuietly(body);
+                nextListener.proceed();
+            });
+            stop();
+            onArgExtracted(callback, HttpOptional.of(body));
+        }
+
+        /** Rejects the HTTP request when the body is read too slowly. */
+        private void timeOut(HttpServerExchange httpExchange) {
+            if (isDone) {
+                return;
+            }
+
+            stop();
+            discardFile(httpExchange);
+            rejectSlowBody(httpExchange, callback);
+        }
+
+        /** Stops reading the body, discards the temporary file, and sends an error status code. */
+        private void fail(HttpServerExchange httpExchange, int errorCode) {
+            stop();
+            discardFile(httpExchange);
+            onArgExtracted(callback, HttpOptional.empty(errorCode));
+        }
+
+        /** Stops reading the body. */
+        private void stop() {
+            isDone = true;
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+
+        /**
+         * Closes and deletes the temporary file on the worker pool, if it was created.
+         * If a chunk is being written, the file is discarded once the write completes instead.
+         */
+        private void discardFile(HttpServerExchange httpExchange) {
+            if (isSpooling || (file == null)) {
+                return;
+            }
+
+            Path file = this.file;
+            FileChannel channel = this.channel;
+            this.file = null;
+            this.channel = null;
+            httpExchange.getConnection().getWorker().execute(() -> deleteFile(file, channel));
+        }
+
+        /** Closes and deletes a temporary file. */
+        private static void deleteFile(Path file, FileChannel channel) {
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // The file is in the temporary directory.
+            }
+        }
+
+        /** Closes a resource, ignoring any failure. */
+        private static void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Nothing else can be done.
+            }
+        }
+
+        private SpoolingBodyCallback(
+                long inMemoryThreshold, ArgExtractor.Callback<SpooledBody> callback, BodyLimits limits) {
+            this.inMemoryThreshold = inMemoryThreshold;
+            this.callback = callback;
+            this.limits = limits;
+        }
+    }
+
+    /** Extractor that reads the HTTP request body in chunks and deserializes it incrementally. */
+    private record StreamingBodyExtractor<A>(TypeReference<A> argTypeRef)
+            implements ArgExtractor.Async<HttpServerExchange, A> {
+
+        @Override
+        public void tryExtract(HttpServerExchange httpExchange, ArgExtractor.Callback<A> callback) throws Exception {
+            BodyLimits limits = getBodyLimits(httpExchange);
+            if (isBodyTooLarge(httpExchange.getRequestContentLength(), limits.maxSize())) {
+                rejectDeclaredBodyTooLarge(httpExchange, callback);
+                return;
+            }
+
+            JsonStreamingDeserializer<A> deserializer = JsonStreamingDeserializer.create(argTypeRef);
+            StreamingBodyCallback<A> bodyCallback = new StreamingBodyCallback<>(deserializer, callback, limits);
+            bodyCallback.startRead(httpExchange);
+        }
+    }
+
+    /** Callback for when the next chunk of the HTTP request body has been read, or when it could not be read. */
+    private static final class StreamingBodyCallback<A>
+            implements Receiver.PartialBytesCallback, Receiver.ErrorCallback {
+
+        private final JsonStreamingDeserializer<A> deserializer;
+        private final ArgExtractor.Callback<A> callback;
+        private final BodyLimits limits;
+        private BodyReadTimer timer = null; // null if the body is not timed
+        private long bodySize = 0;
+        private boolean isDone = false;
+
+        @Override
+        public void handle(HttpServerExchange httpExchange, byte[] chunk, boolean last) {
+            if (isDone) {
+                return;
+            }
+
+            bodySize += chunk.length;
+
+            if (isBodyTooLarge(bodySize, limits.maxSize())) {
+                abortBodyTooLarge(httpExchange);
+                finish(HttpOptional.empty(StatusCodes.REQUEST_ENTITY_TOO_LARGE));
+                return;
+            }
+
+            boolean isWellFormed = deserializer.tryFeed(chunk, 0, chunk.length);
+            if (isWellFormed && !last) {
+                return;
+            }
+
+            HttpOptional<A> maybeArg = isWellFormed
+                    ? deserializer.tryFinish(StatusCodes.BAD_REQUEST)
+                    : HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            finish(maybeArg);
+        }
+
+        @Override
+        public void error(HttpServerExchange httpExchange, IOException e) {
+            if (isDone) {
+                return;
+            }
+
+            int errorCode = getReadErrorCode(e);
+            finish(HttpOptional.empty(errorCode));
+        }
+
+        /** Starts reading the HTTP request body. */
+        private void startRead(HttpServerExchange httpExchange) {
+            if (limits.isTimed()) {
+                timer = BodyReadTimer.start(httpExchange, limits, () -> timeOut(httpExchange));
+            }
+
+            receivePartialBody(httpExchange, this, limits, timer);
+        }
+
+        /** Rejects the HTTP request when the body is read too slowly. */
+        private void timeOut(HttpServerExchange httpExchange) {
+            if (isDone) {
+                return;
+            }
+
+            isDone = true;
+            rejectSlowBody(httpExchange, callback);
+        }
+
+        /** Stops the timer and invokes the callback. */
+        private void finish(HttpOptional<A> maybeArg) {
+            isDone = true;
+            if (timer != null) {
+                timer.stop();
+            }
+
+            onArgExtracted(callback, maybeArg);
+        }
+
+        private StreamingBodyCallback(
+                JsonStreamingDeserializer<A> deserializer, ArgExtractor.Callback<A> callback, BodyLimits limits) {
+            this.deserializer = deserializer;
+            this.callback = callback;
+            this.limits = limits;
+        }
+    }
+
+    /**
+     * Timer that enforces the read timeout and the minimum throughput while an HTTP request body is read.
+     * <p>
+     * The timer is scheduled on the I/O thread of the exchange, which is also the thread that reads the body,
+     * so it never wakes up a separate thread. When a minimum throughput is set, it checks the throughput once per second;
+     * otherwise, it only fires at the deadline.
+     */
+    private static final class BodyReadTimer implements Runnable {
+
+        private static final long CHECK_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+        private final ScheduledExecutor ioThread;
+        private final long minBytesPerSecond; // -1 if there is no minimum throughput
+        private final long readTimeoutNanos; // -1 if there is no deadline
+        private final long startNanos;
+        private final Runnable onTimeout;
+        private ScheduledExecutor.Key key = null;
+        private long lastCheckNanos;
+        private long bytesReadSinceLastCheck = 0;
+        private boolean isStopped = false;
+
+        /** Starts a timer for reading the HTTP request body. */
+        public static BodyReadTimer start(HttpServerExchange httpExchange, BodyLimits limits, Runnable onTimeout) {
+            ScheduledExecutor ioThread = UndertowDispatcher.getIoThread(httpExchange);
+            BodyReadTimer timer = new BodyReadTimer(ioThread, limits, onTimeout);
+            timer.schedule();
+            return timer;
+        }
+
+        /** Records that bytes of the body have been read. */
+        public void onBytesRead(long bytes) {
+            bytesReadSinceLastCheck += bytes;
+        }
+
+        /** Stops the timer once the body has been read. */
+        public void stop() {
+            isStopped = true;
+            if (key != null) {
+                key.cancel();
+            }
+        }
+
+        @Override
+        public void run() {
+            if (isStopped) {
+                return;
+            }
+
+            long nowNanos = System.nanoTime();
+            if (isTooSlow(nowNanos)) {
+                isStopped = true;
+                onTimeout.run();
+                return;
+            }
+
+            lastCheckNanos = nowNanos;
+            bytesReadSinceLastCheck = 0;
+            schedule();
+        }
+
+        /** Determines if the deadline has passed, or if the body was read below the minimum throughput. */
+        private boolean isTooSlow(long nowNanos) {
+            if ((readTimeoutNanos >= 0) && (nowNanos - startNanos >= readTimeoutNanos)) {
+                return true;
+            }
+
+            if (minBytesPerSecond < 0) {
+                return false;
+            }
+
+            double elapsedSeconds = (nowNanos - lastCheckNanos) / 1e9;
+            return bytesReadSinceLastCheck < minBytesPerSecond * elapsedSeconds;
+        }
+
+        /** Schedules the next check, which is never later than the deadline. */
+        private void schedule() {
+            long delayNanos = CHECK_INTERVAL_NANOS;
+            if (readTimeoutNanos >= 0) {
+                long remainingNanos = readTimeoutNanos - (System.nanoTime() - startNanos);
+                delayNanos = (minBytesPerSecond >= 0) ? Math.min(delayNanos, remainingNanos) : remainingNanos;
+            }
+
+            key = ioThread.executeAfter(this, Duration.ofNanos(Math.max(delayNanos, 0)));
+        }
+
+        private BodyReadTimer(ScheduledExecutor ioThread, BodyLimits limits, Runnable onTimeout) {
+            this.ioThread = ioThread;
+            this.minBytesPerSecond = limits.minBytesPerSecond();
+            this.onTimeout = onTimeout;
+            Duration readTimeout = limits.readTimeout();
+            this.readTimeoutNanos = (readTimeout != null) ? readTimeout.toNanos() : -1;
+            this.startNanos = System.nanoTime();
+            this.lastCheckNanos = startNanos;
+        }
+    }
+
+    /** Extractor that gets the text value of an HTTP query parameter. */
+    private record QueryParamTextExtractor(String name) implements ArgExtractor<HttpServerExchange, String> {
+
+        private static final Deque<String> EMPTY_VALUES = new ArrayDeque<>();
+
+        @Override
+        public HttpOptional<String> tryExtract(HttpServerExchange httpExchange) {
+            Deque<String> values = httpExchange.getQueryParameters().getOrDefault(name, EMPTY_VALUES);
+            if (values.size() != 1) {
+                return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            }
+            String value = values.getFirst();
+
+            return HttpOptional.of(value);
+        }
+    }
+
+    /** Extractor that gets and deserializes the value of an HTTP query parameter. */
+    private record QueryParamJsonExtractor<A>(String name, TypeReference<A> argTypeRef)
+            implements ArgExtractor<HttpServerExchange, A> {
+
+        @Override
+        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
+            ArgExtractor<HttpServerExchange, String> textArgExtractor = new QueryParamTextExtractor(name);
+            HttpOptional<String> maybeTextArg = textArgExtractor.tryExtract(httpExchange);
+            if (maybeTextArg.isEmpty()) {
+                return maybeTextArg.convertEmpty();
+            }
+            String textArg = maybeTextArg.get();
+
+            return tryDeserializeText(textArg, argTypeRef);
+        }
+    }
+
+    /** Extractor that gets and parses the value of an HTTP query parameter. */
+    private record QueryParamParsedExtractor<A>(String name, TextParser<A> parser)
+            implements ArgExtractor<HttpServerExchange, A> {
+
+        @Override
+        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
+            Deque<String> values = httpExchange.getQueryParameters().get(name);
+            if ((values == null) || (values.size() != 1)) {
+                return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            }
+
+            return tryParseText(values.getFirst(), parser);
+        }
+    }
+
+    /** Extractor that gets and parses all the values of an HTTP query parameter. */
+    private record QueryParamListExtractor<A>(String name, TextParser<A> parser)
+            implements ArgExtractor<HttpServerExchange, List<A>> {
+
+        @Override
+        public HttpOptional<List<A>> tryExtract(HttpServerExchange httpExchange) {
+            Deque<String> values = httpExchange.getQueryParameters().get(name);
+            if (values == null) {
+                return HttpOptional.of(List.of());
+            }
+
+            return tryParseTextList(values, parser);
+        }
+    }
+
+    /** Extractor that gets the text value of an HTTP header. */
+    private record HeaderTextExtractor(HttpString name) implements ArgExtractor<HttpServerExchange, String> {
+
+        @Override
+        public HttpOptional<String> tryExtract(HttpServerExchange httpExchange) {
+            HeaderValues values = httpExchange.getRequestHeaders().get(name);
+            if ((values == null) || (values.size() != 1)) {
+                return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            }
+
+            return HttpOptional.of(values.getFirst());
+        }
+    }
+
+    /** Extractor that gets and parses the value of an HTTP header. */
+    private record HeaderParsedExtractor<A>(HttpString name, TextParser<A> parser)
+            implements ArgExtractor<HttpServerExchange, A> {
+
+        @Override
+        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
+            HeaderValues values = httpExchange.getRequestHeaders().get(name);
+            if ((values == null) || (values.size() != 1)) {
+                return HttpOptional.empty(StatusCodes.BAD_REQUEST);
+            }
+
+            return tryParseText(values.getFirst(), parser);
+        }
+    }
+
+    /** Extractor that gets and parses all the comma-separated values of an HTTP header. */
+    private record HeaderListExtractor<A>(HttpString name, TextParser<A> parser)
+            implements ArgExtractor<HttpServerExchange, List<A>> {
+
+        @Override
+        public HttpOptional<List<A>> tryExtract(HttpServerExchange httpExchange) {
+            HeaderValues values = httpExchange.getRequestHeaders().get(name);
+            if (values == null) {
+                return HttpOptional.of(List.of());
+            }
+
+            List<String> textArgs = new ArrayList<>();
+            for (String value : values) {
+                int start = 0;
+                while (true) {
+                    int end = value.indexOf(',', start);
+                    if (end < 0) {
+                        textArgs.add(value.substring(start).strip());
+                        break;
+                    }
+
+                    textArgs.add(value.substring(start, end).strip());
+                    start = end + 1;
+                }
+            }
+            return tryParseTextList(textArgs, parser);
+        }
+    }
+
+    /** Extractor that gets the text value of a path parameter. */
+    private record PathParamTextExtractor(String name) implements ArgExtractor<HttpServerExchange, String> {
+
+        @Override
+        public HttpOptional<String> tryExtract(HttpServerExchange httpExchange) {
+            PathParams pathParams = httpExchange.getAttachment(UndertowJsonApiRouter.PATH_PARAMS);
+            String value = (pathParams != null) ? pathParams.get(name) : null;
+            return HttpOptional.ofNullable(value, StatusCodes.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /** Extractor that gets and deserializes the value of a path parameter. */
+    private record PathParamJsonExtractor<A>(String name, TypeReference<A> argTypeRef)
+            implements ArgExtractor<HttpServerExchange, A> {
+
+        @Override
+        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
+            ArgExtractor<HttpServerExchange, String> textArgExtractor = new PathParamTextExtractor(name);
+            HttpOptional<String> maybeTextArg = textArgExtractor.tryExtract(httpExchange);
+            if (maybeTextArg.isEmpty()) {
+                return maybeTextArg.convertEmpty();
+            }
+            String textArg = maybeTextArg.get();
+
+            return tryDeserializeText(textArg, argTypeRef);
+        }
+    }
+
+    /** Extractor that gets and parses the value of a path parameter. */
+    private record PathParamParsedExtractor<A>(String name, TextParser<A> parser)
+            implements ArgExtractor<HttpServerExchange, A> {
+
+        @Override
+        public HttpOptional<A> tryExtract(HttpServerExchange httpExchange) {
+            ArgExtractor<HttpServerExchange, String> textArgExtractor = new PathParamTextExtractor(name);
             HttpOptional<String> maybeTextArg = textArgExtractor.tryExtract(httpExchange);
             if (maybeTextArg.isEmpty()) {
                 return maybeTextArg.convertEmpty();
             }
             String textArg = maybeTextArg.get();
 
-            byte[] rawArg = JsonValues.serialize(textArg);
-            return JsonValues.tryDeserialize(rawArg, argTypeRef, StatusCodes.BAD_REQUEST);
+            return tryParseText(textArg, parser);
         }
     }
 }
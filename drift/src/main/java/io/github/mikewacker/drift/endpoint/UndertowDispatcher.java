@@ -11,19 +11,36 @@ import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.xnio.XnioExecutor;
+import org.xnio.XnioIoThread;
 
 /** {@code Dispatcher} that is backed by an Undertow {@code HttpServerExchange}. */
 final class UndertowDispatcher implements Dispatcher {
 
+    private static final ThreadLocal<ScheduledExecutor> CACHED_IO_THREAD_EXECUTOR = new ThreadLocal<>();
+
     private final HttpServerExchange httpExchange;
-    private final ScheduledExecutor ioThread;
-    private final ExecutorService worker;
 
     /** Creates the dispatcher from the HTTP exchange. */
     public static Dispatcher create(HttpServerExchange httpExchange) {
         return new UndertowDispatcher(httpExchange);
     }
 
+    /** Gets a {@code ScheduledExecutor} for the I/O thread of the HTTP exchange. */
+    public static ScheduledExecutor getIoThread(HttpServerExchange httpExchange) {
+        // The executor for an I/O thread is cached on that thread, so it is only created once.
+        XnioIoThread ioThread = httpExchange.getIoThread();
+        if (Thread.currentThread() != ioThread) {
+            return new XnioScheduledExecutor(ioThread);
+        }
+
+        ScheduledExecutor ioThreadExecutor = CACHED_IO_THREAD_EXECUTOR.get();
+        if (ioThreadExecutor == null) {
+            ioThreadExecutor = new XnioScheduledExecutor(ioThread);
+            CACHED_IO_THREAD_EXECUTOR.set(ioThreadExecutor);
+        }
+        return ioThreadExecutor;
+    }
+
     @Override
     public boolean isInIoThread() {
         return httpExchange.isInIoThread();
@@ -31,12 +48,12 @@ final class UndertowDispatcher implements Dispatcher {
 
     @Override
     public ScheduledExecutor getIoThread() {
-        return ioThread;
+        return getIoThread(httpExchange);
     }
 
     @Override
     public ExecutorService getWorker() {
-        return worker;
+        return httpExchange.getConnection().getWorker();
     }
 
     @Override
@@ -127,8 +144,6 @@ final class UndertowDispatcher implements Dispatcher {
 
     private UndertowDispatcher(HttpServerExchange httpExchange) {
         this.httpExchange = httpExchange;
-        ioThread = new XnioScheduledExecutor(httpExchange.getIoThread());
-        worker = httpExchange.getConnection().getWorker();
     }
 
     /** {@code ScheduledExecutor} that is backed by a {@code XnioExecutor}. */
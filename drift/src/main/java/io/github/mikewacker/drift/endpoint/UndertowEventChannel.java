@@ -0,0 +1,301 @@
+package io.github.mikewacker.drift.endpoint;
+
+import io.github.mikewacker.drift.api.ScheduledExecutor;
+import io.github.mikewacker.drift.api.Sender;
+import io.github.mikewacker.drift.json.JsonValues;
+import io.undertow.server.HttpServerExchange;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.xnio.ChannelListener;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
+
+/**
+ * {@code Sender.Events.Channel} that pushes server-sent events onto the non-blocking response channel of an exchange.
+ * <p>
+ * An event is serialized on the thread that pushes it, and then it is queued; all writing happens on the IO thread
+ * of the exchange, in the write listener of the channel. An idle channel costs no thread: it is only a queue,
+ * a suspended channel, and a heartbeat that is scheduled on the IO thread.
+ * <p>
+ * The bytes that are queued but not yet written are limited per connection. If a client falls so far behind
+ * that the limit is exceeded, the connection is closed; the client can reconnect once it catches up.
+ */
+final class UndertowEventChannel<V> implements Sender.Events.Channel<V>, ChannelListener<StreamSinkChannel> {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_PREFIX = "event: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA_PREFIX = "data: ".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_BUFFERS_PER_WRITE = 64;
+
+    private final HttpServerExchange httpExchange;
+    private final StreamSinkChannel channel;
+    private final ScheduledExecutor ioThread;
+    private final Duration heartbeatInterval;
+    private final long maxBufferedBytes;
+
+    private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bufferedBytes = new AtomicLong(0);
+    private final AtomicBoolean isWakeUpScheduled = new AtomicBoolean(false);
+    private volatile boolean isOpen = true;
+    private volatile ScheduledExecutor.Key heartbeatKey = null;
+
+    // only accessed on the IO thread
+    private boolean isEnded = false;
+    private boolean wroteSinceHeartbeat = false;
+
+    /** Starts the event stream. Response headers must be set before the event stream starts. */
+    public static <V> Sender.Events.Channel<V> start(
+            HttpServerExchange httpExchange, Duration heartbeatInterval, long maxBufferedBytes) {
+        UndertowEventChannel<V> eventChannel =
+                new UndertowEventChannel<>(httpExchange, heartbeatInterval, maxBufferedBytes);
+        httpExchange.addExchangeCompleteListener((he, nextListener) -> {
+            eventChannel.end();
+            nextListener.proceed();
+        });
+        eventChannel.tryEnqueue(ByteBuffer.wrap(HEARTBEAT)); // sends the response headers right away
+        eventChannel.channel.getWriteSetter().set(eventChannel);
+        eventChannel.channel.resumeWrites();
+        eventChannel.scheduleHeartbeat();
+        return eventChannel;
+    }
+
+    /** Gets a channel for an event stream that could not be started. */
+    public static <V> Sender.Events.Channel<V> closed() {
+        return new ClosedChannel<>();
+    }
+
+    @Override
+    public boolean push(V event) {
+        return push(null, event);
+    }
+
+    @Override
+    public boolean push(String eventType, V event) {
+        if ((eventType != null) && ((eventType.indexOf('\n') >= 0) || (eventType.indexOf('\r') >= 0))) {
+            throw new IllegalArgumentException("event type must not contain a line break");
+        }
+
+        if (!isOpen) {
+            return false;
+        }
+
+        ByteBuffer buffer = encodeEvent(eventType, JsonValues.serialize(event));
+        if (!tryEnqueue(buffer)) {
+            return false;
+        }
+
+        wakeUp();
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen;
+    }
+
+    @Override
+    public void close() {
+        isOpen = false;
+        wakeUp();
+    }
+
+    @Override
+    public void handleEvent(StreamSinkChannel channel) {
+        try {
+            if (!writeQueue()) {
+                return; // wait for the channel to be writable
+            }
+
+            if (!isOpen) {
+                end();
+                httpExchange.endExchange();
+                return;
+            }
+
+            channel.suspendWrites(); // wait for the next event
+        } catch (IOException e) {
+            abort();
+        }
+    }
+
+    /** Writes the queued events, returning false if the channel is not writable before the queue is empty. */
+    private boolean writeQueue() throws IOException {
+        ByteBuffer[] buffers = peekQueue();
+        while (buffers.length > 0) {
+            long writeLength = channel.write(buffers);
+            bufferedBytes.addAndGet(-writeLength);
+            for (ByteBuffer buffer : buffers) {
+                if (buffer.hasRemaining()) {
+                    return false;
+                }
+
+                queue.poll();
+            }
+
+            wroteSinceHeartbeat = true;
+            buffers = peekQueue();
+        }
+        return channel.flush();
+    }
+
+    /** Gets the buffers at the head of the queue, without removing them; only the IO thread removes buffers. */
+    private ByteBuffer[] peekQueue() {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        Iterator<ByteBuffer> iterator = queue.iterator();
+        while (iterator.hasNext() && (buffers.size() < MAX_BUFFERS_PER_WRITE)) {
+            buffers.add(iterator.next());
+        }
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
+    /** Queues bytes to write, closing the connection if the client has fallen too far behind. */
+    private boolean tryEnqueue(ByteBuffer buffer) {
+        if (bufferedBytes.addAndGet(buffer.remaining()) > maxBufferedBytes) {
+            abort();
+            return false;
+        }
+
+        queue.add(buffer);
+        return true;
+    }
+
+    /** Wakes up the writer on the IO thread. */
+    private void wakeUp() {
+        if (!isWakeUpScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        ioThread.execute(() -> {
+            isWakeUpScheduled.set(false);
+            if (!isEnded) {
+                channel.resumeWrites();
+            }
+        });
+    }
+
+    /** Schedules the next heartbeat, which is only sent if nothing else was written in the meantime. */
+    private void scheduleHeartbeat() {
+        heartbeatKey = ioThread.executeAfter(this::heartbeat, heartbeatInterval);
+    }
+
+    /** Sends a heartbeat comment if needed, which keeps proxies from timing out and detects a disconnected client. */
+    private void heartbeat() {
+        if (isEnded || !isOpen) {
+            return;
+        }
+
+        if (!wroteSinceHeartbeat && tryEnqueue(ByteBuffer.wrap(HEARTBEAT))) {
+            channel.resumeWrites();
+        }
+
+        wroteSinceHeartbeat = false;
+        scheduleHeartbeat();
+    }
+
+    /** Aborts the event stream, closing the connection. */
+    private void abort() {
+        isOpen = false;
+        IoUtils.safeClose(httpExchange.getConnection());
+        ioThread.execute(this::end);
+    }
+
+    /** Ends the event stream on the IO thread. This method is idempotent. */
+    private void end() {
+        isOpen = false;
+        if (isEnded) {
+            return;
+        }
+
+        isEnded = true;
+        ScheduledExecutor.Key heartbeatKey = this.heartbeatKey;
+        if (heartbeatKey != null) {
+            heartbeatKey.cancel();
+        }
+        queue.clear();
+    }
+
+    /**
+     * Encodes an event. Serialized JSON does not contain a line break, but raw JSON may be pretty-printed,
+     * so each line of the data gets its own data line; a client joins those lines back together.
+     */
+    private static ByteBuffer encodeEvent(String eventType, byte[] rawEvent) {
+        byte[] rawEventType = (eventType != null) ? eventType.getBytes(StandardCharsets.UTF_8) : null;
+        int eventTypeLength = (rawEventType != null) ? (EVENT_PREFIX.length + rawEventType.length + 1) : 0;
+        int lineBreakCount = countLineBreaks(rawEvent);
+        int dataLength = (lineBreakCount + 1) * (DATA_PREFIX.length + 1) + rawEvent.length;
+        ByteBuffer buffer = ByteBuffer.allocate(eventTypeLength + dataLength + 1);
+        if (rawEventType != null) {
+            buffer.put(EVENT_PREFIX).put(rawEventType).put((byte) '\n');
+        }
+        buffer.put(DATA_PREFIX);
+        for (int i = 0; i < rawEvent.length; ++i) {
+            byte b = rawEvent[i];
+            if ((b != '\r') && (b != '\n')) {
+                buffer.put(b);
+                continue;
+            }
+
+            if ((b == '\r') && (i + 1 < rawEvent.length) && (rawEvent[i + 1] == '\n')) {
+                ++i; // CRLF is a single line break
+            }
+            buffer.put((byte) '\n').put(DATA_PREFIX);
+        }
+        buffer.put((byte) '\n').put((byte) '\n');
+        return buffer.flip();
+    }
+
+    /** Counts the line breaks in the data of an event, where CR, LF, and CRLF are each a single line break. */
+    private static int countLineBreaks(byte[] rawEvent) {
+        int lineBreakCount = 0;
+        for (int i = 0; i < rawEvent.length; ++i) {
+            if (rawEvent[i] == '\n') {
+                ++lineBreakCount;
+            } else if (rawEvent[i] == '\r') {
+                ++lineBreakCount;
+                if ((i + 1 < rawEvent.length) && (rawEvent[i + 1] == '\n')) {
+                    ++i;
+                }
+            }
+        }
+        return lineBreakCount;
+    }
+
+    private UndertowEventChannel(HttpServerExchange httpExchange, Duration heartbeatInterval, long maxBufferedBytes) {
+        this.httpExchange = httpExchange;
+        this.channel = httpExchange.getResponseChannel();
+        this.ioThread = UndertowDispatcher.getIoThread(httpExchange);
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /** Channel for an event stream that could not be started. */
+    private static final class ClosedChannel<V> implements Sender.Events.Channel<V> {
+
+        @Override
+        public boolean push(V event) {
+            return false;
+        }
+
+        @Override
+        public boolean push(String eventType, V event) {
+            return false;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return false;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -3,12 +3,26 @@ package io.github.mikewacker.drift.endpoint;
 import io.github.mikewacker.drift.api.Sender;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.AttachmentKey;
+import java.time.Duration;
 import java.util.List;
 
 /** An HTTP handler for Undertow that invokes an API handler, using JSON as the wire format. */
 public final class UndertowJsonApiHandler implements HttpHandler, JsonApiHandler<HttpServerExchange> {
 
+    /** Attachment for the limits on the HTTP request body, if the route has limits. */
+    static final AttachmentKey<BodyLimits> BODY_LIMITS = AttachmentKey.create(BodyLimits.class);
+
+    /** Attachment for the compression of the JSON responses, if the route compresses its responses. */
+    static final AttachmentKey<ResponseCompression> RESPONSE_COMPRESSION =
+            AttachmentKey.create(ResponseCompression.class);
+
+    /** Attachment that is present if an {@code ETag} is computed for the JSON responses of the route. */
+    static final AttachmentKey<Boolean> COMPUTE_ETAGS = AttachmentKey.create(Boolean.class);
+
     private final JsonApiHandler<HttpServerExchange> delegate;
+    private final BodyLimits bodyLimits; // null if not limited
+    private final ResponseCompression responseCompression; // null if not compressed
 
     /**
      * Creates a builder for an HTTP handler that invokes an API handler.
@@ -29,8 +43,35 @@ public final class UndertowJsonApiHandler implements HttpHandler, JsonApiHandler
         return delegate.getRelativePathSegments();
     }
 
+    @Override
+    public BodyLimits getBodyLimits() {
+        return delegate.getBodyLimits();
+    }
+
+    @Override
+    public ResponseCompression getResponseCompression() {
+        return delegate.getResponseCompression();
+    }
+
+    @Override
+    public boolean isComputingETags() {
+        return delegate.isComputingETags();
+    }
+
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
+        if (bodyLimits != null) {
+            exchange.putAttachment(BODY_LIMITS, bodyLimits);
+        }
+
+        if (responseCompression != null) {
+            exchange.putAttachment(RESPONSE_COMPRESSION, responseCompression);
+        }
+
+        if (delegate.isComputingETags()) {
+            exchange.putAttachment(COMPUTE_ETAGS, true);
+        }
+
         try {
             delegate.handleRequest(exchange);
         } catch (TunneledException e) {
@@ -40,6 +81,10 @@ public final class UndertowJsonApiHandler implements HttpHandler, JsonApiHandler
 
     private UndertowJsonApiHandler(JsonApiHandler<HttpServerExchange> delegate) {
         this.delegate = delegate;
+        BodyLimits bodyLimits = delegate.getBodyLimits();
+        this.bodyLimits = bodyLimits.isLimited() ? bodyLimits : null;
+        ResponseCompression responseCompression = delegate.getResponseCompression();
+        this.responseCompression = responseCompression.isEnabled() ? responseCompression : null;
     }
 
     /** Internal {@code PreArgStageBuilder} implementation. */
@@ -58,6 +103,22 @@ public final class UndertowJsonApiHandler implements HttpHandler, JsonApiHandler
             return UndertowSender.JsonValue::create;
         }
 
+        @Override
+        protected <I>
+                GenericJsonApiHandler.SenderFactory<HttpServerExchange, Sender.Stream<I>> getJsonStreamSenderFactory(
+                        StreamFormat format) {
+            return switch (format) {
+                case JSON_ARRAY -> UndertowSender.JsonStream::jsonArray;
+                case JSON_LINES -> UndertowSender.JsonStream::jsonLines;
+            };
+        }
+
+        @Override
+        protected <V> GenericJsonApiHandler.SenderFactory<HttpServerExchange, Sender.Events<V>> getEventsSenderFactory(
+                Duration heartbeatInterval, long maxBufferedBytes) {
+            return httpExchange -> UndertowSender.Events.create(httpExchange, heartbeatInterval, maxBufferedBytes);
+        }
+
         @Override
         protected GenericJsonApiHandler.DispatcherFactory<HttpServerExchange> getDispatcherFactory() {
             return UndertowDispatcher::create;
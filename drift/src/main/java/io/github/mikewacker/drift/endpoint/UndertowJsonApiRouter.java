@@ -1,9 +1,9 @@
 package io.github.mikewacker.drift.endpoint;
 
-import io.github.mikewacker.drift.api.Sender;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
-import java.util.Optional;
+import io.undertow.util.AttachmentKey;
+import java.util.List;
 
 /**
  * An HTTP handler for Undertow that routes each HTTP request to an HTTP handler for an API handler.
@@ -11,34 +11,34 @@ import java.util.Optional;
  */
 public final class UndertowJsonApiRouter extends GenericJsonApiRouter<HttpServerExchange> implements HttpHandler {
 
+    /** Attachment for the path parameters of the matched route. */
+    static final AttachmentKey<PathParams> PATH_PARAMS = AttachmentKey.create(PathParams.class);
+
     /**
-     * Creates a router.
+     * Creates a router. The routes are compiled when the router is created.
      *
      * @param httpHandlers a list of HTTP handlers for the API handlers
      * @return an {@link HttpHandler} that acts as a router
+     * @throws IllegalArgumentException if multiple HTTP handlers have the same route,
+     *     or if a route has an invalid path parameter
      */
     public static HttpHandler of(UndertowJsonApiHandler... httpHandlers) {
-        UndertowJsonApiRouter router = new UndertowJsonApiRouter();
-        for (UndertowJsonApiHandler httpHandler : httpHandlers) {
-            router.addHttpHandler(httpHandler);
-        }
-        return router;
+        return new UndertowJsonApiRouter(List.of(httpHandlers));
     }
 
     @Override
-    protected Sender createErrorCodeSender(HttpServerExchange httpExchange) {
-        return UndertowSender.StatusCode.create(httpExchange);
+    protected void sendErrorCode(HttpServerExchange httpExchange, int errorCode) {
+        UndertowSender.sendStatusCode(httpExchange, errorCode);
     }
 
     @Override
-    protected Optional<HttpMethod> tryGetMethod(HttpServerExchange httpExchange) {
-        String rawMethod = httpExchange.getRequestMethod().toString();
-        try {
-            HttpMethod method = HttpMethod.valueOf(rawMethod);
-            return Optional.of(method);
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
+    protected void setPathParams(HttpServerExchange httpExchange, PathParams pathParams) {
+        httpExchange.putAttachment(PATH_PARAMS, pathParams);
+    }
+
+    @Override
+    protected String getMethod(HttpServerExchange httpExchange) {
+        return httpExchange.getRequestMethod().toString();
     }
 
     @Override
@@ -46,5 +46,7 @@ public final class UndertowJsonApiRouter extends GenericJsonApiRouter<HttpServer
         return httpExchange.getRelativePath();
     }
 
-    private UndertowJsonApiRouter() {}
+    private UndertowJsonApiRouter(List<UndertowJsonApiHandler> httpHandlers) {
+        super(httpHandlers);
+    }
 }
@@ -3,14 +3,38 @@ package io.github.mikewacker.drift.endpoint;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
 import io.github.mikewacker.drift.json.JsonValues;
+import io.github.mikewacker.drift.json.RawJson;
+import io.undertow.io.IoCallback;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.ETag;
+import io.undertow.util.ETagUtils;
 import io.undertow.util.Headers;
+import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
+import io.undertow.util.StatusCodes;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
 import org.xnio.IoUtils;
 
 /** {@code Sender} that is backed by an Undertow {@code HttpServerExchange}. */
 interface UndertowSender {
 
+    /** Sends a status code without a body, without allocating a sender. */
+    static void sendStatusCode(HttpServerExchange httpExchange, int statusCode) {
+        if (!safeCheckResponseNotStarted(httpExchange)) {
+            return;
+        }
+
+        httpExchange.setStatusCode(statusCode);
+        httpExchange.endExchange();
+    }
+
     /** Checks that the response has not started, safely closing the connection if it has started. */
     private static boolean safeCheckResponseNotStarted(HttpServerExchange httpExchange) {
         if (httpExchange.isResponseStarted()) {
@@ -33,12 +57,7 @@ interface UndertowSender {
 
         @Override
         public void send(int statusCode) {
-            if (!safeCheckResponseNotStarted(httpExchange)) {
-                return;
-            }
-
-            httpExchange.setStatusCode(statusCode);
-            httpExchange.endExchange();
+            sendStatusCode(httpExchange, statusCode);
         }
 
         private StatusCode(HttpServerExchange httpExchange) {
@@ -46,7 +65,23 @@ interface UndertowSender {
         }
     }
 
-    /** {@code Sender.Value} that is backed by an Undertow {@code HttpServerExchange}, serializing values as JSON. */
+    /**
+     * {@code Sender.Value} that is backed by an Undertow {@code HttpServerExchange}, serializing values as JSON.
+     * <p>
+     * A value is serialized directly into buffers from the buffer pool of the connection, instead of into an array.
+     * The exact {@code Content-Length} is set, all the buffers are sent in a single gathering write,
+     * and the buffers are returned to the pool once they have been sent.
+     * <p>
+     * A {@link RawJson} value is already encoded, so its bytes are sent as is, without being serialized again.
+     * <p>
+     * If the route compresses responses, a large enough response is compressed from the pooled buffers
+     * into other pooled buffers, using the encoding negotiated from {@code Accept-Encoding}.
+     * A precompressed {@link RawJson} value sends its gzip copy as is to clients that accept gzip.
+     * <p>
+     * If the route computes an {@code ETag}, it is a hash of the serialized bytes, and a matching conditional
+     * request receives a 304 response without a body. A versioned value uses its version as the {@code ETag}
+     * instead, so a matching conditional request is answered before the value is even serialized.
+     */
     final class JsonValue<V> implements Sender.Value<V> {
 
         private final HttpServerExchange httpExchange;
@@ -69,13 +104,267 @@ interface UndertowSender {
             }
             V value = maybeValue.get();
 
-            byte[] rawValue = JsonValues.serialize(value);
             httpExchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
-            httpExchange.getResponseSender().send(ByteBuffer.wrap(rawValue));
+            ResponseCompression compression = httpExchange.getAttachment(UndertowJsonApiHandler.RESPONSE_COMPRESSION);
+            boolean isComputingETag = (httpExchange.getAttachment(UndertowJsonApiHandler.COMPUTE_ETAGS) != null)
+                    && !httpExchange.getResponseHeaders().contains(Headers.ETAG);
+            if (value instanceof RawJson rawValue) {
+                if (isComputingETag && trySendNotModified(computeETag(rawValue.asByteBuffer()))) {
+                    return;
+                }
+
+                sendRawJson(rawValue, compression);
+                return;
+            }
+
+            PooledBufferOutputStream rawValueStream =
+                    PooledBufferOutputStream.create(httpExchange.getConnection().getByteBufferPool());
+            try {
+                JsonValues.serialize(value, rawValueStream);
+            } catch (RuntimeException e) {
+                rawValueStream.release();
+                throw e;
+            }
+
+            ByteBuffer[] rawValueBuffers = rawValueStream.flipBuffers();
+            if (isComputingETag && trySendNotModified(computeETag(rawValueBuffers))) {
+                rawValueStream.release();
+                return;
+            }
+
+            String encoding = tryNegotiateEncoding(compression, rawValueStream.size());
+            if (encoding == null) {
+                sendPooledBuffers(rawValueStream, rawValueBuffers);
+                return;
+            }
+
+            try {
+                sendCompressed(rawValueBuffers, encoding, compression);
+            } finally {
+                rawValueStream.release();
+            }
+        }
+
+        @Override
+        public void sendVersionedValue(String version, Supplier<? extends V> valueSupplier) {
+            if (version.indexOf('"') >= 0) {
+                throw new IllegalArgumentException("version must not contain a double quote");
+            }
+
+            if (!safeCheckResponseNotStarted(httpExchange)) {
+                return;
+            }
+
+            if (trySendNotModified(new ETag(true, version))) {
+                return;
+            }
+
+            sendValue(valueSupplier.get());
+        }
+
+        /**
+         * Sets the {@code ETag} of the response, and then sends a 304 status code without a body
+         * if the request is a {@code GET} or {@code HEAD} request and the {@code ETag} matches {@code If-None-Match}.
+         */
+        private boolean trySendNotModified(ETag etag) {
+            httpExchange.getResponseHeaders().put(Headers.ETAG, etag.toString());
+            HttpString method = httpExchange.getRequestMethod();
+            if (!method.equals(Methods.GET) && !method.equals(Methods.HEAD)) {
+                return false;
+            }
+
+            if (ETagUtils.handleIfNoneMatch(httpExchange, etag, true)) {
+                return false;
+            }
+
+            httpExchange.getResponseHeaders().remove(Headers.CONTENT_TYPE);
+            if (httpExchange.getAttachment(UndertowJsonApiHandler.RESPONSE_COMPRESSION) != null) {
+                httpExchange.getResponseHeaders().put(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+            }
+
+            httpExchange.setStatusCode(StatusCodes.NOT_MODIFIED);
+            httpExchange.endExchange();
+            return true;
+        }
+
+        /** Computes a weak {@code ETag} from the size and the CRC-32C checksum of the serialized bytes. */
+        private static ETag computeETag(ByteBuffer... buffers) {
+            CRC32C crc = new CRC32C();
+            long size = 0;
+            for (ByteBuffer buffer : buffers) {
+                size += buffer.remaining();
+                crc.update(buffer.duplicate());
+            }
+            return new ETag(true, Long.toHexString(size) + "-" + Long.toHexString(crc.getValue()));
+        }
+
+        /** Sends a raw value, preferring its gzip copy if it is precompressed and the client accepts gzip. */
+        private void sendRawJson(RawJson rawValue, ResponseCompression compression) {
+            Optional<ByteBuffer> maybeGzipValue = rawValue.asGzipByteBuffer();
+            if (maybeGzipValue.isPresent()) {
+                httpExchange.getResponseHeaders().put(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+                if (ResponseCompressor.acceptsGzip(
+                        httpExchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING))) {
+                    httpExchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, ResponseCompressor.GZIP);
+                    httpExchange.getResponseSender().send(maybeGzipValue.get());
+                    return;
+                }
+            }
+
+            String encoding = tryNegotiateEncoding(compression, rawValue.size());
+            if (encoding == null) {
+                httpExchange.getResponseSender().send(rawValue.asByteBuffer());
+                return;
+            }
+
+            sendCompressed(new ByteBuffer[] {rawValue.asByteBuffer()}, encoding, compression);
+        }
+
+        /**
+         * Negotiates the encoding of a response if the route compresses responses of this size,
+         * or returns null if the response is sent as is.
+         */
+        private String tryNegotiateEncoding(ResponseCompression compression, long size) {
+            if (compression == null) {
+                return null;
+            }
+
+            httpExchange.getResponseHeaders().put(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+            if (size < compression.getMinSize()) {
+                return null;
+            }
+
+            return ResponseCompressor.negotiate(httpExchange.getRequestHeaders().get(Headers.ACCEPT_ENCODING));
+        }
+
+        /** Compresses the contents of the buffers into pooled buffers, and then sends them. */
+        private void sendCompressed(ByteBuffer[] buffers, String encoding, ResponseCompression compression) {
+            PooledBufferOutputStream encodedStream = ResponseCompressor.compress(
+                    buffers,
+                    encoding,
+                    compression.getLevel(),
+                    httpExchange.getConnection().getByteBufferPool());
+            httpExchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, encoding);
+            sendPooledBuffers(encodedStream, encodedStream.flipBuffers());
+        }
+
+        /** Sends the flipped buffers of a pooled stream with the exact length, releasing them once they are sent. */
+        private void sendPooledBuffers(PooledBufferOutputStream stream, ByteBuffer[] buffers) {
+            httpExchange.setResponseContentLength(stream.size());
+            httpExchange.getResponseSender().send(buffers, new ReleaseBuffersCallback(stream));
         }
 
         private JsonValue(HttpServerExchange httpExchange) {
             this.httpExchange = httpExchange;
         }
     }
+
+    /** Callback that returns the pooled buffers of a response once they have been sent, and then ends the exchange. */
+    record ReleaseBuffersCallback(PooledBufferOutputStream stream) implements IoCallback {
+
+        @Override
+        public void onComplete(HttpServerExchange httpExchange, io.undertow.io.Sender sender) {
+            stream.release();
+            IoCallback.END_EXCHANGE.onComplete(httpExchange, sender);
+        }
+
+        @Override
+        public void onException(HttpServerExchange httpExchange, io.undertow.io.Sender sender, IOException exception) {
+            stream.release();
+            IoCallback.END_EXCHANGE.onException(httpExchange, sender, exception);
+        }
+    }
+
+    /**
+     * {@code Sender.Stream} that is backed by an Undertow {@code HttpServerExchange}, streaming items as JSON.
+     * <p>
+     * The items are written onto the non-blocking response channel with chunked encoding, in batches;
+     * the next batch is only pulled from the producer once the previous batch has been written.
+     */
+    final class JsonStream<I> implements Sender.Stream<I> {
+
+        private final HttpServerExchange httpExchange;
+        private final StreamFormat format;
+
+        /** Creates the response sender from the HTTP exchange, streaming the items as a JSON array. */
+        public static <I> Sender.Stream<I> jsonArray(HttpServerExchange httpExchange) {
+            return new JsonStream<>(httpExchange, StreamFormat.JSON_ARRAY);
+        }
+
+        /** Creates the response sender from the HTTP exchange, streaming the items as newline-delimited JSON. */
+        public static <I> Sender.Stream<I> jsonLines(HttpServerExchange httpExchange) {
+            return new JsonStream<>(httpExchange, StreamFormat.JSON_LINES);
+        }
+
+        @Override
+        public void sendItems(Iterator<? extends I> items) {
+            if (!safeCheckResponseNotStarted(httpExchange)) {
+                return;
+            }
+
+            httpExchange.getResponseHeaders().put(Headers.CONTENT_TYPE, format.getContentType());
+            JsonStreamWriter.start(httpExchange, format, items);
+        }
+
+        @Override
+        public void sendItems(Flow.Publisher<? extends I> items) {
+            if (!safeCheckResponseNotStarted(httpExchange)) {
+                return;
+            }
+
+            httpExchange.getResponseHeaders().put(Headers.CONTENT_TYPE, format.getContentType());
+            JsonStreamWriter.start(httpExchange, format, items);
+        }
+
+        @Override
+        public void sendErrorCode(int errorCode) {
+            sendStatusCode(httpExchange, errorCode);
+        }
+
+        private JsonStream(HttpServerExchange httpExchange, StreamFormat format) {
+            this.httpExchange = httpExchange;
+            this.format = format;
+        }
+    }
+
+    /**
+     * {@code Sender.Events} that is backed by an Undertow {@code HttpServerExchange}, pushing events as JSON.
+     * <p>
+     * The exchange stays open while events are pushed, but no thread is held: events are written by the IO thread,
+     * and heartbeats are scheduled on the IO thread.
+     */
+    final class Events<V> implements Sender.Events<V> {
+
+        private final HttpServerExchange httpExchange;
+        private final Duration heartbeatInterval;
+        private final long maxBufferedBytes;
+
+        /** Creates the response sender from the HTTP exchange. */
+        public static <V> Sender.Events<V> create(
+                HttpServerExchange httpExchange, Duration heartbeatInterval, long maxBufferedBytes) {
+            return new UndertowSender.Events<>(httpExchange, heartbeatInterval, maxBufferedBytes);
+        }
+
+        @Override
+        public Channel<V> sendEvents() {
+            if (!safeCheckResponseNotStarted(httpExchange)) {
+                return UndertowEventChannel.closed();
+            }
+
+            httpExchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/event-stream");
+            httpExchange.getResponseHeaders().put(Headers.CACHE_CONTROL, "no-cache");
+            return UndertowEventChannel.start(httpExchange, heartbeatInterval, maxBufferedBytes);
+        }
+
+        @Override
+        public void sendErrorCode(int errorCode) {
+            sendStatusCode(httpExchange, errorCode);
+        }
+
+        private Events(HttpServerExchange httpExchange, Duration heartbeatInterval, long maxBufferedBytes) {
+            this.httpExchange = httpExchange;
+            this.heartbeatInterval = heartbeatInterval;
+            this.maxBufferedBytes = maxBufferedBytes;
+        }
+    }
 }
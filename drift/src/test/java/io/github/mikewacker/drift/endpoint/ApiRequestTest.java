@@ -14,147 +14,296 @@ public final class ApiRequestTest {
 
     private FakeSender.Value<Integer> sender;
     private Dispatcher dispatcher;
+    private ArgExtractor.Callback<Integer> deferredCallback;
+    private ArgExtractor.Callback<Integer> independentCallback;
 
     @BeforeEach
     public void createSenderAndDispatcher() {
         sender = FakeSender.Value.create();
         dispatcher = StubDispatcher.get();
+        deferredCallback = null;
+        independentCallback = null;
     }
 
     @Test
     public void handleApiRequest_ZeroArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Void, Void, Void, Void, Void, Void, Void, Void> requestFactory =
-                ApiRequest.Factory.zeroArg(Adder::add0);
-        ApiRequest<Sender.Value<Integer>, Void, Void, Void, Void, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.zeroArg(Adder::add0);
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add0");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(0));
     }
 
     @Test
     public void handleApiRequest_OneArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Void, Void, Void, Void, Void, Void, Void> requestFactory =
-                ApiRequest.Factory.oneArg(Adder::add1);
-        ApiRequest<Sender.Value<Integer>, Integer, Void, Void, Void, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.oneArg(Adder::add1, syncIntValue(0));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add1", "1");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(1));
     }
 
     @Test
     public void handleApiRequest_TwoArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Void, Void, Void, Void, Void, Void> requestFactory =
-                ApiRequest.Factory.twoArg(Adder::add2);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Void, Void, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, syncIntValue(0), syncIntValue(1));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(3));
     }
 
     @Test
     public void handleApiRequest_ThreeArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Integer, Void, Void, Void, Void, Void>
-                requestFactory = ApiRequest.Factory.threeArg(Adder::add3);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Void, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.threeArg(Adder::add3, syncIntValue(0), syncIntValue(1), syncIntValue(2));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add3", "1", "2", "3");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(6));
     }
 
     @Test
     public void handleApiRequest_FourArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Void, Void, Void, Void>
-                requestFactory = ApiRequest.Factory.fourArg(Adder::add4);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.setArg4(4);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.fourArg(
+                Adder::add4, syncIntValue(0), syncIntValue(1), syncIntValue(2), syncIntValue(3));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add4", "1", "2", "3", "4");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(10));
     }
 
     @Test
     public void handleApiRequest_FiveArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Void, Void, Void>
-                requestFactory = ApiRequest.Factory.fiveArg(Adder::add5);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.setArg4(4);
-        request.setArg5(5);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.fiveArg(
+                Adder::add5, syncIntValue(0), syncIntValue(1), syncIntValue(2), syncIntValue(3), syncIntValue(4));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add5", "1", "2", "3", "4", "5");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(15));
     }
 
     @Test
     public void handleApiRequest_SixArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Void, Void>
-                requestFactory = ApiRequest.Factory.sixArg(Adder::add6);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.setArg4(4);
-        request.setArg5(5);
-        request.setArg6(6);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.sixArg(
+                Adder::add6,
+                syncIntValue(0),
+                syncIntValue(1),
+                syncIntValue(2),
+                syncIntValue(3),
+                syncIntValue(4),
+                syncIntValue(5));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add6", "1", "2", "3", "4", "5", "6");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(21));
     }
 
     @Test
     public void handleApiRequest_SevenArg() throws Exception {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Void>
-                requestFactory = ApiRequest.Factory.sevenArg(Adder::add7);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.setArg4(4);
-        request.setArg5(5);
-        request.setArg6(6);
-        request.setArg7(7);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.sevenArg(
+                Adder::add7,
+                syncIntValue(0),
+                syncIntValue(1),
+                syncIntValue(2),
+                syncIntValue(3),
+                syncIntValue(4),
+                syncIntValue(5),
+                syncIntValue(6));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add7", "1", "2", "3", "4", "5", "6", "7");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(28));
     }
 
     @Test
     public void handleApiRequest_EightArg() throws Exception {
-        ApiRequest.Factory<
-                        Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>
-                requestFactory = ApiRequest.Factory.eightArg(Adder::add8);
-        ApiRequest<Sender.Value<Integer>, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>
-                request = requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.setArg1(1);
-        request.setArg2(2);
-        request.setArg3(3);
-        request.setArg4(4);
-        request.setArg5(5);
-        request.setArg6(6);
-        request.setArg7(7);
-        request.setArg8(8);
-        request.handle();
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.eightArg(
+                Adder::add8,
+                syncIntValue(0),
+                syncIntValue(1),
+                syncIntValue(2),
+                syncIntValue(3),
+                syncIntValue(4),
+                syncIntValue(5),
+                syncIntValue(6),
+                syncIntValue(7));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add8", "1", "2", "3", "4", "5", "6", "7", "8");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.of(36));
     }
 
     @Test
-    public void sendErrorCode() {
-        ApiRequest.Factory<Sender.Value<Integer>, Integer, Void, Void, Void, Void, Void, Void, Void> requestFactory =
-                ApiRequest.Factory.oneArg(Adder::add1);
-        ApiRequest<Sender.Value<Integer>, Integer, Void, Void, Void, Void, Void, Void, Void> request =
-                requestFactory.createWithUnsetArgs(sender, dispatcher);
-        request.sendErrorCode(HttpOptional.empty(400));
+    public void handleApiRequest_AsyncArgs() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.eightArg(
+                Adder::add8,
+                syncIntValue(0),
+                asyncIntValue(1),
+                syncIntValue(2),
+                asyncIntValue(3),
+                asyncIntValue(4),
+                syncIntValue(5),
+                syncIntValue(6),
+                asyncIntValue(7));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add8", "1", "2", "3", "4", "5", "6", "7", "8");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).hasValue(HttpOptional.of(36));
+    }
+
+    @Test
+    public void handleApiRequest_DeferredArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), syncIntValue(1));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).isEmpty();
+
+        deferredCallback.onArgExtracted(HttpOptional.of(1));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.of(3));
+    }
+
+    @Test
+    public void handleApiRequest_ArgPositions() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.threeArg(
+                (sender, a1, a2, a3, dispatcher) -> sender.sendValue(100 * a1 + 10 * a2 + a3),
+                asyncIntValue(0),
+                syncIntValue(1),
+                asyncIntValue(2));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/digits", "1", "2", "3");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).hasValue(HttpOptional.of(123));
+    }
+
+    @Test
+    public void handleApiRequest_IndependentArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), independentIntValue());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(deferredCallback).isNotNull();
+        assertThat(independentCallback).isNotNull();
+
+        independentCallback.onArgExtracted(HttpOptional.of(2));
+        assertThat(sender.tryGet()).isEmpty();
+
+        deferredCallback.onArgExtracted(HttpOptional.of(1));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.of(3));
+    }
+
+    @Test
+    public void handleApiRequest_IndependentArgFinishesLast() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), independentIntValue());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+
+        deferredCallback.onArgExtracted(HttpOptional.of(1));
+        assertThat(sender.tryGet()).isEmpty();
+
+        independentCallback.onArgExtracted(HttpOptional.of(2));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.of(3));
+    }
+
+    @Test
+    public void sendErrorCode_SyncArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, syncIntValue(0), syncIntValue(1));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "a");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(400));
+    }
+
+    @Test
+    public void sendErrorCode_AsyncArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, asyncIntValue(0), syncIntValue(1));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "a", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(400));
+    }
+
+    @Test
+    public void sendErrorCode_SyncArgBeforeAsyncArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), syncIntValue(1));
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "a");
+        handler.handleRequest(httpExchange, sender, dispatcher);
         assertThat(sender.tryGet()).hasValue(HttpOptional.empty(400));
+        assertThat(deferredCallback).isNull();
+    }
+
+    @Test
+    public void sendErrorCode_IndependentArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), independentIntValue());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+
+        independentCallback.onArgExtracted(HttpOptional.empty(401));
+        assertThat(sender.tryGet()).isEmpty();
+
+        deferredCallback.onArgExtracted(HttpOptional.empty(400));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(401));
+    }
+
+    @Test
+    public void sendErrorCode_IndependentArg_DeferredUntilAsyncArgReturns() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), independentIntValue());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+
+        // The async arg is still pending, e.g., the request body is still being read on the I/O thread.
+        independentCallback.onArgExtracted(HttpOptional.empty(401));
+        assertThat(sender.tryGet()).isEmpty();
+
+        deferredCallback.onArgExtracted(HttpOptional.of(1));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(401));
+    }
+
+    @Test
+    public void sendErrorCode_IndependentArg_AfterAsyncArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler =
+                ApiRequest.Handler.twoArg(Adder::add2, deferredIntValue(), independentIntValue());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "2");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+
+        deferredCallback.onArgExtracted(HttpOptional.of(1));
+        assertThat(sender.tryGet()).isEmpty();
+
+        independentCallback.onArgExtracted(HttpOptional.empty(401));
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(401));
+    }
+
+    @Test
+    public void sendErrorCode_IndependentArgBeforeAsyncArg() throws Exception {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler = ApiRequest.Handler.twoArg(
+                Adder::add2, deferredIntValue(), asyncIntValue(1).independent());
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/add2", "1", "a");
+        handler.handleRequest(httpExchange, sender, dispatcher);
+        assertThat(sender.tryGet()).hasValue(HttpOptional.empty(400));
+        assertThat(deferredCallback).isNull();
+    }
+
+    @Test
+    public void specialize() {
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler1 =
+                ApiRequest.Handler.oneArg(Adder::add1, syncIntValue(0));
+        ApiRequest.Handler<StubHttpExchange, Sender.Value<Integer>> handler2 =
+                ApiRequest.Handler.oneArg(Adder::add1, syncIntValue(0));
+        assertThat(handler1.getClass().isHidden()).isTrue();
+        assertThat(handler1.getClass()).isNotEqualTo(handler2.getClass());
+    }
+
+    private static ArgExtractor.Async<StubHttpExchange, Integer> syncIntValue(int index) {
+        return StubArgs.intValue(index).async();
+    }
+
+    private static ArgExtractor.Async<StubHttpExchange, Integer> asyncIntValue(int index) {
+        ArgExtractor<StubHttpExchange, Integer> argExtractor = StubArgs.intValue(index);
+        return (httpExchange, callback) -> callback.onArgExtracted(argExtractor.tryExtract(httpExchange));
+    }
+
+    private ArgExtractor.Async<StubHttpExchange, Integer> deferredIntValue() {
+        return (httpExchange, callback) -> deferredCallback = callback;
+    }
+
+    private ArgExtractor.Async<StubHttpExchange, Integer> independentIntValue() {
+        ArgExtractor.Async<StubHttpExchange, Integer> argExtractor =
+                (httpExchange, callback) -> independentCallback = callback;
+        return argExtractor.independent();
     }
 }
@@ -2,8 +2,13 @@ package io.github.mikewacker.drift.endpoint;
 
 import static io.github.mikewacker.drift.testing.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 public final class GenericJsonApiHandlerTest {
@@ -175,4 +180,168 @@ public final class GenericJsonApiHandlerTest {
         assertThat(httpHandler.getMethod()).isEqualTo(HttpMethod.GET);
         assertThat(httpHandler.getRelativePathSegments()).containsExactly("some", "path");
     }
+
+    @Test
+    public void getBodyLimits() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.POST, "/some/path")
+                .maxBodySize(1024)
+                .bodyReadTimeout(Duration.ofSeconds(10))
+                .minBodyThroughput(256)
+                .maxBodyCompressionRatio(20)
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        BodyLimits limits = httpHandler.getBodyLimits();
+        assertThat(limits.getMaxSize()).isEqualTo(OptionalLong.of(1024));
+        assertThat(limits.getReadTimeout()).contains(Duration.ofSeconds(10));
+        assertThat(limits.getMinBytesPerSecond()).isEqualTo(OptionalLong.of(256));
+        assertThat(limits.getMaxCompressionRatio()).isEqualTo(OptionalLong.of(20));
+    }
+
+    @Test
+    public void getBodyLimits_NotLimited() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.POST, "/some/path")
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        BodyLimits limits = httpHandler.getBodyLimits();
+        assertThat(limits.getMaxSize()).isEmpty();
+        assertThat(limits.getReadTimeout()).isEmpty();
+        assertThat(limits.getMinBytesPerSecond()).isEmpty();
+        assertThat(limits.getMaxCompressionRatio()).isEmpty();
+    }
+
+    @Test
+    public void getResponseCompression() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.GET, "/some/path")
+                .compressResponses(1024, 6)
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        ResponseCompression compression = httpHandler.getResponseCompression();
+        assertThat(compression.isEnabled()).isTrue();
+        assertThat(compression.getMinSize()).isEqualTo(1024);
+        assertThat(compression.getLevel()).isEqualTo(6);
+    }
+
+    @Test
+    public void getResponseCompression_NotCompressed() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.GET, "/some/path")
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        ResponseCompression compression = httpHandler.getResponseCompression();
+        assertThat(compression.isEnabled()).isFalse();
+    }
+
+    @Test
+    public void handleHttpRequest_StreamResponse() throws Exception {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.GET, "/range")
+                .jsonArrayResponse(new TypeReference<Integer>() {})
+                .arg(StubArgs.intValue(0))
+                .apiHandler((sender, end, dispatcher) ->
+                        sender.sendItems(IntStream.range(0, end).iterator()))
+                .build();
+        StubHttpExchange httpExchange = StubHttpExchange.of("GET", "/range", "3");
+        httpHandler.handleRequest(httpExchange);
+        assertThat(StubJsonApiHandler.getValueOrErrorCodeSent()).hasValue(List.of(0, 1, 2));
+    }
+
+    @Test
+    public void isComputingETags() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.GET, "/some/path")
+                .computeETags()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        assertThat(httpHandler.isComputingETags()).isTrue();
+    }
+
+    @Test
+    public void isComputingETags_NotComputed() {
+        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
+                .route(HttpMethod.GET, "/some/path")
+                .jsonResponse(new TypeReference<Integer>() {})
+                .apiHandler(Adder::add0)
+                .build();
+        assertThat(httpHandler.isComputingETags()).isFalse();
+    }
+
+    @Test
+    public void error_MaxBodySizeNotPositive() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.POST, "/some/path");
+        assertThatThrownBy(() -> builder.maxBodySize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maximum body size must be positive");
+    }
+
+    @Test
+    public void error_BodyReadTimeoutNotPositive() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.POST, "/some/path");
+        assertThatThrownBy(() -> builder.bodyReadTimeout(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("body read timeout must be positive");
+    }
+
+    @Test
+    public void error_MinBodyThroughputNotPositive() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.POST, "/some/path");
+        assertThatThrownBy(() -> builder.minBodyThroughput(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minimum body throughput must be positive");
+    }
+
+    @Test
+    public void error_MaxBodyCompressionRatioTooSmall() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.POST, "/some/path");
+        assertThatThrownBy(() -> builder.maxBodyCompressionRatio(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maximum body compression ratio must be at least 1");
+    }
+
+    @Test
+    public void error_ResponseCompressionMinSizeNegative() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.GET, "/some/path");
+        assertThatThrownBy(() -> builder.compressResponses(-1, 6))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("minimum response size to compress must not be negative");
+    }
+
+    @Test
+    public void error_ResponseCompressionLevelOutOfRange() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.GET, "/some/path");
+        assertThatThrownBy(() -> builder.compressResponses(1024, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("compression level must be between 1 and 9");
+    }
+
+    @Test
+    public void error_HeartbeatIntervalNotPositive() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.GET, "/some/path");
+        assertThatThrownBy(() -> builder.eventsResponse(new TypeReference<Integer>() {}, Duration.ZERO, 1024))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("heartbeat interval must be positive");
+    }
+
+    @Test
+    public void error_MaxBufferedEventSizeNotPositive() {
+        JsonApiHandler.ResponseTypeStageBuilder<StubHttpExchange, StubJsonApiHandler> builder =
+                StubJsonApiHandler.builder().route(HttpMethod.GET, "/some/path");
+        assertThatThrownBy(() -> builder.eventsResponse(new TypeReference<Integer>() {}, Duration.ofSeconds(1), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maximum buffered event size must be positive");
+    }
 }
@@ -14,11 +14,7 @@ public final class GenericJsonApiRouterTest {
 
     @BeforeAll
     public static void createStubJsonApiRouter() {
-        router = StubJsonApiRouter.of(StubJsonApiHandler.builder()
-                .route(HttpMethod.GET, "/some/path")
-                .statusCodeResponse()
-                .apiHandler(GenericJsonApiRouterTest::sendOk)
-                .build());
+        router = StubJsonApiRouter.of(createHttpHandler(HttpMethod.GET, "/some/path"));
     }
 
     @Test
@@ -29,6 +25,79 @@ public final class GenericJsonApiRouterTest {
         assertThat(StubJsonApiHandler.getStatusCodeSent()).isEqualTo(200);
     }
 
+    @Test
+    public void route_TrailingSlash() throws Exception {
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/some/path/");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        assertThat(StubJsonApiHandler.getStatusCodeSent()).isEqualTo(200);
+    }
+
+    @Test
+    public void route_RootPath() throws Exception {
+        StubJsonApiRouter router = StubJsonApiRouter.of(createHttpHandler(HttpMethod.GET, "/"));
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        assertThat(StubJsonApiHandler.getStatusCodeSent()).isEqualTo(200);
+    }
+
+    @Test
+    public void route_ManyRoutes() throws Exception {
+        StubJsonApiHandler[] httpHandlers = new StubJsonApiHandler[100];
+        for (int i = 0; i < httpHandlers.length; ++i) {
+            HttpMethod method = HttpMethod.values()[i % HttpMethod.values().length];
+            httpHandlers[i] = createHttpHandler(method, String.format("/path%d/sub%d", i / 10, i % 10));
+        }
+        StubJsonApiRouter router = StubJsonApiRouter.of(httpHandlers);
+        for (int i = 0; i < httpHandlers.length; ++i) {
+            HttpMethod method = HttpMethod.values()[i % HttpMethod.values().length];
+            StubHttpExchange exchange =
+                    new StubHttpExchange(method.name(), String.format("/path%d/sub%d", i / 10, i % 10));
+            router.handleRequest(exchange);
+            assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        }
+    }
+
+    @Test
+    public void route_PathParams() throws Exception {
+        StubJsonApiRouter router = StubJsonApiRouter.of(
+                createHttpHandler(HttpMethod.GET, "/users/{id}/orders/{orderId}"),
+                createHttpHandler(HttpMethod.GET, "/users/{id}"));
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/users/1/orders/2");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        assertThat(StubJsonApiRouter.tryGetPathParam("id")).hasValue("1");
+        assertThat(StubJsonApiRouter.tryGetPathParam("orderId")).hasValue("2");
+    }
+
+    @Test
+    public void route_StaticSegmentHasPriority() throws Exception {
+        StubJsonApiRouter router = StubJsonApiRouter.of(
+                createHttpHandler(HttpMethod.GET, "/users/{id}"),
+                createHttpHandler(HttpMethod.GET, "/users/me"),
+                createHttpHandler(HttpMethod.GET, "/users/me/orders/{orderId}"));
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/users/me");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        assertThat(StubJsonApiRouter.tryGetPathParam("id")).isEmpty();
+
+        exchange = new StubHttpExchange("GET", "/users/meow");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetPathParam("id")).hasValue("meow");
+    }
+
+    @Test
+    public void route_PathParamBacktracks() throws Exception {
+        StubJsonApiRouter router = StubJsonApiRouter.of(
+                createHttpHandler(HttpMethod.GET, "/users/me/settings"),
+                createHttpHandler(HttpMethod.GET, "/users/{id}/orders"));
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/users/me/orders");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).isEmpty();
+        assertThat(StubJsonApiRouter.tryGetPathParam("id")).hasValue("me");
+    }
+
     @Test
     public void notFound() throws Exception {
         StubHttpExchange exchange = new StubHttpExchange("GET", "/other/path");
@@ -36,6 +105,21 @@ public final class GenericJsonApiRouterTest {
         assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).hasValue(404);
     }
 
+    @Test
+    public void notFound_PathTooLong() throws Exception {
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/some/path/extra");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).hasValue(404);
+    }
+
+    @Test
+    public void notFound_PathParamEmpty() throws Exception {
+        StubJsonApiRouter router = StubJsonApiRouter.of(createHttpHandler(HttpMethod.GET, "/users/{id}/orders"));
+        StubHttpExchange exchange = new StubHttpExchange("GET", "/users//orders");
+        router.handleRequest(exchange);
+        assertThat(StubJsonApiRouter.tryGetErrorCodeSent()).hasValue(404);
+    }
+
     @Test
     public void methodNotAllowed() throws Exception {
         StubHttpExchange exchange = new StubHttpExchange("PUT", "/some/path");
@@ -52,16 +136,28 @@ public final class GenericJsonApiRouterTest {
 
     @Test
     public void error_RouteConflict() {
-        StubJsonApiHandler httpHandler = StubJsonApiHandler.builder()
-                .route(HttpMethod.GET, "/some/path")
-                .statusCodeResponse()
-                .apiHandler(GenericJsonApiRouterTest::sendOk)
-                .build();
+        StubJsonApiHandler httpHandler = createHttpHandler(HttpMethod.GET, "/some/path");
         assertThatThrownBy(() -> StubJsonApiRouter.of(httpHandler, httpHandler))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("multiple HTTP handlers have the same route");
     }
 
+    @Test
+    public void error_DuplicatePathParam() {
+        StubJsonApiHandler httpHandler = createHttpHandler(HttpMethod.GET, "/users/{id}/orders/{id}");
+        assertThatThrownBy(() -> StubJsonApiRouter.of(httpHandler))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("multiple path parameters have the same name");
+    }
+
+    private static StubJsonApiHandler createHttpHandler(HttpMethod method, String relativePath) {
+        return StubJsonApiHandler.builder()
+                .route(method, relativePath)
+                .statusCodeResponse()
+                .apiHandler(GenericJsonApiRouterTest::sendOk)
+                .build();
+    }
+
     private static void sendOk(Sender.StatusCode sender, Dispatcher dispatcher) {
         sender.sendOk();
     }
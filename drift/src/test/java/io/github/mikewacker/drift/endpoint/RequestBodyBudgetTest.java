@@ -0,0 +1,90 @@
+package io.github.mikewacker.drift.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public final class RequestBodyBudgetTest {
+
+    @Test
+    public void acquireAndRelease() {
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        budget.acquire(10);
+        assertThat(budget.getBufferedBytes()).isEqualTo(10);
+        assertThat(budget.isExhausted()).isFalse();
+        budget.acquire(10);
+        assertThat(budget.getBufferedBytes()).isEqualTo(20);
+        assertThat(budget.isExhausted()).isTrue();
+        budget.release(20);
+        assertThat(budget.getBufferedBytes()).isZero();
+    }
+
+    @Test
+    public void resumeWhenAvailable_Available() {
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        AtomicInteger resumeCount = new AtomicInteger();
+        budget.resumeWhenAvailable(8, resumeCount::incrementAndGet);
+        assertThat(resumeCount.get()).isEqualTo(1);
+        assertThat(budget.getBufferedBytes()).isEqualTo(8);
+    }
+
+    @Test
+    public void resumeWhenAvailable_Exhausted() {
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        AtomicInteger resumeCount = new AtomicInteger();
+        budget.acquire(32);
+        budget.resumeWhenAvailable(8, resumeCount::incrementAndGet);
+        budget.resumeWhenAvailable(8, resumeCount::incrementAndGet);
+        assertThat(resumeCount.get()).isEqualTo(0);
+        budget.release(8);
+        assertThat(resumeCount.get()).isEqualTo(0);
+        budget.release(16);
+        assertThat(resumeCount.get()).isEqualTo(1);
+        assertThat(budget.getBufferedBytes()).isEqualTo(16);
+        budget.release(8);
+        assertThat(resumeCount.get()).isEqualTo(2);
+        assertThat(budget.getBufferedBytes()).isEqualTo(16);
+    }
+
+    @Test
+    public void resumeWhenAvailable_Cancelled() {
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        AtomicInteger resumeCount = new AtomicInteger();
+        budget.acquire(16);
+        RequestBodyBudget.PausedRead pausedRead = budget.resumeWhenAvailable(8, resumeCount::incrementAndGet);
+        assertThat(pausedRead.cancel()).isTrue();
+        budget.release(16);
+        assertThat(resumeCount.get()).isEqualTo(0);
+        assertThat(budget.getBufferedBytes()).isZero();
+        assertThat(pausedRead.cancel()).isFalse();
+    }
+
+    @Test
+    public void rejectsWhenExhausted() {
+        RequestBodyBudget pauseBudget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        assertThat(pauseBudget.rejectsWhenExhausted()).isFalse();
+        RequestBodyBudget rejectBudget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.REJECT);
+        assertThat(rejectBudget.rejectsWhenExhausted()).isTrue();
+    }
+
+    @Test
+    public void global() {
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        try {
+            RequestBodyBudget.setGlobal(budget);
+            assertThat(RequestBodyBudget.getGlobal()).containsSame(budget);
+        } finally {
+            RequestBodyBudget.setGlobal(null);
+        }
+        assertThat(RequestBodyBudget.getGlobal()).isEmpty();
+    }
+
+    @Test
+    public void error_MaxBufferedBytesNotPositive() {
+        assertThatThrownBy(() -> RequestBodyBudget.create(0, RequestBodyBudget.WhenExhausted.PAUSE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maximum buffered bytes must be positive");
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.mikewacker.drift.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.undertow.server.RequestTooBigException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+public final class RequestBodyInflaterTest {
+
+    private static final String BODY = "{\"a\":\"" + "x".repeat(1000) + "\"}";
+
+    @Test
+    public void inflate_Gzip() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        assertThat(inflate(inflater, gzip(BODY), Integer.MAX_VALUE)).isEqualTo(BODY);
+    }
+
+    @Test
+    public void inflate_Gzip_ByteAtATime() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("x-gzip");
+        assertThat(inflate(inflater, gzip(BODY), 1)).isEqualTo(BODY);
+    }
+
+    @Test
+    public void inflate_Gzip_OptionalHeaderFields() throws IOException {
+        byte[] compressedBody = gzip(BODY);
+        ByteArrayOutputStream headerFieldsBody = new ByteArrayOutputStream();
+        headerFieldsBody.write(compressedBody, 0, 3);
+        headerFieldsBody.write(0x04 | 0x08 | 0x10); // FEXTRA, FNAME, FCOMMENT
+        headerFieldsBody.write(compressedBody, 4, 6);
+        headerFieldsBody.write(new byte[] {2, 0, 'x', 'y'});
+        headerFieldsBody.write("name\0comment\0".getBytes(StandardCharsets.US_ASCII));
+        headerFieldsBody.write(compressedBody, 10, compressedBody.length - 10);
+
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        assertThat(inflate(inflater, headerFieldsBody.toByteArray(), 3)).isEqualTo(BODY);
+    }
+
+    @Test
+    public void inflate_Deflate_Zlib() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("deflate");
+        assertThat(inflate(inflater, deflate(BODY, false), 7)).isEqualTo(BODY);
+    }
+
+    @Test
+    public void inflate_Deflate_Raw() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("Deflate");
+        assertThat(inflate(inflater, deflate(BODY, true), 7)).isEqualTo(BODY);
+    }
+
+    @Test
+    public void unsupportedEncoding() {
+        assertThat(RequestBodyInflater.tryCreate("br")).isNull();
+    }
+
+    @Test
+    public void inflateFailed_TooBig() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        byte[] compressedBody = gzip(BODY);
+        assertThatThrownBy(() -> inflater.inflate(compressedBody, BODY.length() - 1))
+                .isInstanceOf(RequestTooBigException.class);
+    }
+
+    @Test
+    public void inflateFailed_Truncated() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        byte[] compressedBody = gzip(BODY);
+        inflater.inflate(Arrays.copyOf(compressedBody, compressedBody.length - 4), Integer.MAX_VALUE);
+        assertThatThrownBy(inflater::finish).isInstanceOf(ZipException.class);
+    }
+
+    @Test
+    public void inflateFailed_BadTrailer() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        byte[] compressedBody = gzip(BODY);
+        compressedBody[compressedBody.length - 8] ^= 1;
+        assertThatThrownBy(() -> inflater.inflate(compressedBody, Integer.MAX_VALUE))
+                .isInstanceOf(ZipException.class);
+    }
+
+    @Test
+    public void inflateFailed_TrailingData() throws IOException {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        byte[] compressedBody = gzip(BODY);
+        byte[] trailingDataBody = Arrays.copyOf(compressedBody, compressedBody.length + 1);
+        assertThatThrownBy(() -> inflater.inflate(trailingDataBody, Integer.MAX_VALUE))
+                .isInstanceOf(ZipException.class);
+    }
+
+    @Test
+    public void inflateFailed_NotGzip() {
+        RequestBodyInflater inflater = RequestBodyInflater.tryCreate("gzip");
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> inflater.inflate(body, Integer.MAX_VALUE)).isInstanceOf(ZipException.class);
+    }
+
+    /** Inflates a compressed body in chunks of the specified size. */
+    private static String inflate(RequestBodyInflater inflater, byte[] compressedBody, int chunkSize)
+            throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            for (int offset = 0; offset < compressedBody.length; offset += chunkSize) {
+                int end = Math.min(offset + chunkSize, compressedBody.length);
+                byte[] chunk = Arrays.copyOfRange(compressedBody, offset, end);
+                body.write(inflater.inflate(chunk, Integer.MAX_VALUE));
+            }
+            inflater.finish();
+        } finally {
+            inflater.close();
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+        try (OutputStream compressedStream = new GZIPOutputStream(compressedBody)) {
+            compressedStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressedBody.toByteArray();
+    }
+
+    private static byte[] deflate(String body, boolean isRaw) throws IOException {
+        ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, isRaw);
+        try (OutputStream compressedStream = new DeflaterOutputStream(compressedBody, deflater)) {
+            compressedStream.write(body.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            deflater.end();
+        }
+        return compressedBody.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.mikewacker.drift.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
+import io.undertow.util.Headers;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+
+public final class ResponseCompressorTest {
+
+    private static final String RESPONSE = "{\"a\":\"" + "x".repeat(1000) + "\"}";
+
+    @Test
+    public void negotiate_Gzip() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("gzip, deflate, br")))
+                .isEqualTo("gzip");
+    }
+
+    @Test
+    public void negotiate_Deflate() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("deflate"))).isEqualTo("deflate");
+    }
+
+    @Test
+    public void negotiate_Preference() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("gzip;q=0.5, deflate")))
+                .isEqualTo("deflate");
+    }
+
+    @Test
+    public void negotiate_Wildcard() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("*"))).isEqualTo("gzip");
+    }
+
+    @Test
+    public void negotiate_Wildcard_Rejected() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("gzip;q=0, *"))).isEqualTo("deflate");
+    }
+
+    @Test
+    public void negotiate_NotAccepted() {
+        assertThat(ResponseCompressor.negotiate(acceptEncoding("br, identity"))).isNull();
+        assertThat(ResponseCompressor.negotiate(null)).isNull();
+    }
+
+    @Test
+    public void acceptsGzip() {
+        assertThat(ResponseCompressor.acceptsGzip(acceptEncoding("deflate, gzip;q=0.1")))
+                .isTrue();
+        assertThat(ResponseCompressor.acceptsGzip(acceptEncoding("deflate"))).isFalse();
+    }
+
+    @Test
+    public void compress_Gzip() throws IOException {
+        byte[] compressedResponse = compress("gzip");
+        assertThat(compressedResponse.length).isLessThan(RESPONSE.length());
+        assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(compressedResponse))))
+                .isEqualTo(RESPONSE);
+    }
+
+    @Test
+    public void compress_Deflate() throws IOException {
+        byte[] compressedResponse = compress("deflate");
+        assertThat(decompress(new InflaterInputStream(new ByteArrayInputStream(compressedResponse))))
+                .isEqualTo(RESPONSE);
+    }
+
+    private static HeaderValues acceptEncoding(String value) {
+        HeaderMap headers = new HeaderMap().put(Headers.ACCEPT_ENCODING, value);
+        return headers.get(Headers.ACCEPT_ENCODING);
+    }
+
+    /** Compresses the response, split across several input buffers and small output buffers. */
+    private static byte[] compress(String encoding) {
+        byte[] response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer[] input = {
+            ByteBuffer.wrap(response, 0, 100), ByteBuffer.wrap(response, 100, response.length - 100),
+        };
+        try (DefaultByteBufferPool pool = new DefaultByteBufferPool(false, 16)) {
+            PooledBufferOutputStream stream = ResponseCompressor.compress(input, encoding, 6, pool);
+            assertThat(input[0].position()).isZero();
+            byte[] compressedResponse = new byte[(int) stream.size()];
+            ByteBuffer compressedBuffer = ByteBuffer.wrap(compressedResponse);
+            for (ByteBuffer buffer : stream.flipBuffers()) {
+                compressedBuffer.put(buffer);
+            }
+            stream.release();
+            return compressedResponse;
+        }
+    }
+
+    private static String decompress(InputStream stream) throws IOException {
+        try (stream) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
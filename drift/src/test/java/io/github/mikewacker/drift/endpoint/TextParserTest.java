@@ -0,0 +1,55 @@
+package io.github.mikewacker.drift.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public final class TextParserTest {
+
+    @Test
+    public void parseInt() {
+        assertThat(TextParser.ofInt().parse("-42")).isEqualTo(-42);
+    }
+
+    @Test
+    public void parseLong() {
+        assertThat(TextParser.ofLong().parse("9000000000")).isEqualTo(9_000_000_000L);
+    }
+
+    @Test
+    public void parseBoolean() {
+        assertThat(TextParser.ofBoolean().parse("true")).isTrue();
+        assertThat(TextParser.ofBoolean().parse("false")).isFalse();
+    }
+
+    @Test
+    public void parseUuid() {
+        UUID uuid = UUID.randomUUID();
+        assertThat(TextParser.ofUuid().parse(uuid.toString())).isEqualTo(uuid);
+    }
+
+    @Test
+    public void parseEnum() {
+        assertThat(TextParser.ofEnum(HttpMethod.class).parse("GET")).isEqualTo(HttpMethod.GET);
+    }
+
+    @Test
+    public void parseInstant() {
+        assertThat(TextParser.ofInstant().parse("2024-01-01T00:00:00Z")).isEqualTo(Instant.ofEpochSecond(1704067200));
+    }
+
+    @Test
+    public void parseFailed() {
+        assertThatThrownBy(() -> TextParser.ofInt().parse("1.5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextParser.ofLong().parse("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextParser.ofBoolean().parse("yes")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextParser.ofUuid().parse("a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextParser.ofEnum(HttpMethod.class).parse("get"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TextParser.ofInstant().parse("2024-01-01"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
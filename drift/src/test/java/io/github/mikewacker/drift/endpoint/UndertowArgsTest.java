@@ -1,18 +1,46 @@
 package io.github.mikewacker.drift.endpoint;
 
 import static io.github.mikewacker.drift.testing.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
 import io.github.mikewacker.drift.client.JsonApiClient;
+import io.github.mikewacker.drift.json.JsonValues;
 import io.github.mikewacker.drift.testing.server.TestServer;
 import io.github.mikewacker.drift.testing.server.TestUndertowServer;
 import io.undertow.server.HttpServerExchange;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xnio.XnioIoThread;
 
 public final class UndertowArgsTest {
 
@@ -20,11 +48,24 @@ public final class UndertowArgsTest {
     private static final TestServer<?> server =
             TestUndertowServer.register("test", () -> UndertowArgsTest::handleRequest);
 
+    private static final String PADDED_BODY = " ".repeat(100) + "1";
+
     private static ArgExtractor.Async<HttpServerExchange, Integer> argExtractor;
+    private static BodyLimits limits;
+    private static volatile Thread extractedThread;
+    private static volatile Boolean spooledInMemory;
 
     @BeforeEach
     public void reset() {
         argExtractor = null;
+        limits = BodyLimits.none();
+        extractedThread = null;
+        spooledInMemory = null;
+    }
+
+    @AfterEach
+    public void removeBudget() {
+        RequestBodyBudget.setGlobal(null);
     }
 
     @Test
@@ -39,6 +80,233 @@ public final class UndertowArgsTest {
         assertThat(maybeArg).hasValue(1);
     }
 
+    @Test
+    public void body_Offloaded() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}, 1));
+        HttpOptional<Integer> maybeArg = putBody(1);
+        assertThat(maybeArg).hasValue(1);
+        assertThat(extractedThread).isNotInstanceOf(XnioIoThread.class);
+    }
+
+    @Test
+    public void body_Offloaded_Executor() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "offload"));
+        try {
+            set(UndertowArgs.body(new TypeReference<>() {}, 1, executor));
+            HttpOptional<Integer> maybeArg = putBody(1);
+            assertThat(maybeArg).hasValue(1);
+            assertThat(extractedThread.getName()).isEqualTo("offload");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void body_NotOffloaded_BelowThreshold() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}, 1024));
+        HttpOptional<Integer> maybeArg = putBody(1);
+        assertThat(maybeArg).hasValue(1);
+        assertThat(extractedThread).isInstanceOf(XnioIoThread.class);
+    }
+
+    @Test
+    public void error_OffloadThresholdNegative() {
+        assertThatThrownBy(() -> UndertowArgs.body(new TypeReference<Integer>() {}, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("offload threshold must not be negative");
+    }
+
+    @Test
+    public void body_LongBuffer() throws IOException {
+        ArgExtractor.Async<HttpServerExchange, LongBuffer> bufferExtractor =
+                UndertowArgs.body(new TypeReference<>() {});
+        set((httpExchange, callback) -> bufferExtractor.tryExtract(httpExchange, maybeBuffer -> {
+            LongBuffer buffer = maybeBuffer.get();
+            int sum = 0;
+            while (buffer.hasRemaining()) {
+                sum += (int) buffer.get();
+            }
+            callback.onArgExtracted(HttpOptional.of(sum));
+        }));
+        HttpOptional<Integer> maybeArg = putBody(new long[] {1, 2, 3});
+        assertThat(maybeArg).hasValue(6);
+    }
+
+    @Test
+    public void pooledBody() throws IOException {
+        ArgExtractor.Async<HttpServerExchange, MutableValue> pooledExtractor =
+                UndertowArgs.pooledBody(MutableValue::new, MutableValue::reset);
+        set(unwrap(pooledExtractor));
+        for (int i = 1; i <= 3; ++i) {
+            HttpOptional<Integer> maybeArg = putBody(Map.of("value", i));
+            assertThat(maybeArg).hasValue(i);
+        }
+        HttpOptional<Integer> maybeArg = putBody(Map.of());
+        assertThat(maybeArg).hasValue(0);
+    }
+
+    @Test
+    public void badRequest_PooledBody_DeserializeFailed() throws IOException {
+        ArgExtractor.Async<HttpServerExchange, MutableValue> pooledExtractor =
+                UndertowArgs.pooledBody(MutableValue::new, MutableValue::reset);
+        set(unwrap(pooledExtractor));
+        HttpOptional<Integer> maybeArg = putBody(Map.of("value", "a"));
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void bodyField() throws IOException {
+        set(UndertowArgs.bodyField("a", new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(Map.of("a", 1, "b", Map.of("c", List.of(2, 3))))
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void bodyField_SharedParse() throws IOException {
+        ArgExtractor.Async<HttpServerExchange, Integer> aExtractor =
+                UndertowArgs.bodyField("a", new TypeReference<>() {});
+        ArgExtractor.Async<HttpServerExchange, Integer> bExtractor =
+                UndertowArgs.bodyField("b", new TypeReference<>() {});
+        set((httpExchange, callback) -> aExtractor.tryExtract(
+                httpExchange,
+                maybeA -> bExtractor.tryExtract(
+                        httpExchange,
+                        maybeB -> callback.onArgExtracted(HttpOptional.of(maybeA.get() + maybeB.get())))));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(Map.of("a", 1, "b", 2))
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(3);
+    }
+
+    @Test
+    public void bodyPointer() throws IOException {
+        set(UndertowArgs.bodyPointer("/b/c/1", new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(Map.of("a", 1, "b", Map.of("c", List.of(2, 3))))
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(3);
+    }
+
+    @Test
+    public void error_BodyPointer_Malformed() {
+        assertThatThrownBy(() -> UndertowArgs.bodyPointer("a/b", new TypeReference<Integer>() {}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void badRequest_BodyField_Missing() throws IOException {
+        set(UndertowArgs.bodyField("a", new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(Map.of("b", 1))
+                .build()
+                .execute();
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void streamingBody() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(1)
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void ndjsonBody() throws IOException {
+        set(UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, SumSink::new));
+        HttpOptional<Integer> maybeArg = putNdjsonBody("1\n2\n\n3");
+        assertThat(maybeArg).hasValue(6);
+    }
+
+    @Test
+    public void ndjsonBody_Chunks() throws IOException {
+        set(UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, 2, ChunkSizesSink::new));
+        HttpOptional<Integer> maybeArg = putNdjsonBody("1\n2\n3\n4\n5\n");
+        assertThat(maybeArg).hasValue(221);
+    }
+
+    @Test
+    public void body_Gzip() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = putEncodedBody(gzip(PADDED_BODY), "gzip");
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void streamingBody_Deflate() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = putEncodedBody(deflate(PADDED_BODY), "deflate");
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void ndjsonBody_Gzip() throws IOException {
+        set(UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, SumSink::new));
+        HttpOptional<Integer> maybeArg = putEncodedBody(gzip("1\n2\n3\n"), "gzip");
+        assertThat(maybeArg).hasValue(6);
+    }
+
+    @Test
+    public void spooledBody_InMemory() throws IOException {
+        set(readSpooled(UndertowArgs.spooledBody(1024)));
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(200);
+        assertThat(spooledInMemory).isTrue();
+    }
+
+    @Test
+    public void spooledBody_File() throws IOException {
+        set(readSpooled(UndertowArgs.spooledBody(16)));
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(200);
+        assertThat(spooledInMemory).isFalse();
+    }
+
+    @Test
+    public void spooledBody_File_MultipleReads() throws Exception {
+        set(readSpooled(UndertowArgs.spooledBody(16)));
+        try (Socket socket = new Socket(server.host(), server.port())) {
+            socket.setSoTimeout(5000);
+            OutputStream requestStream = socket.getOutputStream();
+            String headers = "PUT / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Transfer-Encoding: chunked\r\n"
+                    + "Connection: close\r\n"
+                    + "\r\n";
+            requestStream.write(headers.getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < PADDED_BODY.length(); i += 25) {
+                String chunk = PADDED_BODY.substring(i, Math.min(i + 25, PADDED_BODY.length()));
+                String rawChunk = Integer.toHexString(chunk.length()) + "\r\n" + chunk + "\r\n";
+                requestStream.write(rawChunk.getBytes(StandardCharsets.US_ASCII));
+                requestStream.flush();
+                Thread.sleep(20);
+            }
+            requestStream.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            requestStream.flush();
+
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            assertThat(response).startsWith("HTTP/1.1 200").endsWith("1");
+        }
+        assertThat(spooledInMemory).isFalse();
+    }
+
     @Test
     public void queryParam() throws IOException {
         set(UndertowArgs.queryParam("param", new TypeReference<>() {}));
@@ -50,6 +318,52 @@ public final class UndertowArgsTest {
         assertThat(maybeArg).hasValue(1);
     }
 
+    @Test
+    public void queryParam_Parsed() throws IOException {
+        set(UndertowArgs.queryParam("param", TextParser.ofInt()));
+        HttpOptional<Integer> maybeArg = get("/path?param=1");
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void queryParamList() throws IOException {
+        set(sum(UndertowArgs.queryParamList("param", TextParser.ofInt())));
+        HttpOptional<Integer> maybeArg = get("/path?param=1&param=2&param=3");
+        assertThat(maybeArg).hasValue(6);
+    }
+
+    @Test
+    public void queryParamList_NoValues() throws IOException {
+        set(sum(UndertowArgs.queryParamList("param", TextParser.ofInt())));
+        HttpOptional<Integer> maybeArg = get("/path");
+        assertThat(maybeArg).hasValue(0);
+    }
+
+    @Test
+    public void header() throws IOException {
+        set(UndertowArgs.header("X-Param", TextParser.ofInt()));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .get(server.rootUrl())
+                .header("X-Param", "1")
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(1);
+    }
+
+    @Test
+    public void headerList() throws IOException {
+        set(sum(UndertowArgs.headerList("X-Param", TextParser.ofInt())));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .get(server.rootUrl())
+                .header("X-Param", "1, 2")
+                .header("X-Param", "3")
+                .build()
+                .execute();
+        assertThat(maybeArg).hasValue(6);
+    }
+
     @Test
     public void badRequest_Body_DeserializeFailed() throws IOException {
         set(UndertowArgs.body(new TypeReference<>() {}));
@@ -62,6 +376,226 @@ public final class UndertowArgsTest {
         assertThat(maybeArg).isEmptyWithErrorCode(400);
     }
 
+    @Test
+    public void badRequest_NdjsonBody_DeserializeFailed() throws IOException {
+        set(UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, SumSink::new));
+        HttpOptional<Integer> maybeArg = putNdjsonBody("1\na\n3\n");
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void internalServerError_NdjsonBody_SinkFailed() throws IOException {
+        set(UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, SumSink::new));
+        HttpOptional<Integer> maybeArg = putNdjsonBody("1\n-1\n");
+        assertThat(maybeArg).isEmptyWithErrorCode(500);
+    }
+
+    @Test
+    public void error_NdjsonBody_MaxChunkSizeNotPositive() {
+        assertThatThrownBy(() -> UndertowArgs.ndjsonBody(new TypeReference<Integer>() {}, 0, ChunkSizesSink::new))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("maximum chunk size must be positive");
+    }
+
+    @Test
+    public void badRequest_StreamingBody_DeserializeFailed() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body("a")
+                .build()
+                .execute();
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void payloadTooLarge_Body_ContentLength() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        int statusCode = putPaddedBody(false);
+        assertThat(statusCode).isEqualTo(413);
+    }
+
+    @Test
+    public void payloadTooLarge_Body_Chunked() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(413);
+    }
+
+    @Test
+    public void payloadTooLarge_StreamingBody_ContentLength() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        int statusCode = putPaddedBody(false);
+        assertThat(statusCode).isEqualTo(413);
+    }
+
+    @Test
+    public void payloadTooLarge_StreamingBody_Chunked() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(413);
+    }
+
+    @Test
+    public void payloadTooLarge_SpooledBody() throws IOException {
+        set(readSpooled(UndertowArgs.spooledBody(16)));
+        limits = BodyLimits.none().withMaxSize(32);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(413);
+    }
+
+    @Test
+    public void payloadTooLarge_Body_Stalled() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        String response = putStalledBody(PADDED_BODY);
+        assertThat(response).startsWith("HTTP/1.1 413");
+    }
+
+    @Test
+    public void payloadTooLarge_StreamingBody_Stalled() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(16);
+        String response = putStalledBody(PADDED_BODY);
+        assertThat(response).startsWith("HTTP/1.1 413");
+    }
+
+    @Test
+    public void payloadTooLarge_SpooledBody_Stalled() throws IOException {
+        set(readSpooled(UndertowArgs.spooledBody(16)));
+        limits = BodyLimits.none().withMaxSize(32);
+        String response = putStalledBody(PADDED_BODY);
+        assertThat(response).startsWith("HTTP/1.1 413");
+    }
+
+    @Test
+    public void error_SpooledBody_InMemoryThresholdNegative() {
+        assertThatThrownBy(() -> UndertowArgs.spooledBody(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("in-memory threshold must not be negative");
+    }
+
+    @Test
+    public void payloadTooLarge_Body_Gzip_MaxSize() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(64);
+        HttpOptional<Integer> maybeArg = putEncodedBody(gzip(PADDED_BODY), "gzip");
+        assertThat(maybeArg).isEmptyWithErrorCode(413);
+    }
+
+    @Test
+    public void payloadTooLarge_Body_Gzip_CompressionRatio() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxCompressionRatio(2);
+        HttpOptional<Integer> maybeArg = putEncodedBody(gzip(PADDED_BODY), "gzip");
+        assertThat(maybeArg).isEmptyWithErrorCode(413);
+    }
+
+    @Test
+    public void badRequest_Body_Gzip_Malformed() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        byte[] body = gzip(PADDED_BODY);
+        HttpOptional<Integer> maybeArg = putEncodedBody(Arrays.copyOf(body, body.length - 1), "gzip");
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void unsupportedMediaType_Body_Encoding() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        HttpOptional<Integer> maybeArg = putEncodedBody(PADDED_BODY.getBytes(StandardCharsets.UTF_8), "br");
+        assertThat(maybeArg).isEmptyWithErrorCode(415);
+    }
+
+    @Test
+    public void bodyWithinLimit_Chunked() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMaxSize(1024);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(200);
+    }
+
+    @Test
+    public void body_WithinBudget() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        RequestBodyBudget budget = RequestBodyBudget.create(1024, RequestBodyBudget.WhenExhausted.REJECT);
+        RequestBodyBudget.setGlobal(budget);
+        int statusCode = putPaddedBody(false);
+        assertThat(statusCode).isEqualTo(200);
+        assertThat(budget.getBufferedBytes()).isZero();
+    }
+
+    @Test
+    public void body_BudgetExceededWhileReading() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.REJECT);
+        RequestBodyBudget.setGlobal(budget);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(200);
+        assertThat(budget.getBufferedBytes()).isZero();
+    }
+
+    @Test
+    public void body_BudgetExhausted_Pause() throws Exception {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        RequestBodyBudget.setGlobal(budget);
+        budget.acquire(16);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> futureStatusCode = executor.submit(() -> putPaddedBody(false));
+            Thread.sleep(250);
+            assertThat(futureStatusCode.isDone()).isFalse();
+            assertThat(budget.getBufferedBytes()).isEqualTo(16);
+
+            budget.release(16);
+            assertThat(futureStatusCode.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+            assertThat(budget.getBufferedBytes()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void body_BudgetExhausted_Pause_Disconnected() throws Exception {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.PAUSE);
+        RequestBodyBudget.setGlobal(budget);
+        budget.acquire(16);
+
+        try (Socket socket = new Socket(server.host(), server.port())) {
+            OutputStream requestStream = socket.getOutputStream();
+            String request = "PUT / HTTP/1.1\r\n" + "Host: localhost\r\n" + "Content-Length: 101\r\n" + "\r\n";
+            requestStream.write(request.getBytes(StandardCharsets.US_ASCII));
+            requestStream.flush();
+            Thread.sleep(250);
+        }
+
+        Thread.sleep(250);
+        budget.release(16);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((budget.getBufferedBytes() != 0) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(budget.getBufferedBytes()).isZero();
+    }
+
+    @Test
+    public void serviceUnavailable_Body_BudgetExhausted() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        RequestBodyBudget budget = RequestBodyBudget.create(16, RequestBodyBudget.WhenExhausted.REJECT);
+        RequestBodyBudget.setGlobal(budget);
+        budget.acquire(16);
+        int statusCode = putPaddedBody(false);
+        assertThat(statusCode).isEqualTo(503);
+        assertThat(budget.getBufferedBytes()).isEqualTo(16);
+    }
+
     @Test
     public void badRequest_QueryParam_Missing() throws IOException {
         set(UndertowArgs.queryParam("param", new TypeReference<>() {}));
@@ -95,6 +629,188 @@ public final class UndertowArgsTest {
         assertThat(maybeArg).isEmptyWithErrorCode(400);
     }
 
+    @Test
+    public void badRequest_QueryParam_ParseFailed() throws IOException {
+        set(UndertowArgs.queryParam("param", TextParser.ofInt()));
+        HttpOptional<Integer> maybeArg = get("/path?param=a");
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void badRequest_QueryParamList_ParseFailed() throws IOException {
+        set(sum(UndertowArgs.queryParamList("param", TextParser.ofInt())));
+        HttpOptional<Integer> maybeArg = get("/path?param=1&param=a");
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void badRequest_Header_Missing() throws IOException {
+        set(UndertowArgs.header("X-Param", TextParser.ofInt()));
+        HttpOptional<Integer> maybeArg = get("/path");
+        assertThat(maybeArg).isEmptyWithErrorCode(400);
+    }
+
+    @Test
+    public void requestTimeout_Body_ReadTimeout() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withReadTimeout(Duration.ofMillis(250));
+        String response = putStalledBody("1");
+        assertThat(response).startsWith("HTTP/1.1 408");
+    }
+
+    @Test
+    public void requestTimeout_StreamingBody_ReadTimeout() throws IOException {
+        set(UndertowArgs.streamingBody(new TypeReference<>() {}));
+        limits = BodyLimits.none().withReadTimeout(Duration.ofMillis(250));
+        String response = putStalledBody("1");
+        assertThat(response).startsWith("HTTP/1.1 408");
+    }
+
+    @Test
+    public void requestTimeout_SpooledBody_ReadTimeout() throws IOException {
+        set(readSpooled(UndertowArgs.spooledBody(0)));
+        limits = BodyLimits.none().withReadTimeout(Duration.ofMillis(250));
+        String response = putStalledBody("1");
+        assertThat(response).startsWith("HTTP/1.1 408");
+    }
+
+    @Test
+    public void requestTimeout_Body_MinThroughput() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withMinBytesPerSecond(1024);
+        String response = putStalledBody("1");
+        assertThat(response).startsWith("HTTP/1.1 408");
+    }
+
+    @Test
+    public void body_WithinTimeLimits() throws IOException {
+        set(UndertowArgs.body(new TypeReference<>() {}));
+        limits = BodyLimits.none().withReadTimeout(Duration.ofSeconds(5)).withMinBytesPerSecond(1);
+        int statusCode = putPaddedBody(true);
+        assertThat(statusCode).isEqualTo(200);
+    }
+
+    /** Sends a GET request, returning the value in the response. */
+    private static HttpOptional<Integer> get(String path) throws IOException {
+        return JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .get(server.url(path))
+                .build()
+                .execute();
+    }
+
+    /** Adapts an extractor for a list of integers to an extractor for their sum. */
+    private static ArgExtractor<HttpServerExchange, Integer> sum(
+            ArgExtractor<HttpServerExchange, List<Integer>> argExtractor) {
+        return httpExchange -> {
+            HttpOptional<List<Integer>> maybeArgs = argExtractor.tryExtract(httpExchange);
+            if (maybeArgs.isEmpty()) {
+                return maybeArgs.convertEmpty();
+            }
+
+            int sum = maybeArgs.get().stream().mapToInt(Integer::intValue).sum();
+            return HttpOptional.of(sum);
+        };
+    }
+
+    /** Adapts an extractor for a spooled body to an extractor that deserializes the body and then closes it. */
+    private static ArgExtractor.Async<HttpServerExchange, Integer> readSpooled(
+            ArgExtractor.Async<HttpServerExchange, SpooledBody> argExtractor) {
+        return (httpExchange, callback) -> argExtractor.tryExtract(httpExchange, maybeBody -> {
+            if (maybeBody.isEmpty()) {
+                callback.onArgExtracted(maybeBody.convertEmpty());
+                return;
+            }
+
+            try (SpooledBody body = maybeBody.get()) {
+                spooledInMemory = body.isInMemory();
+                ByteBuffer buffer = body.map();
+                byte[] rawBody = new byte[buffer.remaining()];
+                buffer.get(rawBody);
+                callback.onArgExtracted(JsonValues.tryDeserialize(rawBody, new TypeReference<>() {}, 400));
+            }
+        });
+    }
+
+    /** Sends a newline-delimited JSON body, returning the value in the response. */
+    private static HttpOptional<Integer> putNdjsonBody(String body) throws IOException {
+        return putRawBody(new ChunkedRequestBody(body), "identity");
+    }
+
+    /** Sends a compressed JSON body, returning the value in the response. */
+    private static HttpOptional<Integer> putEncodedBody(byte[] body, String contentEncoding) throws IOException {
+        return putRawBody(RequestBody.create(body, null), contentEncoding);
+    }
+
+    /** Sends a raw body, returning the value in the response. */
+    private static HttpOptional<Integer> putRawBody(RequestBody body, String contentEncoding) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.rootUrl())
+                .header("Content-Encoding", contentEncoding)
+                .put(body)
+                .build();
+        OkHttpClient client = new OkHttpClient();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() != 200) {
+                return HttpOptional.empty(response.code());
+            }
+
+            return HttpOptional.of(JsonValues.deserialize(response.body().bytes(), new TypeReference<>() {}));
+        }
+    }
+
+    /** Adapts an extractor for a mutable value to an extractor for its current value. */
+    private static ArgExtractor.Async<HttpServerExchange, Integer> unwrap(
+            ArgExtractor.Async<HttpServerExchange, MutableValue> argExtractor) {
+        return (httpExchange, callback) -> argExtractor.tryExtract(httpExchange, maybeValue -> {
+            HttpOptional<Integer> maybeArg =
+                    maybeValue.isPresent() ? HttpOptional.of(maybeValue.get().value) : maybeValue.convertEmpty();
+            callback.onArgExtracted(maybeArg);
+        });
+    }
+
+    /** Sends a JSON body, returning the value in the response. */
+    private static HttpOptional<Integer> putBody(Object value) throws IOException {
+        return JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<Integer>() {})
+                .put(server.rootUrl())
+                .body(value)
+                .build()
+                .execute();
+    }
+
+    /**
+     * Sends the first chunk of a JSON body and then stalls, returning the response.
+     * The response is read until the server closes the connection.
+     */
+    private static String putStalledBody(String firstChunk) throws IOException {
+        try (Socket socket = new Socket(server.host(), server.port())) {
+            socket.setSoTimeout(5000);
+            OutputStream requestStream = socket.getOutputStream();
+            String request = "PUT / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Transfer-Encoding: chunked\r\n"
+                    + "\r\n"
+                    + Integer.toHexString(firstChunk.length()) + "\r\n"
+                    + firstChunk + "\r\n";
+            requestStream.write(request.getBytes(StandardCharsets.US_ASCII));
+            requestStream.flush();
+
+            InputStream responseStream = socket.getInputStream();
+            return new String(responseStream.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    /** Sends a JSON body that is padded with whitespace, returning the status code. */
+    private static int putPaddedBody(boolean isChunked) throws IOException {
+        RequestBody body = isChunked ? new ChunkedRequestBody(PADDED_BODY) : RequestBody.create(PADDED_BODY, null);
+        Request request = new Request.Builder().url(server.rootUrl()).put(body).build();
+        OkHttpClient client = new OkHttpClient();
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+
     private static void set(ArgExtractor<HttpServerExchange, Integer> argExtractor) {
         UndertowArgsTest.argExtractor = argExtractor.async();
     }
@@ -105,11 +821,100 @@ public final class UndertowArgsTest {
 
     /** Test {@code HttpHandler} that extracts an argument and sends it as the response. */
     private static void handleRequest(HttpServerExchange httpExchange) throws Exception {
+        if (limits.isLimited()) {
+            httpExchange.putAttachment(UndertowJsonApiHandler.BODY_LIMITS, limits);
+        }
+
         Sender.Value<Integer> sender = UndertowSender.JsonValue.create(httpExchange);
         argExtractor.tryExtract(httpExchange, maybeArg -> onArgExtracted(sender, maybeArg));
     }
 
     private static void onArgExtracted(Sender.Value<Integer> sender, HttpOptional<Integer> maybeArg) {
+        extractedThread = Thread.currentThread();
         sender.send(maybeArg);
     }
+
+    /** Compresses a body with gzip. */
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+        try (OutputStream compressedStream = new GZIPOutputStream(compressedBody)) {
+            compressedStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressedBody.toByteArray();
+    }
+
+    /** Compresses a body with deflate, using the zlib format. */
+    private static byte[] deflate(String body) throws IOException {
+        ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+        try (OutputStream compressedStream = new DeflaterOutputStream(compressedBody)) {
+            compressedStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressedBody.toByteArray();
+    }
+
+    /** Mutable value that can be deserialized in place. */
+    public static final class MutableValue {
+
+        public int value = 0;
+
+        public void reset() {
+            value = 0;
+        }
+    }
+
+    /** Sink that sums positive items, and fails on any other item. */
+    private static final class SumSink implements ItemSink<Integer, Integer> {
+
+        private int sum = 0;
+
+        @Override
+        public void onItem(Integer item) {
+            if (item <= 0) {
+                throw new IllegalArgumentException("item must be positive");
+            }
+
+            sum += item;
+        }
+
+        @Override
+        public HttpOptional<Integer> finish() {
+            return HttpOptional.of(sum);
+        }
+    }
+
+    /** Sink that records the sizes of the chunks as the digits of a number, in order. */
+    private static final class ChunkSizesSink implements ItemSink<List<Integer>, Integer> {
+
+        private int chunkSizes = 0;
+
+        @Override
+        public void onItem(List<Integer> chunk) {
+            chunkSizes = 10 * chunkSizes + chunk.size();
+        }
+
+        @Override
+        public HttpOptional<Integer> finish() {
+            return HttpOptional.of(chunkSizes);
+        }
+    }
+
+    /** Request body of unknown length, which is sent using chunked transfer encoding. */
+    private static final class ChunkedRequestBody extends RequestBody {
+
+        private final String body;
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            sink.writeUtf8(body);
+        }
+
+        private ChunkedRequestBody(String body) {
+            this.body = body;
+        }
+    }
 }
@@ -37,4 +37,25 @@ public final class UndertowJsonApiTest {
                 .execute();
         assertThat(maybeGreeting).hasValue("Hello, world!");
     }
+
+    @Test
+    public void exchange_BodyTooLarge() throws IOException {
+        HttpOptional<String> maybeGreeting = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<String>() {})
+                .post(server.url("/greeting"))
+                .body("world".repeat(1000))
+                .build()
+                .execute();
+        assertThat(maybeGreeting).isEmptyWithErrorCode(413);
+    }
+
+    @Test
+    public void exchange_PathParam() throws IOException {
+        HttpOptional<String> maybeGreeting = JsonApiClient.requestBuilder()
+                .jsonResponse(new TypeReference<String>() {})
+                .get(server.url("/greeting/world"))
+                .build()
+                .execute();
+        assertThat(maybeGreeting).hasValue("Hello, world!");
+    }
 }
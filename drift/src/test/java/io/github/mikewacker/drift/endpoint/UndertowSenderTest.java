@@ -1,22 +1,51 @@
 package io.github.mikewacker.drift.endpoint;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
 import io.github.mikewacker.drift.client.JsonApiClient;
+import io.github.mikewacker.drift.json.JsonValues;
+import io.github.mikewacker.drift.json.RawJson;
 import io.github.mikewacker.drift.testing.api.Assertions;
 import io.github.mikewacker.drift.testing.server.TestServer;
 import io.github.mikewacker.drift.testing.server.TestUndertowServer;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.StatusCodes;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 public final class UndertowSenderTest {
 
+    private static final String LARGE_TEXT = "x".repeat(100_000);
+
+    private static final AtomicLong slowClientItemsPulled = new AtomicLong();
+    private static final CountDownLatch slowClientItemsClosed = new CountDownLatch(1);
+    private static final AtomicReference<Sender.Events.Channel<String>> heartbeatChannel = new AtomicReference<>();
+    private static final CountDownLatch slowClientEventRejected = new CountDownLatch(1);
+
     @RegisterExtension
     private static final TestServer<?> server =
             TestUndertowServer.register("test", () -> UndertowSenderTest::handleRequest);
@@ -57,6 +86,252 @@ public final class UndertowSenderTest {
         Assertions.assertThat(maybeText).hasValue("first");
     }
 
+    @Test
+    public void send_JsonValue_Large() throws IOException {
+        HttpOptional<String> maybeText = executeTextRequest("/text/large");
+        Assertions.assertThat(maybeText).hasValue(LARGE_TEXT);
+    }
+
+    @Test
+    public void send_JsonValue_ContentLength() throws IOException {
+        Request request = new Request.Builder().url(server.url("/text/large")).build();
+        OkHttpClient client = new OkHttpClient();
+        try (Response response = client.newCall(request).execute()) {
+            byte[] rawValue = response.body().bytes();
+            assertThat(response.header("Content-Length")).isEqualTo(String.valueOf(rawValue.length));
+            assertThat(rawValue).hasSize(LARGE_TEXT.length() + 2);
+        }
+    }
+
+    @Test
+    public void send_JsonValue_RawJson() throws IOException {
+        HttpOptional<String> maybeText = executeTextRequest("/raw-json/ok");
+        Assertions.assertThat(maybeText).hasValue("raw");
+    }
+
+    @Test
+    public void send_JsonValue_Compressed_Gzip() throws IOException {
+        try (Response response = executeRawRequest("/compressed/large", "Accept-Encoding", "gzip, deflate")) {
+            byte[] rawValue = response.body().bytes();
+            assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+            assertThat(response.header("Content-Length")).isEqualTo(String.valueOf(rawValue.length));
+            assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(rawValue))))
+                    .isEqualTo("\"" + LARGE_TEXT + "\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_Compressed_Deflate() throws IOException {
+        try (Response response = executeRawRequest("/compressed/large", "Accept-Encoding", "deflate")) {
+            byte[] rawValue = response.body().bytes();
+            assertThat(response.header("Content-Encoding")).isEqualTo("deflate");
+            assertThat(decompress(new InflaterInputStream(new ByteArrayInputStream(rawValue))))
+                    .isEqualTo("\"" + LARGE_TEXT + "\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_Compressed_Repeated() throws IOException {
+        for (int i = 0; i < 3; ++i) {
+            try (Response response = executeRawRequest("/compressed/large", "Accept-Encoding", "gzip")) {
+                assertThat(decompress(new GZIPInputStream(response.body().byteStream())))
+                        .isEqualTo("\"" + LARGE_TEXT + "\"");
+            }
+            try (Response response = executeRawRequest("/compressed/large", "Accept-Encoding", "deflate")) {
+                assertThat(decompress(new InflaterInputStream(response.body().byteStream())))
+                        .isEqualTo("\"" + LARGE_TEXT + "\"");
+            }
+        }
+    }
+
+    @Test
+    public void send_JsonValue_Compressed_NotAccepted() throws IOException {
+        try (Response response = executeRawRequest("/compressed/large", "Accept-Encoding", "identity")) {
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+            assertThat(response.body().bytes()).hasSize(LARGE_TEXT.length() + 2);
+        }
+    }
+
+    @Test
+    public void send_JsonValue_Compressed_BelowMinSize() throws IOException {
+        try (Response response = executeRawRequest("/compressed/small", "Accept-Encoding", "gzip")) {
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.body().string()).isEqualTo("\"test\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_RawJson_Precompressed() throws IOException {
+        try (Response response = executeRawRequest("/raw-json/precompressed", "Accept-Encoding", "gzip")) {
+            byte[] rawValue = response.body().bytes();
+            assertThat(response.header("Content-Encoding")).isEqualTo("gzip");
+            assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(rawValue))))
+                    .isEqualTo("\"raw\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_RawJson_Precompressed_NotAccepted() throws IOException {
+        try (Response response = executeRawRequest("/raw-json/precompressed", "Accept-Encoding", "deflate")) {
+            assertThat(response.header("Content-Encoding")).isNull();
+            assertThat(response.header("Vary")).isEqualTo("Accept-Encoding");
+            assertThat(response.body().string()).isEqualTo("\"raw\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_ETag() throws IOException {
+        String etag;
+        try (Response response = executeRawRequest("/etag/hashed", "If-None-Match", "W/\"other\"")) {
+            etag = response.header("ETag");
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(etag).startsWith("W/\"");
+            assertThat(response.body().string()).isEqualTo("\"test\"");
+        }
+
+        try (Response response = executeRawRequest("/etag/hashed", "If-None-Match", etag)) {
+            assertThat(response.code()).isEqualTo(304);
+            assertThat(response.header("ETag")).isEqualTo(etag);
+            assertThat(response.body().bytes()).isEmpty();
+        }
+    }
+
+    @Test
+    public void send_JsonValue_ETag_DifferentValues() throws IOException {
+        try (Response response1 = executeRawRequest("/etag/hashed", "Accept", "application/json");
+                Response response2 = executeRawRequest("/etag/hashed-other", "Accept", "application/json")) {
+            assertThat(response1.header("ETag")).isNotEqualTo(response2.header("ETag"));
+        }
+    }
+
+    @Test
+    public void send_JsonValue_VersionedValue() throws IOException {
+        try (Response response = executeRawRequest("/etag/versioned", "Accept", "application/json")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.header("ETag")).isEqualTo("W/\"v1\"");
+            assertThat(response.body().string()).isEqualTo("\"versioned\"");
+        }
+    }
+
+    @Test
+    public void send_JsonValue_VersionedValue_NotModified() throws IOException {
+        try (Response response = executeRawRequest("/etag/versioned", "If-None-Match", "\"v0\", W/\"v1\"")) {
+            assertThat(response.code()).isEqualTo(304);
+            assertThat(response.header("ETag")).isEqualTo("W/\"v1\"");
+            assertThat(response.body().bytes()).isEmpty();
+        }
+    }
+
+    @Test
+    public void send_Stream_JsonArray() throws IOException {
+        try (Response response = executeRawRequest("/stream/array", "Accept", "application/json")) {
+            assertThat(response.header("Content-Type")).isEqualTo("application/json");
+            assertThat(response.header("Transfer-Encoding")).isEqualTo("chunked");
+            List<Integer> items = JsonValues.deserialize(response.body().bytes(), new TypeReference<>() {});
+            assertThat(items).hasSize(100_000);
+            assertThat(items.get(99_999)).isEqualTo(99_999);
+        }
+    }
+
+    @Test
+    public void send_Stream_JsonLines() throws IOException {
+        try (Response response = executeRawRequest("/stream/ndjson", "Accept", "application/x-ndjson")) {
+            assertThat(response.header("Content-Type")).isEqualTo("application/x-ndjson");
+            assertThat(response.body().string()).isEqualTo("0\n1\n2\n");
+        }
+    }
+
+    @Test
+    public void send_Stream_Publisher() throws IOException {
+        try (Response response = executeRawRequest("/stream/publisher", "Accept", "application/json")) {
+            List<Integer> items = JsonValues.deserialize(response.body().bytes(), new TypeReference<>() {});
+            assertThat(items).isEqualTo(IntStream.range(0, 1000).boxed().toList());
+        }
+    }
+
+    @Test
+    public void send_Stream_Empty() throws IOException {
+        try (Response response = executeRawRequest("/stream/empty", "Accept", "application/json")) {
+            assertThat(response.body().string()).isEqualTo("[]");
+        }
+    }
+
+    @Test
+    public void send_Stream_Forbidden() throws IOException {
+        int statusCode = executeStatusCodeRequest("/stream/forbidden");
+        assertThat(statusCode).isEqualTo(403);
+    }
+
+    @Test
+    public void send_Stream_ProducerFailed() {
+        assertThatThrownBy(() -> {
+                    try (Response response = executeRawRequest("/stream/failure", "Accept", "application/json")) {
+                        response.body().bytes();
+                    }
+                })
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void send_Stream_Backpressure() throws Exception {
+        try (Response response = executeRawRequest("/stream/slow-client", "Accept", "application/json")) {
+            assertThat(response.body().source().readByte()).isEqualTo((byte) '[');
+            Thread.sleep(500);
+            assertThat(slowClientItemsPulled.get()).isPositive().isLessThan(1_000_000);
+        }
+
+        assertThat(slowClientItemsClosed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void send_Events() throws IOException {
+        try (Response response = executeRawRequest("/events/push", "Accept", "text/event-stream")) {
+            assertThat(response.header("Content-Type")).isEqualTo("text/event-stream");
+            assertThat(response.header("Cache-Control")).isEqualTo("no-cache");
+            assertThat(response.body().string()).isEqualTo(":\n\ndata: \"a\"\n\nevent: update\ndata: \"b\"\n\n");
+        }
+    }
+
+    @Test
+    public void send_Events_RawJson_MultipleLines() throws IOException {
+        try (Response response = executeRawRequest("/events/raw-json", "Accept", "text/event-stream")) {
+            assertThat(response.body().string())
+                    .isEqualTo(":\n\ndata: {\ndata:   \"a\": 1,\ndata:   \"b\": 2\ndata: }\n\n");
+        }
+    }
+
+    @Test
+    public void send_Events_Forbidden() throws IOException {
+        int statusCode = executeStatusCodeRequest("/events/forbidden");
+        assertThat(statusCode).isEqualTo(403);
+    }
+
+    @Test
+    public void send_Events_Heartbeat() throws Exception {
+        try (Response response = executeRawRequest("/events/heartbeat", "Accept", "text/event-stream")) {
+            BufferedSource source = response.body().source();
+            assertThat(source.readUtf8(3)).isEqualTo(":\n\n");
+            assertThat(source.readUtf8(3)).isEqualTo(":\n\n");
+            assertThat(heartbeatChannel.get().isOpen()).isTrue();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (heartbeatChannel.get().isOpen() && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(heartbeatChannel.get().isOpen()).isFalse();
+    }
+
+    @Test
+    public void send_Events_SlowClient() throws Exception {
+        try (Response response = executeRawRequest("/events/slow-client", "Accept", "text/event-stream")) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(slowClientEventRejected.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
     private static int executeStatusCodeRequest(String path) throws IOException {
         return JsonApiClient.requestBuilder()
                 .statusCodeResponse()
@@ -73,6 +348,25 @@ public final class UndertowSenderTest {
                 .execute();
     }
 
+    /**
+     * Executes a request with a header.
+     * If the header is {@code Accept-Encoding}, the client does not decompress the body.
+     */
+    private static Response executeRawRequest(String path, String headerName, String headerValue) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url(path))
+                .header(headerName, headerValue)
+                .build();
+        OkHttpClient client = new OkHttpClient();
+        return client.newCall(request).execute();
+    }
+
+    private static String decompress(InputStream stream) throws IOException {
+        try (stream) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     /** Test {@code HttpHandler} that uses an {@code UndertowSender}. */
     private static void handleRequest(HttpServerExchange httpExchange) {
         Sender.StatusCode statusCodeSender = UndertowSender.StatusCode.create(httpExchange);
@@ -84,10 +378,126 @@ public final class UndertowSenderTest {
             case "/text/ok" -> valueSender.sendValue("test");
             case "/text/forbidden" -> valueSender.sendErrorCode(StatusCodes.FORBIDDEN);
             case "/text/send-twice" -> sendValueTwice(valueSender);
+            case "/text/large" -> valueSender.sendValue(LARGE_TEXT);
+            case "/raw-json/ok" -> sendRawJson(httpExchange);
+            case "/raw-json/precompressed" -> sendPrecompressedRawJson(httpExchange);
+            case "/compressed/large" -> sendCompressed(httpExchange, valueSender, LARGE_TEXT);
+            case "/compressed/small" -> sendCompressed(httpExchange, valueSender, "test");
+            case "/etag/hashed" -> sendWithETag(httpExchange, valueSender, "test");
+            case "/etag/hashed-other" -> sendWithETag(httpExchange, valueSender, "other");
+            case "/etag/versioned" -> sendVersioned(httpExchange, valueSender);
+            case "/stream/array" -> UndertowSender.JsonStream.<Integer>jsonArray(httpExchange)
+                    .sendItems(IntStream.range(0, 100_000).iterator());
+            case "/stream/ndjson" -> UndertowSender.JsonStream.<Integer>jsonLines(httpExchange)
+                    .sendItems(IntStream.range(0, 3).iterator());
+            case "/stream/publisher" -> sendPublishedItems(httpExchange);
+            case "/stream/empty" -> UndertowSender.JsonStream.<Integer>jsonArray(httpExchange)
+                    .sendItems(Collections.emptyIterator());
+            case "/stream/forbidden" -> UndertowSender.JsonStream.jsonArray(httpExchange)
+                    .sendErrorCode(StatusCodes.FORBIDDEN);
+            case "/stream/failure" -> UndertowSender.JsonStream.<Integer>jsonArray(httpExchange)
+                    .sendItems(IntStream.iterate(0, i -> {
+                                if (i == 50_000) {
+                                    throw new IllegalStateException("producer failed");
+                                }
+
+                                return i + 1;
+                            })
+                            .iterator());
+            case "/events/push" -> pushEvents(httpExchange);
+            case "/events/raw-json" -> pushRawJsonEvent(httpExchange);
+            case "/events/forbidden" -> UndertowSender.Events.create(httpExchange, Duration.ofSeconds(15), 1024)
+                    .sendErrorCode(StatusCodes.FORBIDDEN);
+            case "/events/heartbeat" -> heartbeatChannel.set(
+                    UndertowSender.Events.<String>create(httpExchange, Duration.ofMillis(50), 1024)
+                            .sendEvents());
+            case "/events/slow-client" -> pushEventsToSlowClient(httpExchange);
+            case "/stream/slow-client" -> UndertowSender.JsonStream.<String>jsonArray(httpExchange)
+                    .sendItems(new SlowClientItems());
             default -> statusCodeSender.sendErrorCode(StatusCodes.NOT_FOUND);
         }
     }
 
+    private static void sendRawJson(HttpServerExchange httpExchange) {
+        Sender.Value<RawJson> rawValueSender = UndertowSender.JsonValue.create(httpExchange);
+        rawValueSender.sendValue(RawJson.of("\"raw\"".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void sendPrecompressedRawJson(HttpServerExchange httpExchange) {
+        Sender.Value<RawJson> rawValueSender = UndertowSender.JsonValue.create(httpExchange);
+        rawValueSender.sendValue(
+                RawJson.of("\"raw\"".getBytes(StandardCharsets.UTF_8)).precompress());
+    }
+
+    private static void sendCompressed(HttpServerExchange httpExchange, Sender.Value<String> sender, String text) {
+        httpExchange.putAttachment(UndertowJsonApiHandler.RESPONSE_COMPRESSION, ResponseCompression.of(1024, 6));
+        sender.sendValue(text);
+    }
+
+    private static void sendWithETag(HttpServerExchange httpExchange, Sender.Value<String> sender, String text) {
+        httpExchange.putAttachment(UndertowJsonApiHandler.COMPUTE_ETAGS, true);
+        sender.sendValue(text);
+    }
+
+    private static void sendVersioned(HttpServerExchange httpExchange, Sender.Value<String> sender) {
+        httpExchange.putAttachment(UndertowJsonApiHandler.COMPUTE_ETAGS, true);
+        sender.sendVersionedValue("v1", () -> {
+            if (httpExchange.getRequestHeaders().contains("If-None-Match")) {
+                throw new IllegalStateException("value should not be loaded");
+            }
+
+            return "versioned";
+        });
+    }
+
+    private static void sendPublishedItems(HttpServerExchange httpExchange) {
+        SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+        UndertowSender.JsonStream.<Integer>jsonArray(httpExchange).sendItems(publisher);
+        new Thread(() -> {
+                    try (publisher) {
+                        IntStream.range(0, 1000).forEach(publisher::submit);
+                    }
+                })
+                .start();
+    }
+
+    private static void pushEvents(HttpServerExchange httpExchange) {
+        Sender.Events.Channel<String> channel = UndertowSender.Events.<String>create(
+                        httpExchange, Duration.ofSeconds(15), 1024)
+                .sendEvents();
+        new Thread(() -> {
+                    try (channel) {
+                        channel.push("a");
+                        channel.push("update", "b");
+                    }
+                })
+                .start();
+    }
+
+    private static void pushRawJsonEvent(HttpServerExchange httpExchange) {
+        Sender.Events.Channel<RawJson> channel = UndertowSender.Events.<RawJson>create(
+                        httpExchange, Duration.ofSeconds(15), 1024)
+                .sendEvents();
+        try (channel) {
+            channel.push(RawJson.of("{\n  \"a\": 1,\r\n  \"b\": 2\r}".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static void pushEventsToSlowClient(HttpServerExchange httpExchange) {
+        Sender.Events.Channel<String> channel = UndertowSender.Events.<String>create(
+                        httpExchange, Duration.ofSeconds(15), 64 * 1024)
+                .sendEvents();
+        new Thread(() -> {
+                    for (int i = 0; i < 100_000; ++i) {
+                        if (!channel.push(LARGE_TEXT)) {
+                            slowClientEventRejected.countDown();
+                            return;
+                        }
+                    }
+                })
+                .start();
+    }
+
     private static void sendStatusCodeTwice(Sender.StatusCode sender) {
         sender.sendOk();
         sender.sendErrorCode(403);
@@ -97,4 +507,26 @@ public final class UndertowSenderTest {
         sender.sendValue("first");
         sender.sendValue("second");
     }
+
+    /** Endless items that count how many items were pulled, and that record when they are closed. */
+    private static final class SlowClientItems implements Iterator<String>, AutoCloseable {
+
+        private static final String ITEM = "y".repeat(100);
+
+        @Override
+        public boolean hasNext() {
+            return true;
+        }
+
+        @Override
+        public String next() {
+            slowClientItemsPulled.incrementAndGet();
+            return ITEM;
+        }
+
+        @Override
+        public void close() {
+            slowClientItemsClosed.countDown();
+        }
+    }
 }
@@ -11,10 +11,17 @@ public final class GreeterEndpoint {
         return UndertowJsonApiRouter.of(
                 UndertowJsonApiHandler.builder()
                         .route(HttpMethod.POST, "/greeting")
+                        .maxBodySize(1024)
                         .jsonResponse(new TypeReference<String>() {})
                         .arg(UndertowArgs.body(new TypeReference<String>() {}))
                         .apiHandler(Greeter::sendGreeting)
                         .build(),
+                UndertowJsonApiHandler.builder()
+                        .route(HttpMethod.GET, "/greeting/{recipient}")
+                        .jsonResponse(new TypeReference<String>() {})
+                        .arg(UndertowArgs.pathParam("recipient"))
+                        .apiHandler(Greeter::sendGreeting)
+                        .build(),
                 UndertowJsonApiHandler.builder()
                         .route(HttpMethod.GET, "/health")
                         .statusCodeResponse()
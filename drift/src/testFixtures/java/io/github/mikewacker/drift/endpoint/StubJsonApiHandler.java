@@ -5,7 +5,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import io.github.mikewacker.drift.api.HttpOptional;
 import io.github.mikewacker.drift.api.Sender;
 import io.github.mikewacker.drift.testing.api.StubDispatcher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 /** Stub HTTP handler for an API handler. */
 final class StubJsonApiHandler implements JsonApiHandler<StubHttpExchange> {
@@ -42,6 +46,21 @@ final class StubJsonApiHandler implements JsonApiHandler<StubHttpExchange> {
         return delegate.getRelativePathSegments();
     }
 
+    @Override
+    public BodyLimits getBodyLimits() {
+        return delegate.getBodyLimits();
+    }
+
+    @Override
+    public ResponseCompression getResponseCompression() {
+        return delegate.getResponseCompression();
+    }
+
+    @Override
+    public boolean isComputingETags() {
+        return delegate.isComputingETags();
+    }
+
     @Override
     public void handleRequest(StubHttpExchange httpExchange) throws Exception {
         statusCode = null;
@@ -70,6 +89,19 @@ final class StubJsonApiHandler implements JsonApiHandler<StubHttpExchange> {
             return httpExchange -> (maybeValue -> StubJsonApiHandler.maybeValue = (HttpOptional<Object>) maybeValue);
         }
 
+        @Override
+        protected <I>
+                GenericJsonApiHandler.SenderFactory<StubHttpExchange, Sender.Stream<I>> getJsonStreamSenderFactory(
+                        StreamFormat format) {
+            return httpExchange -> new StubStreamSender<>();
+        }
+
+        @Override
+        protected <V> GenericJsonApiHandler.SenderFactory<StubHttpExchange, Sender.Events<V>> getEventsSenderFactory(
+                Duration heartbeatInterval, long maxBufferedBytes) {
+            return httpExchange -> new StubEventsSender<>();
+        }
+
         @Override
         protected GenericJsonApiHandler.DispatcherFactory<StubHttpExchange> getDispatcherFactory() {
             return httpExchange -> StubDispatcher.get();
@@ -81,4 +113,39 @@ final class StubJsonApiHandler implements JsonApiHandler<StubHttpExchange> {
             return StubJsonApiHandler::new;
         }
     }
+
+    /** Stub {@code Sender.Stream} that sends the items of an iterator as a list. */
+    private static final class StubStreamSender<I> implements Sender.Stream<I> {
+
+        @Override
+        public void sendItems(Iterator<? extends I> items) {
+            List<Object> itemList = new ArrayList<>();
+            items.forEachRemaining(itemList::add);
+            StubJsonApiHandler.maybeValue = HttpOptional.of(itemList);
+        }
+
+        @Override
+        public void sendItems(Flow.Publisher<? extends I> items) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendErrorCode(int errorCode) {
+            StubJsonApiHandler.maybeValue = HttpOptional.empty(errorCode);
+        }
+    }
+
+    /** Stub {@code Sender.Events} that can only send an error status code. */
+    private static final class StubEventsSender<V> implements Sender.Events<V> {
+
+        @Override
+        public Channel<V> sendEvents() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendErrorCode(int errorCode) {
+            StubJsonApiHandler.maybeValue = HttpOptional.empty(errorCode);
+        }
+    }
 }
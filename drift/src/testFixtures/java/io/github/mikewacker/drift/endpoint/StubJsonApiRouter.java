@@ -1,6 +1,6 @@
 package io.github.mikewacker.drift.endpoint;
 
-import io.github.mikewacker.drift.api.Sender;
+import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -8,35 +8,39 @@ import java.util.OptionalInt;
 public class StubJsonApiRouter extends GenericJsonApiRouter<StubHttpExchange> {
 
     private static OptionalInt maybeErrorCode = OptionalInt.empty();
+    private static PathParams pathParams = null;
 
     /** Gets the error status code if it was sent. */
     public static OptionalInt tryGetErrorCodeSent() {
         return maybeErrorCode;
     }
 
+    /** Gets the value of a path parameter if it was set. */
+    public static Optional<String> tryGetPathParam(String name) {
+        return Optional.ofNullable(pathParams).map(pp -> pp.get(name));
+    }
+
     /** Creates a router. */
     public static StubJsonApiRouter of(StubJsonApiHandler... httpHandlers) {
-        StubJsonApiRouter router = new StubJsonApiRouter();
-        for (StubJsonApiHandler httpHandler : httpHandlers) {
-            router.addHttpHandler(httpHandler);
-        }
-        return router;
+        return new StubJsonApiRouter(List.of(httpHandlers));
     }
 
     @Override
-    protected Sender createErrorCodeSender(StubHttpExchange httpExchange) {
-        maybeErrorCode = OptionalInt.empty();
-        return errorCode -> maybeErrorCode = OptionalInt.of(errorCode);
+    protected void sendErrorCode(StubHttpExchange httpExchange, int errorCode) {
+        maybeErrorCode = OptionalInt.of(errorCode);
+    }
+
+    @Override
+    protected void setPathParams(StubHttpExchange httpExchange, PathParams pathParams) {
+        StubJsonApiRouter.pathParams = pathParams;
     }
 
     @Override
-    protected Optional<HttpMethod> tryGetMethod(StubHttpExchange httpExchange) {
-        try {
-            HttpMethod method = HttpMethod.valueOf(httpExchange.method());
-            return Optional.of(method);
-        } catch (IllegalArgumentException e) {
-            return Optional.empty();
-        }
+    protected String getMethod(StubHttpExchange httpExchange) {
+        // Called once for each request.
+        maybeErrorCode = OptionalInt.empty();
+        pathParams = null;
+        return httpExchange.method();
     }
 
     @Override
@@ -44,5 +48,7 @@ public class StubJsonApiRouter extends GenericJsonApiRouter<StubHttpExchange> {
         return httpExchange.relativePath();
     }
 
-    private StubJsonApiRouter() {}
+    private StubJsonApiRouter(List<StubJsonApiHandler> httpHandlers) {
+        super(httpHandlers);
+    }
 }